@@ -0,0 +1,83 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import chess.enums.Color;
+
+/**
+ * An immutable copy of a game board's position: the twelve piece bitboards,
+ * castling rights, en passant square, move counters, player to move and
+ * hash key, in under two hundred bytes. Everything else a board keeps,
+ * such as the piece on each square, the piece lists and the evaluation
+ * sums, is rebuilt from the bitboards on restore. A snapshot
+ * has no move history, so a board restored from it cannot take back moves
+ * played before it and does not see repetitions of those positions.
+ * Snapshots never change and can be handed to any number of threads,
+ * each building its own board with new Gameboard(snapshot).
+ */
+public final class BoardSnapshot
+{
+    /** The bitboard of each color and type, indexed like Gameboard.getBitboard. */
+    final long[] bitboards;
+
+    /** The castling rights still available. */
+    final int castlingRights;
+
+    /** The en passant square, or -1 if none. */
+    final int enPassantSquare;
+
+    /** The number of moves since the last capture or pawn move. */
+    final int halfmoveClock;
+
+    /** The number of the current full move. */
+    final int fullmoveNumber;
+
+    /** The player to move. */
+    final Color currentPlayer;
+
+    /** The Zobrist key of the position. */
+    final long hashKey;
+
+    /**
+     * Constructs a snapshot; the bitboard array is taken over, not copied.
+     * @param bitboards       the bitboard of each color and type
+     * @param castlingRights  the castling rights still available
+     * @param enPassantSquare the en passant square, or -1 if none
+     * @param halfmoveClock   the number of moves since the last capture or pawn move
+     * @param fullmoveNumber  the number of the current full move
+     * @param currentPlayer   the player to move
+     * @param hashKey         the Zobrist key of the position
+     */
+    BoardSnapshot(long[] bitboards, int castlingRights, int enPassantSquare, int halfmoveClock,
+            int fullmoveNumber, Color currentPlayer, long hashKey)
+    {
+        this.bitboards = bitboards;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        this.currentPlayer = currentPlayer;
+        this.hashKey = hashKey;
+    }
+
+    /**
+     * Returns the player to move in the saved position.
+     * @return the color of the player to move
+     */
+    public Color getCurrentPlayer()
+    {
+        return currentPlayer;
+    }
+
+    /**
+     * Returns the Zobrist key of the saved position.
+     * @return the hash key
+     */
+    public long hashKey()
+    {
+        return hashKey;
+    }
+}
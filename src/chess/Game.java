@@ -8,6 +8,8 @@ package chess;
 import java.util.Scanner;
 
 import chess.enums.Color;
+import chess.notation.San;
+import chess.notation.Uci;
 import chess.utils.Utils;
 
 /**
@@ -15,6 +17,11 @@ import chess.utils.Utils;
  */
 public class Game
 {
+    /**
+     * The text a player adds after a move to offer a draw.
+     */
+    private static final String DRAW_OFFER = "draw?";
+
     /**
      * The gameboard.
      */
@@ -31,13 +38,18 @@ public class Game
     /**
      * Allows players to take turns making moves until the game ends.
      * Prompts players for input and makes moves on the game board
-     * accordingly. Checks for check and checkmate each move. Ends 
-     * the game when a player is checkmated is reached.
+     * accordingly. Moves may be given in SAN, e.g. "Nf3" or "e8=Q", or as
+     * the two squares in UCI style, e.g. "g1f3" or "g1 f3"; a promotion
+     * without a piece becomes a queen. A move followed by "draw?" offers a
+     * draw, which the opponent accepts by answering "draw". Checks for
+     * check and checkmate each move. Ends the game when a player is
+     * checkmated, resigns or accepts a draw.
      */
     public void play() {
         Scanner scanner = new Scanner(System.in);
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        boolean drawOffered = false;
         board.setCurrentPlayer(Color.WHITE);
-        int enPassantCol = -1; // initialize to -1, which means no en passant capture is possible
         
         while (true) {
             board.printBoard();
@@ -56,11 +68,8 @@ public class Game
     
             System.out.print(Utils.capitalize(board.getCurrentPlayer().toString()) + "'s move: ");
     
-            String input;
-            int[] fromRowCol;
-            int[] toRowCol; 
             while (true) {
-                input = scanner.nextLine();
+                String input = scanner.nextLine().trim();
                 if (input.equals("q")) {
                     scanner.close();
                     return;
@@ -73,53 +82,32 @@ public class Game
                     return;
                 }
     
-                if (input.length() > 5) {
-                    if (input.substring(6).equals("draw?")) {
-                        String draw = scanner.nextLine();
-                        if (draw.equals("draw")) {
-                            scanner.close();
-                            return;
-                        }
-                        else {
-                            break;
-                        }
+                if (input.equals("draw")) {
+                    if (drawOffered) {
+                        scanner.close();
+                        return;
                     }
-                }
-                
-                if (!Utils.isValidInput(input)) {
-                    System.out.println("Invalid input format");
+                    System.out.println("No draw was offered");
                     continue;
                 }
-                
-                fromRowCol = Utils.convertFileRankToRowCol(input.substring(0, 2));
-                toRowCol = Utils.convertFileRankToRowCol(input.substring(3, 5));
-                
-                // Check for en passant move
-                if (input.contains("e.p.")) {
-                    enPassantCol = Utils.convertFileRankToRowCol(input.substring(6))[1];
-                } else {
-                    enPassantCol = -1;
-                }
-    
-                Piece tempFromPiece = board.getPieceAt(fromRowCol[0], fromRowCol[1]);
-                Piece tempToPiece = board.getPieceAt(toRowCol[0], toRowCol[1]);
     
-                if (board.movePiece(fromRowCol[0], fromRowCol[1], toRowCol[0], toRowCol[1])) {
-                    if (board.isCheck(board.getCurrentPlayer())) {
-                        // undo move
-                        board.setPieceAt(tempFromPiece, fromRowCol[0], fromRowCol[1]);
-                        board.setPieceAt(tempToPiece, toRowCol[0], toRowCol[1]);
-                        System.out.println("Illegal move, try again");
-                        continue;
-                    }
-                    break;
+                // The move is read in place, without cutting "draw?" off into a new string
+                boolean offersDraw = input.endsWith(DRAW_OFFER);
+                int end = offersDraw ? input.length() - DRAW_OFFER.length() : input.length();
+                while (end > 0 && input.charAt(end - 1) == ' ') {
+                    end--;
                 }
-                else {
+                int move = Uci.isUci(input, 0, end)
+                        ? Uci.parse(board, input, 0, end, buffer)
+                        : San.parse(board, input, 0, end, buffer);
+                if (move == MoveCode.NONE) {
                     System.out.println("Illegal move, try again");
                     continue;
                 }
+                board.makeMove(move);
+                drawOffered = offersDraw;
+                break;
             }
-            board.setCurrentPlayer(board.getCurrentPlayer().opposite());
         }
     }
     
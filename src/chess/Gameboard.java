@@ -5,82 +5,565 @@
 
 package chess;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.util.Arrays;
 import java.util.Set;
-import java.util.HashSet;
 
 import chess.enums.Color;
+import chess.enums.PieceType;
 import chess.pieces.*;
-import chess.utils.Utils;
+import chess.utils.Attacks;
+import chess.utils.Square;
+import chess.utils.SquareSet;
 
 /**
  * The GameBoard class represents a chess game
  * board with pieces in their starting positions.
+ * The position is stored as one bitboard per piece type and color
+ * plus occupancy masks, with a square-indexed piece array kept
+ * alongside for getPieceAt and setPieceAt.
  */
 public class Gameboard
 {
-    /** The array of pieces on the game board. */
-    private Piece[][] board;
+    /** The pieces on the game board indexed by square (row * 8 + col), null if empty. */
+    private Piece[] squares;
 
-    /** A list of all the moves made in the game. */
-    private List<Move> moves;
+    /**
+     * One bitboard per piece type and color, indexed by color * 6 + type.
+     * Bit n is set when the square n (row * 8 + col) holds such a piece.
+     */
+    private long[] bitboards;
+
+    /** The occupancy mask of each color, indexed by color ordinal. */
+    private long[] occupancy;
+
+    /** The occupancy mask of both colors. */
+    private long occupied;
 
     /** The color of the current player */
     private Color currentPlayer;
 
-    /** The boolean matrix to track whether a piece has moved or not */
-    private boolean[][] hasMoved;
+    /** Castling right bit: white may still castle kingside. */
+    public static final int WHITE_KINGSIDE = 1;
+
+    /** Castling right bit: white may still castle queenside. */
+    public static final int WHITE_QUEENSIDE = 2;
+
+    /** Castling right bit: black may still castle kingside. */
+    public static final int BLACK_KINGSIDE = 4;
+
+    /** Castling right bit: black may still castle queenside. */
+    public static final int BLACK_QUEENSIDE = 8;
+
+    /** The castling rights still available, a combination of the castling right bits. */
+    private int castlingRights;
+
+    /** The square a pawn may capture en passant on this move, or -1 if none. */
+    private int enPassantSquare;
+
+    /** The number of moves since the last capture or pawn move. */
+    private int halfmoveClock;
+
+    /** The number of the current full move, starting at 1 and increased after each black move. */
+    private int fullmoveNumber;
+
+    /** The types of the pieces on the first rank at the start, from the a file to the h file. */
+    private static final PieceType[] BACK_RANK = {
+        PieceType.ROOK, PieceType.KNIGHT, PieceType.BISHOP, PieceType.QUEEN,
+        PieceType.KING, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK
+    };
+
+    /** Both colors, in ordinal order. */
+    private static final Color[] COLORS = Color.values();
 
-    
+    /** The piece types, in ordinal order. */
+    private static final PieceType[] TYPES = PieceType.values();
+
+    /** The FEN letter of each piece, indexed like the bitboards. */
+    private static final String FEN_PIECES = "PNBRQKpnbrqk";
+
+    /** The bitboard index of each FEN piece letter, or -1, indexed by character. */
+    private static final int[] FEN_PIECE_INDEX = new int[128];
+
+    /** The castling rights kept when a piece leaves or lands on each square. */
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(FEN_PIECE_INDEX, -1);
+        for (int index = 0; index < FEN_PIECES.length(); index++) {
+            FEN_PIECE_INDEX[FEN_PIECES.charAt(index)] = index;
+        }
+        for (int square = 0; square < 64; square++) {
+            CASTLING_MASK[square] = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+        }
+        CASTLING_MASK[0] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[4] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[7] &= ~BLACK_KINGSIDE;
+        CASTLING_MASK[56] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[60] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[63] &= ~WHITE_KINGSIDE;
+    }
+
+    /** The initial capacity of the undo stack, in plies. */
+    private static final int UNDO_CAPACITY = 512;
+
+    /** The moves made with makeMove, by ply, encoded as described in MoveCode. */
+    private int[] undoMoves;
+
+    /** The piece captured by each move, by ply, null if none. */
+    private Piece[] undoCaptured;
+
+    /**
+     * The state each move overwrote, by ply: castling rights in bits 0-3,
+     * en passant square + 1 in bits 4-10 and halfmove clock in bits 11-26.
+     */
+    private int[] undoState;
+
+    /** The hash key before each move, by ply. */
+    private long[] undoHash;
+
+    /** The number of moves on the undo stack. */
+    private int ply;
+
+    /**
+     * The Zobrist key of the position without the en passant file, kept up
+     * to date on every change; hashKey() adds the file when it counts.
+     */
+    private long hashKey;
+
+    /** The most pieces of one color and type the piece lists hold. */
+    private static final int MAX_PIECES = 16;
+
+    /**
+     * The squares of the pieces of each color and type, in blocks of MAX_PIECES
+     * indexed by the bitboard index; only the first pieceCounts entries of a block are used.
+     */
+    private int[] pieceLists;
+
+    /** The number of pieces of each color and type, indexed like the bitboards. */
+    private int[] pieceCounts;
+
+    /** The position of the piece on each square within its piece list. */
+    private int[] pieceListSlots;
+
+    /** The square of each king, indexed by color ordinal, or Square.NONE; kept up to date on every change. */
+    private int[] kingSquares;
+
+    /** The midgame material and piece-square sum, white minus black, kept up to date on every change. */
+    private int midgameScore;
+
+    /** The endgame material and piece-square sum, white minus black, kept up to date on every change. */
+    private int endgameScore;
+
+    /** The game phase from the pieces on the board, PieceSquareTables.MAX_PHASE at the start. */
+    private int phase;
+
+    /** The squares attacked by each color, indexed by color ordinal; valid while attacksValid is set. */
+    private long[] attacked;
+
+    /**
+     * The enemy pieces giving check to the king of each color, indexed by
+     * color ordinal; valid while pinsValid is set for the color.
+     */
+    private long[] checkers;
+
+    /**
+     * The pieces of each color pinned to their own king, indexed by color
+     * ordinal; valid while pinsValid is set for the color.
+     */
+    private long[] pinned;
+
+    /** Whether attacked describes the current position; cleared by every change. */
+    private boolean attacksValid;
+
+    /** Whether checkers and pinned describe the current position, by color; cleared by every change. */
+    private boolean[] pinsValid;
 
     /**
      * Initializes the chess game board by placing
      * all the pieces in their starting positions.
      */
     public Gameboard() {
-        board = new Piece[8][8];
-        hasMoved = new boolean[8][8];
-        this.moves = new ArrayList<Move>();
-
-
-        // Black Pieces
-        board[0][0] = new Rook(Color.BLACK, 0, 0, Color.WHITE);
-        board[0][1] = new Knight(Color.BLACK, 0, 1);
-        board[0][2] = new Bishop(Color.BLACK, 0, 2);
-        board[0][3] = new Queen(Color.BLACK, 0, 3);
-        board[0][4] = new King(Color.BLACK, 0, 4);
-        board[0][5] = new Bishop(Color.BLACK, 0, 5);
-        board[0][6] = new Knight(Color.BLACK, 0, 6);
-        board[0][7] = new Rook(Color.BLACK, 0, 7, Color.WHITE);
-        for (int i = 0; i < 8; i++) {
-            board[1][i] = new Pawn(Color.BLACK, 1, i);
-        }
-
-        // White Pieces
-        board[7][0] = new Rook(Color.WHITE, 7, 0, Color.BLACK);
-        board[7][1] = new Knight(Color.WHITE, 7, 1);
-        board[7][2] = new Bishop(Color.WHITE, 7, 2);
-        board[7][3] = new Queen(Color.WHITE, 7, 3);
-        board[7][4] = new King(Color.WHITE, 7, 4);
-        board[7][5] = new Bishop(Color.WHITE, 7, 5);
-        board[7][6] = new Knight(Color.WHITE, 7, 6);
-        board[7][7] = new Rook(Color.WHITE, 7, 7, Color.BLACK);
-        for (int i = 0; i < 8; i++) {
-            board[6][i] = new Pawn(Color.WHITE, 6, i);
+        allocate();
+        castlingRights = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+        hashKey = Zobrist.castling(castlingRights);
+
+        for (int col = 0; col < 8; col++) {
+            setPieceAt(Piece.of(Color.BLACK, BACK_RANK[col]), 0, col);
+            setPieceAt(Piece.of(Color.BLACK, PieceType.PAWN), 1, col);
+            setPieceAt(Piece.of(Color.WHITE, PieceType.PAWN), 6, col);
+            setPieceAt(Piece.of(Color.WHITE, BACK_RANK[col]), 7, col);
         }
+    }
 
-        for (int i = 2; i < 6; i++) {
-            for (int j = 0; j < 8; j++) {
-                board[i][j] = null;
+    /**
+     * Creates a game board holding the position of a snapshot, with no move
+     * history.
+     * @param snapshot the position to set up
+     */
+    public Gameboard(BoardSnapshot snapshot) {
+        allocate();
+        restore(snapshot);
+    }
+
+    /**
+     * Creates a game board holding the position of a FEN record.
+     * @param fen the FEN record
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    private Gameboard(String fen) {
+        allocate();
+        parseFen(fen);
+    }
+
+    /**
+     * Creates a game board from a position in Forsyth-Edwards Notation, e.g.
+     * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1". All six
+     * fields are read; the halfmove clock and fullmove number may be left
+     * off, as in EPD records, and then default to 0 and 1. Each side must
+     * have exactly one king, and no pawn may stand on the first or eighth
+     * rank. The board has no move history.
+     * @param fen the FEN record
+     * @return the new game board
+     * @throws IllegalArgumentException if the record is malformed or the position impossible
+     */
+    public static Gameboard fromFen(String fen) {
+        return new Gameboard(fen);
+    }
+
+    /**
+     * Returns the position in Forsyth-Edwards Notation, with all six fields.
+     * @return the FEN record of the position
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                Piece piece = squares[row * 8 + col];
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(FEN_PIECES.charAt(piece.getColor().ordinal() * PieceType.COUNT + piece.getType().ordinal()));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row < 7) {
+                fen.append('/');
+            }
+        }
+        fen.append(currentPlayer == Color.WHITE ? " w " : " b ");
+        if (castlingRights == 0) {
+            fen.append('-');
+        }
+        if ((castlingRights & WHITE_KINGSIDE) != 0) {
+            fen.append('K');
+        }
+        if ((castlingRights & WHITE_QUEENSIDE) != 0) {
+            fen.append('Q');
+        }
+        if ((castlingRights & BLACK_KINGSIDE) != 0) {
+            fen.append('k');
+        }
+        if ((castlingRights & BLACK_QUEENSIDE) != 0) {
+            fen.append('q');
+        }
+        fen.append(' ').append(Square.name(enPassantSquare));
+        fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    /**
+     * Sets up the position of a FEN record on an empty board, reading the
+     * record character by character without splitting it.
+     * @param fen the FEN record
+     * @throws IllegalArgumentException if the record is malformed or the position impossible
+     */
+    private void parseFen(String fen) {
+        int length = fen.length();
+        int i = 0;
+        int row = 0;
+        int col = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (row == 7) {
+                    throw invalidFen(fen, "the piece placement has more than 8 ranks");
+                }
+                if (col != 8) {
+                    throw invalidFen(fen, "rank " + (8 - row) + " does not have 8 squares");
+                }
+                row++;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 8) {
+                    throw invalidFen(fen, "rank " + (8 - row) + " has more than 8 squares");
+                }
+            } else {
+                int index = c < 128 ? FEN_PIECE_INDEX[c] : -1;
+                if (index < 0) {
+                    throw invalidFen(fen, "unexpected character '" + c + "' in the piece placement");
+                }
+                if (col == 8) {
+                    throw invalidFen(fen, "rank " + (8 - row) + " has more than 8 squares");
+                }
+                if (pieceCounts[index] == MAX_PIECES) {
+                    throw invalidFen(fen, "too many pieces of one kind");
+                }
+                putPiece(Piece.of(COLORS[index / PieceType.COUNT], TYPES[index % PieceType.COUNT]), row * 8 + col++);
+            }
+        }
+        if (row != 7 || col != 8) {
+            throw invalidFen(fen, "the piece placement does not cover 8 ranks of 8 squares");
+        }
+        if (pieceCounts[PieceType.KING.ordinal()] != 1
+                || pieceCounts[PieceType.COUNT + PieceType.KING.ordinal()] != 1) {
+            throw invalidFen(fen, "each side must have exactly one king");
+        }
+        long pawns = bitboards[PieceType.PAWN.ordinal()] | bitboards[PieceType.COUNT + PieceType.PAWN.ordinal()];
+        // row 0 is the eighth rank and row 7 the first
+        if ((pawns & 0xFF000000000000FFL) != 0) {
+            throw invalidFen(fen, "a pawn stands on the first or eighth rank");
+        }
+
+        i = startFenField(fen, i, "side to move");
+        char side = fen.charAt(i++);
+        if (side == 'b') {
+            currentPlayer = Color.BLACK;
+        } else if (side != 'w') {
+            throw invalidFen(fen, "the side to move is not 'w' or 'b'");
+        }
+
+        i = startFenField(fen, i, "castling rights");
+        if (fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                switch (fen.charAt(i)) {
+                    case 'K':
+                        castlingRights |= WHITE_KINGSIDE;
+                        break;
+                    case 'Q':
+                        castlingRights |= WHITE_QUEENSIDE;
+                        break;
+                    case 'k':
+                        castlingRights |= BLACK_KINGSIDE;
+                        break;
+                    case 'q':
+                        castlingRights |= BLACK_QUEENSIDE;
+                        break;
+                    default:
+                        throw invalidFen(fen, "unexpected character '" + fen.charAt(i) + "' in the castling rights");
+                }
             }
         }
+
+        i = startFenField(fen, i, "en passant square");
+        if (fen.charAt(i) == '-') {
+            i++;
+        } else {
+            enPassantSquare = Square.parse(fen, i);
+            if (enPassantSquare == Square.NONE || Square.rank(enPassantSquare) != (side == 'w' ? 6 : 3)) {
+                throw invalidFen(fen, "the en passant square is not on the sixth rank of the side to move");
+            }
+            i += 2;
+        }
+
+        if (i < length) {
+            i = startFenField(fen, i, "halfmove clock");
+            int end = fenFieldEnd(fen, i);
+            halfmoveClock = parseFenNumber(fen, i, end, 0);
+            i = end;
+        }
+        if (i < length) {
+            i = startFenField(fen, i, "fullmove number");
+            int end = fenFieldEnd(fen, i);
+            fullmoveNumber = parseFenNumber(fen, i, end, 1);
+            i = end;
+        }
+        if (i < length) {
+            throw invalidFen(fen, "unexpected text after the fullmove number");
+        }
+
+        hashKey ^= Zobrist.castling(castlingRights) ^ (currentPlayer == Color.BLACK ? Zobrist.blackToMove() : 0L);
+    }
+
+    /**
+     * Checks that a FEN field follows the previous one after a single space.
+     * @param fen   the FEN record
+     * @param i     the position just after the previous field
+     * @param field the name of the field, for the error message
+     * @return the position of the first character of the field
+     * @throws IllegalArgumentException if the field is missing
+     */
+    private static int startFenField(String fen, int i, String field) {
+        if (i + 1 >= fen.length() || fen.charAt(i) != ' ' || fen.charAt(i + 1) == ' ') {
+            throw invalidFen(fen, "expected a single space and the " + field + " at position " + i);
+        }
+        return i + 1;
+    }
+
+    /**
+     * Returns the position just after the FEN field starting at a position.
+     * @param fen   the FEN record
+     * @param start the position of the first character of the field
+     * @return the position of the next space, or the length of the record
+     */
+    private static int fenFieldEnd(String fen, int start) {
+        int end = fen.indexOf(' ', start);
+        return end < 0 ? fen.length() : end;
+    }
+
+    /**
+     * Reads a counter field of a FEN record.
+     * @param fen     the FEN record
+     * @param start   the position of the first digit
+     * @param end     the position just after the last digit
+     * @param minimum the smallest value allowed
+     * @return the value of the field
+     * @throws IllegalArgumentException if the field is not a number in range
+     */
+    private static int parseFenNumber(String fen, int start, int end, int minimum) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalidFen(fen, "the move counters must be numbers from " + minimum + " to 65535");
+            }
+            value = value * 10 + (c - '0');
+            if (value > 0xFFFF) {
+                throw invalidFen(fen, "the move counters must be numbers from " + minimum + " to 65535");
+            }
+        }
+        if (value < minimum) {
+            throw invalidFen(fen, "the move counters must be numbers from " + minimum + " to 65535");
+        }
+        return value;
+    }
+
+    /**
+     * Creates the exception thrown for a malformed FEN record.
+     * @param fen    the FEN record
+     * @param reason what is wrong with it
+     * @return the exception to throw
+     */
+    private static IllegalArgumentException invalidFen(String fen, String reason) {
+        return new IllegalArgumentException("invalid FEN, " + reason + ": " + fen);
+    }
+
+    /**
+     * Allocates the arrays of an empty board with white to move.
+     */
+    private void allocate() {
+        squares = new Piece[64];
+        bitboards = new long[2 * PieceType.COUNT];
+        occupancy = new long[2];
+        kingSquares = new int[] { Square.NONE, Square.NONE };
+        pieceLists = new int[2 * PieceType.COUNT * MAX_PIECES];
+        pieceCounts = new int[2 * PieceType.COUNT];
+        pieceListSlots = new int[64];
+        currentPlayer = Color.WHITE;
+        enPassantSquare = -1;
+        fullmoveNumber = 1;
+        undoMoves = new int[UNDO_CAPACITY];
+        undoCaptured = new Piece[UNDO_CAPACITY];
+        undoState = new int[UNDO_CAPACITY];
+        undoHash = new long[UNDO_CAPACITY];
+        attacked = new long[2];
+        checkers = new long[2];
+        pinned = new long[2];
+        pinsValid = new boolean[2];
+    }
+
+    /**
+     * Creates an independent copy of a game board, including its move
+     * history, so each search thread can play moves on its own board. The
+     * pieces themselves are shared, so only the arrays are copied.
+     * @param other the game board to copy
+     */
+    public Gameboard(Gameboard other) {
+        squares = other.squares.clone();
+        bitboards = other.bitboards.clone();
+        occupancy = other.occupancy.clone();
+        occupied = other.occupied;
+        kingSquares = other.kingSquares.clone();
+        pieceLists = other.pieceLists.clone();
+        pieceCounts = other.pieceCounts.clone();
+        pieceListSlots = other.pieceListSlots.clone();
+        currentPlayer = other.currentPlayer;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        undoMoves = other.undoMoves.clone();
+        undoCaptured = other.undoCaptured.clone();
+        undoState = other.undoState.clone();
+        undoHash = other.undoHash.clone();
+        ply = other.ply;
+        hashKey = other.hashKey;
+        midgameScore = other.midgameScore;
+        endgameScore = other.endgameScore;
+        phase = other.phase;
+        attacked = new long[2];
+        checkers = new long[2];
+        pinned = new long[2];
+        pinsValid = new boolean[2];
+    }
+
+    /**
+     * Saves the position in a compact immutable snapshot. The move history
+     * is not included.
+     * @return the snapshot of the current position
+     */
+    public BoardSnapshot snapshot() {
+        return new BoardSnapshot(bitboards.clone(), castlingRights, enPassantSquare, halfmoveClock,
+                fullmoveNumber, currentPlayer, hashKey());
+    }
+
+    /**
+     * Replaces the position with the one saved in a snapshot and clears the
+     * move history, so no earlier move can be taken back.
+     * @param snapshot the position to restore
+     */
+    public void restore(BoardSnapshot snapshot) {
+        Arrays.fill(squares, null);
+        Arrays.fill(bitboards, 0L);
+        Arrays.fill(occupancy, 0L);
+        occupied = 0L;
+        Arrays.fill(pieceCounts, 0);
+        kingSquares[0] = Square.NONE;
+        kingSquares[1] = Square.NONE;
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        for (int index = 0; index < bitboards.length; index++) {
+            Piece piece = Piece.of(COLORS[index / PieceType.COUNT], TYPES[index % PieceType.COUNT]);
+            for (long pieces = snapshot.bitboards[index]; pieces != 0; pieces &= pieces - 1) {
+                putPiece(piece, Long.numberOfTrailingZeros(pieces));
+            }
+        }
+        castlingRights = snapshot.castlingRights;
+        enPassantSquare = snapshot.enPassantSquare;
+        halfmoveClock = snapshot.halfmoveClock;
+        fullmoveNumber = snapshot.fullmoveNumber;
+        currentPlayer = snapshot.currentPlayer;
+        // the snapshot holds the full key, the field leaves the en passant file out
+        hashKey = snapshot.hashKey ^ enPassantKey();
+        Arrays.fill(undoCaptured, 0, ply, null);
+        ply = 0;
     }
 
     /**
      * Moves a piece from the specified source square to the specified
      * destination square on the game board.
+     * Moves that would leave the player's own king in check are rejected
+     * without being played.
      * @param fromRow the row index of the source square
      * @param fromCol the column index of the source square
      * @param toRow   the row index of the destination square
@@ -98,161 +581,165 @@ public class Gameboard
         }
 
         if (selectedPiece.canMoveTo(fromRow, fromCol, toRow, toCol, this)) {
-            setPieceAt(null, fromRow, fromCol);
-            setPieceAt(selectedPiece, toRow, toCol);
-            selectedPiece.setRow(toRow);
-            selectedPiece.setCol(toCol);
-            selectedPiece.setMoved(true); // set hasMoved flag to true
-
-            // Check for promotion of a pawn
+            if (!Legality.isLegal(this, encodeMove(new Move(fromRow, fromCol, toRow, toCol, selectedPiece)))) {
+                return false; // The move would leave the king in check
+            }
+            // A pawn reaching the last rank becomes a queen; other choices go through makeMove(int)
+            PieceType promotion = null;
             if (selectedPiece instanceof Pawn && (toRow == 0 || toRow == 7)) {
-                Piece promotedPiece = promotionDialog(selectedPiece.getColor(), toRow, toCol);
-                setPieceAt(promotedPiece, toRow, toCol);
+                promotion = PieceType.QUEEN;
             }
+            makeMove(new Move(fromRow, fromCol, toRow, toCol, selectedPiece, promotion));
             return true;
         }
         return false;
     }
 
     /**
-     * Determines whether the specified color is in check on the game board.
-     * @param currentPlayer the color to check for check
-     * @return true if the specified color is in check, false otherwise
+     * Plays a move given as a Move object. The castling, en passant, double
+     * push and capture flags are worked out from the current position.
+     * @param move the move to play
      */
-    public boolean isCheck(Color currentPlayer) {
-        // Find the position of the king of the specified color
-        int[] kingPos = findKing(currentPlayer);
-        if (kingPos == null) {
-            // King not found, cannot be in check
-            return false;
-        }
+    public void makeMove(Move move) {
+        makeMove(encodeMove(move));
+    }
 
-        // Check if any opposing pieces can attack the king
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                Piece piece = board[row][col];
-                if (piece != null && piece.getColor() != currentPlayer) {
-                    // Check if the piece can attack the king
-                    if (piece.canMoveTo(row, col, kingPos[0], kingPos[1], this)) {
-                        // King is in check
-                        return true;
-                    }
-                }
-            }
+    /**
+     * Packs a Move into the int encoding of MoveCode, working out its flags
+     * from the current position.
+     * @param move the move to encode
+     * @return the encoded move
+     */
+    public int encodeMove(Move move) {
+        int from = move.getFromSquare();
+        int to = move.getToSquare();
+        PieceType type = squares[from].getType();
+        int flags = squares[to] != null ? MoveCode.CAPTURE : 0;
+        if (type == PieceType.PAWN && to == enPassantSquare && squares[to] == null) {
+            flags |= MoveCode.CAPTURE | MoveCode.EN_PASSANT;
+        } else if (type == PieceType.PAWN && Math.abs(to - from) == 16) {
+            flags |= MoveCode.DOUBLE_PUSH;
+        } else if (type == PieceType.KING && Math.abs(to - from) == 2) {
+            flags |= MoveCode.CASTLE;
         }
-
-        // King is not in check
-        return false;
+        return MoveCode.encode(from, to, move.getPromotion(), flags);
     }
 
     /**
-     * Determines whether the specified color is in checkmate on the game board.
-     * @param currentPlayer the color to check for checkmate
-     * @return true if the specified color is in checkmate, false otherwise
+     * Plays an encoded move on the board and pushes what it overwrote onto the
+     * undo stack. Handles captures, en passant, castling and promotion, and
+     * updates the castling rights, en passant square, halfmove clock and the
+     * player to move. The move is not validated.
+     * @param move the move to play, encoded as described in MoveCode
      */
-    public boolean isCheckmate(Color currentPlayer) {
-        if (!isCheck(currentPlayer)) {
-            return false;
+    public void makeMove(int move) {
+        if (ply == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, ply * 2);
+            undoCaptured = Arrays.copyOf(undoCaptured, ply * 2);
+            undoState = Arrays.copyOf(undoState, ply * 2);
+            undoHash = Arrays.copyOf(undoHash, ply * 2);
         }
+        int from = MoveCode.from(move);
+        int to = MoveCode.to(move);
+        Piece piece = squares[from];
+        int capturedSquare = MoveCode.isEnPassant(move) ? (from & ~7) | (to & 7) : to;
+        Piece captured = squares[capturedSquare];
 
-        int[] kingPos = findKing(currentPlayer);
-        if (kingPos == null) {
-            return false;
+        undoMoves[ply] = move;
+        undoCaptured[ply] = captured;
+        undoHash[ply] = hashKey();
+        undoState[ply] = castlingRights | (enPassantSquare + 1) << 4 | halfmoveClock << 11;
+        ply++;
+
+        if (captured != null) {
+            removePiece(capturedSquare);
+        }
+        removePiece(from);
+        putPiece(MoveCode.isPromotion(move) ? Piece.of(piece.getColor(), MoveCode.promotion(move)) : piece, to);
+        if (MoveCode.isCastle(move)) {
+            moveRook(to > from ? to + 1 : to - 2, to > from ? to - 1 : to + 1);
         }
 
-        // Check if the king can move to a safe square
-        for (int row = kingPos[0] - 1; row <= kingPos[0] + 1; row++) {
-            for (int col = kingPos[1] - 1; col <= kingPos[1] + 1; col++) {
-                if (row == kingPos[0] && col == kingPos[1]) {
-                    continue;
-                }
-                if (Utils.isInBounds(row, col)
-                        && (board[row][col] == null || board[row][col].getColor() != currentPlayer)) {
-                    Piece tempFromPiece = getPieceAt(kingPos[0], kingPos[1]);
-                    Piece tempToPiece = getPieceAt(row, col);
-                    if (movePiece(kingPos[0], kingPos[1], row, col)) {
-                        if (!isCheck(currentPlayer)) {
-                            // undo move
-                            setPieceAt(tempFromPiece, kingPos[0], kingPos[1]);
-                            setPieceAt(tempToPiece, row, col);
-                            return false;
-                        }
-                        // undo move
-                        setPieceAt(tempFromPiece, kingPos[0], kingPos[1]);
-                        setPieceAt(tempToPiece, row, col);
-                    }
-                }
-            }
+        hashKey ^= Zobrist.castling(castlingRights) ^ Zobrist.blackToMove();
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassantSquare = MoveCode.isDoublePush(move) ? (from + to) / 2 : -1;
+        hashKey ^= Zobrist.castling(castlingRights);
+        halfmoveClock = piece.getType() == PieceType.PAWN || captured != null ? 0 : halfmoveClock + 1;
+        if (piece.getColor() == Color.BLACK) {
+            fullmoveNumber++;
         }
+        currentPlayer = piece.getColor().opposite();
+    }
 
-        // Check if any piece can block or capture the attacking piece
-        List<Piece> pieces = getPieces(currentPlayer);
-        for (Piece piece : pieces) {
-            Piece tempPiece = getPieceAt(piece.getRow(), piece.getCol());
-            int tempRow = tempPiece.getRow();
-            int tempCol = tempPiece.getCol();
-            Set<Integer> attackSquares = piece.getAttackSquares(this);
-            for (int attackSquareIndex : attackSquares) {
-                int[] attackRowCol = Utils.toRowCol(attackSquareIndex);
-                Piece tempAttackSquarePiece = getPieceAt(attackRowCol[0], attackRowCol[1]);
-                if (movePiece(piece.getRow(), piece.getCol(), attackRowCol[0], attackRowCol[1])) {
-                    if (!isCheck(currentPlayer)) {
-                        // undo move
-                        setPieceAt(tempPiece, tempRow, tempCol);
-                        setPieceAt(tempAttackSquarePiece, attackRowCol[0], attackRowCol[1]);
-                        return false;
-                    }
-                    // undo move
-                    setPieceAt(tempPiece, tempRow, tempCol);
-                    setPieceAt(tempAttackSquarePiece, attackRowCol[0], attackRowCol[1]);
-                }
-            }
+    /**
+     * Takes back the last move played with makeMove, restoring the position
+     * and all the state the move changed.
+     */
+    public void unmakeMove() {
+        ply--;
+        int move = undoMoves[ply];
+        Piece captured = undoCaptured[ply];
+        int state = undoState[ply];
+        undoCaptured[ply] = null;
+
+        int from = MoveCode.from(move);
+        int to = MoveCode.to(move);
+        Piece piece = squares[to];
+        castlingRights = state & 0xF;
+        enPassantSquare = ((state >>> 4) & 0x7F) - 1;
+        halfmoveClock = (state >>> 11) & 0xFFFF;
+
+        if (MoveCode.isCastle(move)) {
+            moveRook(to > from ? to - 1 : to + 1, to > from ? to + 1 : to - 2);
+        }
+        removePiece(to);
+        if (MoveCode.isPromotion(move)) {
+            piece = Piece.of(piece.getColor(), PieceType.PAWN);
         }
+        putPiece(piece, from);
+        if (captured != null) {
+            putPiece(captured, MoveCode.isEnPassant(move) ? (from & ~7) | (to & 7) : to);
+        }
+        currentPlayer = piece.getColor();
+        if (currentPlayer == Color.BLACK) {
+            fullmoveNumber--;
+        }
+        hashKey = undoHash[ply] ^ enPassantKey();
+    }
 
-        // King cannot escape check and no other piece can block or capture the
-        // attacking piece
-        return true;
+    /**
+     * Moves the rook of a castling move.
+     * @param from the square the rook leaves
+     * @param to   the square the rook lands on
+     */
+    private void moveRook(int from, int to) {
+        Piece rook = squares[from];
+        removePiece(from);
+        putPiece(rook, to);
     }
 
     /**
-     * Prompts the user to choose a piece to promote a pawn to and returns the promoted piece.
-     * @param color the color of the pawn being promoted
-     * @param row the row of the pawn being promoted
-     * @param col the column of the pawn being promoted
-     * @return the piece that the pawn is being promoted to
+     * Determines whether the specified color is in check on the game board.
+     * @param currentPlayer the color to check for check
+     * @return true if the specified color is in check, false otherwise
      */
-    public Piece promotionDialog(Color color, int row, int col)
-    {
-        Piece promotedPiece = null;
-        
-        System.out.print("Choose your promotion (Q, R, B, N): ");
-        Scanner scanner = new Scanner(System.in); // not closed because we are still scanning for moves after
-        boolean isValidInput = false;
-        while (!isValidInput) {
-            String input = scanner.nextLine();
-            switch (input) {
-                case "Q" : 
-                    promotedPiece = new Queen(color, row, col);
-                    isValidInput = true;
-                    break;
-                case "R" : 
-                    promotedPiece = new Rook(color, row, col, color.opposite());
-                    isValidInput = true;
-                    break;
-                case "B" :
-                    promotedPiece = new Bishop(color, row, col);
-                    isValidInput = true;
-                    break;
-                case "N" :
-                    promotedPiece = new Knight(color, row, col);
-                    isValidInput = true;
-                    break;
-                default : 
-                    System.out.println("Invalid input.");
-                    continue;
-            }
+    public boolean isCheck(Color currentPlayer) {
+        return getCheckers(currentPlayer) != 0;
+    }
+
+    /**
+     * Determines whether the specified color is in checkmate on the game board.
+     * @param currentPlayer the color to check for checkmate
+     * @return true if the specified color is in checkmate, false otherwise
+     */
+    public boolean isCheckmate(Color currentPlayer) {
+        // only the player to move can be checkmated
+        if (currentPlayer != this.currentPlayer || !isCheck(currentPlayer)) {
+            return false;
         }
-        return promotedPiece;
+
+        // The king is mated when no move captures the checker, blocks the check or escapes it
+        return MoveGenerator.generateLegalMoves(this, new int[MoveGenerator.MAX_MOVES]) == 0;
     }
 
     /**
@@ -262,14 +749,14 @@ public class Gameboard
         System.out.println();
         for (int i = 0; i < 8; i++) {
             for (int j = 0; j < 8; j++) {
-                if (board[i][j] == null) {
+                if (getPieceAt(i, j) == null) {
                     if ((i + j) % 2 == 0) {
                         System.out.print("   ");
                     } else {
                         System.out.print("## ");
                     }
                 } else {
-                    System.out.print(board[i][j].getName() + " ");
+                    System.out.print(getPieceAt(i, j).getName() + " ");
                 }
             }
             System.out.print(8 - i);
@@ -284,41 +771,13 @@ public class Gameboard
     }
 
     /**
-     * Finds the position of the king of the specified color on the game board.
+     * Returns the square of the king of the specified color.
      * @param color the color of the king to find
-     * @return the position of the king of the specified color, or null if not found
-     */
-    public int[] findKing(Color color) {
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                Piece piece = getPieceAt(row, col);
-                if (piece != null && piece instanceof King && piece.getColor() == color) {
-                    return new int[] { row, col };
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Checks if a piece at the specified row and column has been moved before.
-     * @param row the row index of the piece
-     * @param col the column index of the piece
-     * @return true if the piece has been moved before, false otherwise
+     * @return the square index of the king, or Square.NONE if there is no such king
      */
-    public boolean hasMoved(int row, int col)
+    public int getKingSquare(Color color)
     {
-        return hasMoved[row][col];
-    }
-
-    /**
-     * Sets the hasMoved flag for the piece at the specified row and column to true.
-     * @param row the row index of the piece
-     * @param col the column index of the piece
-     */
-    public void setMoved(int row, int col)
-    {
-        hasMoved[row][col] = true;
+        return kingSquares[color.ordinal()];
     }
 
     /**
@@ -328,7 +787,16 @@ public class Gameboard
      * @return Piece at location, null if empty
      */
     public Piece getPieceAt(int row, int col) {
-        return board[row][col];
+        return squares[row * 8 + col];
+    }
+
+    /**
+     * Get the Piece on a square.
+     * @param square the square index (row * 8 + col)
+     * @return Piece on the square, null if empty
+     */
+    public Piece getPieceAt(int square) {
+        return squares[square];
     }
 
     /**
@@ -338,31 +806,155 @@ public class Gameboard
      * @param col   the column index where the piece is to be placed
      */
     public void setPieceAt(Piece piece, int row, int col) {
+        int square = row * 8 + col;
+        if (squares[square] != null) {
+            removePiece(square);
+        }
         if (piece == null) {
-            board[row][col] = piece;
             return;
         }
-        piece.setRow(row);
-        piece.setCol(col);
-        board[row][col] = piece;
+        if (pieceCounts[piece.getColor().ordinal() * PieceType.COUNT + piece.getType().ordinal()] == MAX_PIECES) {
+            throw new IllegalArgumentException("too many pieces of one kind: " + piece.getName());
+        }
+        putPiece(piece, square);
     }
 
     /**
-     * Returns a list of all pieces for the given color on the board.
-     * @param color the color of the pieces to retrieve
-     * @return a list of all pieces for the given color
+     * Places a piece on an empty square and sets its bits in the bitboards.
+     * @param piece  the piece to place
+     * @param square the square index (row * 8 + col)
      */
-    private List<Piece> getPieces(Color color) {
-        List<Piece> pieces = new ArrayList<>();
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                Piece piece = getPieceAt(row, col);
-                if (piece != null && piece.getColor() == color) {
-                    pieces.add(piece);
-                }
-            }
+    private void putPiece(Piece piece, int square) {
+        long bit = 1L << square;
+        int color = piece.getColor().ordinal();
+        PieceType type = piece.getType();
+        int index = color * PieceType.COUNT + type.ordinal();
+        squares[square] = piece;
+        bitboards[index] |= bit;
+        if (type == PieceType.KING) {
+            kingSquares[color] = square;
         }
-        return pieces;
+        int slot = pieceCounts[index]++;
+        pieceLists[index * MAX_PIECES + slot] = square;
+        pieceListSlots[square] = slot;
+        hashKey ^= Zobrist.piece(index, square);
+        occupancy[color] |= bit;
+        occupied |= bit;
+        midgameScore += PieceSquareTables.midgame(index, square);
+        endgameScore += PieceSquareTables.endgame(index, square);
+        phase += PieceSquareTables.phase(index);
+        attacksValid = false;
+        pinsValid[0] = false;
+        pinsValid[1] = false;
+    }
+
+    /**
+     * Removes the piece on an occupied square and clears its bits in the bitboards.
+     * @param square the square index (row * 8 + col)
+     */
+    private void removePiece(int square) {
+        Piece piece = squares[square];
+        long bit = 1L << square;
+        int color = piece.getColor().ordinal();
+        PieceType type = piece.getType();
+        int index = color * PieceType.COUNT + type.ordinal();
+        squares[square] = null;
+        bitboards[index] &= ~bit;
+        if (type == PieceType.KING && kingSquares[color] == square) {
+            kingSquares[color] = Square.NONE;
+        }
+        // move the last piece of the list into the freed slot
+        int last = pieceLists[index * MAX_PIECES + --pieceCounts[index]];
+        pieceLists[index * MAX_PIECES + pieceListSlots[square]] = last;
+        pieceListSlots[last] = pieceListSlots[square];
+        hashKey ^= Zobrist.piece(index, square);
+        occupancy[color] &= ~bit;
+        occupied &= ~bit;
+        midgameScore -= PieceSquareTables.midgame(index, square);
+        endgameScore -= PieceSquareTables.endgame(index, square);
+        phase -= PieceSquareTables.phase(index);
+        attacksValid = false;
+        pinsValid[0] = false;
+        pinsValid[1] = false;
+    }
+
+    /**
+     * Returns the bitboard of the pieces of the given color and type.
+     * Bit n is set when square n (row * 8 + col) holds such a piece.
+     * @param color the color of the pieces
+     * @param type  the type of the pieces
+     * @return the bitboard of the matching pieces
+     */
+    public long getBitboard(Color color, PieceType type) {
+        return bitboards[color.ordinal() * PieceType.COUNT + type.ordinal()];
+    }
+
+    /**
+     * Returns the number of pieces of the given color and type.
+     * @param color the color of the pieces
+     * @param type  the type of the pieces
+     * @return the length of the piece list
+     */
+    public int getPieceCount(Color color, PieceType type) {
+        return pieceCounts[color.ordinal() * PieceType.COUNT + type.ordinal()];
+    }
+
+    /**
+     * Returns the square of one piece of the given color and type. The order
+     * of a piece list changes as pieces are captured and put back, so it is
+     * only meant for iterating from 0 to getPieceCount - 1.
+     * @param color the color of the pieces
+     * @param type  the type of the pieces
+     * @param i     the position in the piece list
+     * @return the square index (row * 8 + col) of the piece
+     */
+    public int getPieceSquare(Color color, PieceType type, int i) {
+        return pieceLists[(color.ordinal() * PieceType.COUNT + type.ordinal()) * MAX_PIECES + i];
+    }
+
+    /**
+     * Returns the occupancy mask of all pieces of the given color.
+     * @param color the color of the pieces
+     * @return the bitboard of the squares occupied by that color
+     */
+    public long getOccupancy(Color color) {
+        return occupancy[color.ordinal()];
+    }
+
+    /**
+     * Returns the occupancy mask of all pieces on the board.
+     * @return the bitboard of the occupied squares
+     */
+    public long getOccupancy() {
+        return occupied;
+    }
+
+    /**
+     * Returns the pieces of the given color that attack a square, as a bitboard.
+     * Only the current occupancy is considered; en passant is not included.
+     * @param square the square index (row * 8 + col)
+     * @param color  the color of the attacking pieces
+     * @return the bitboard of attacking pieces
+     */
+    public long getAttackers(int square, Color color) {
+        int base = color.ordinal() * PieceType.COUNT;
+        long queens = bitboards[base + PieceType.QUEEN.ordinal()];
+        // a pawn of this color attacks the square if a pawn of the other color on the square would attack it
+        return (Attacks.pawn(color.opposite().ordinal(), square) & bitboards[base + PieceType.PAWN.ordinal()])
+                | (Attacks.knight(square) & bitboards[base + PieceType.KNIGHT.ordinal()])
+                | (Attacks.king(square) & bitboards[base + PieceType.KING.ordinal()])
+                | (Attacks.bishop(square, occupied) & (bitboards[base + PieceType.BISHOP.ordinal()] | queens))
+                | (Attacks.rook(square, occupied) & (bitboards[base + PieceType.ROOK.ordinal()] | queens));
+    }
+
+    /**
+     * Checks whether the square at the given row and column is empty.
+     * @param row the row index
+     * @param col the column index
+     * @return true if no piece stands on the square, false otherwise
+     */
+    public boolean isEmpty(int row, int col) {
+        return (occupied & (1L << (row * 8 + col))) == 0;
     }
 
     /**
@@ -380,32 +972,201 @@ public class Gameboard
      */
     public void setCurrentPlayer(Color color)
     {
+        if ((currentPlayer == Color.BLACK) != (color == Color.BLACK)) {
+            hashKey ^= Zobrist.blackToMove();
+        }
         currentPlayer = color;
     }
 
     /**
-     * Returns a set of all squares on the board that are currently being attacked by the enemy pieces
-     * of the specified player color.
-     * @param playerColor the color of the player whose enemy attacks are being checked
-     * @return a set of integers representing the squares being attacked by the enemy pieces
+     * Returns the Zobrist key of the position: the pieces on their squares,
+     * the player to move, the castling rights and the en passant file. The
+     * file counts only when a pawn of the player to move attacks the en
+     * passant square, so a double push that allows no capture leaves the key
+     * of a position the same as when it is reached by a transposition.
+     * The key is updated incrementally as moves are made and taken back.
+     * @return the 64-bit hash key
      */
-    public Set<Integer> getEnemyAttackSquares(Color playerColor)
+    public long hashKey()
     {
-        Set<Integer> enemyAttacks = new HashSet<>();
-        Color enemyColor = playerColor.opposite();
+        return hashKey ^ enPassantKey();
+    }
 
-        // Loop through all pieces on the board
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                Piece piece = getPieceAt(row, col);
-                if (piece != null && piece.getColor() == enemyColor) {
-                    // If the piece belongs to the opposing player, add its attack squares
-                    enemyAttacks.addAll(piece.getAttackSquares(this));
-                }
+    /**
+     * Returns the part of the Zobrist key given by the en passant square.
+     * @return the key of the en passant file, or 0 if there is no en passant
+     *         square or no pawn of the player to move attacks it
+     */
+    private long enPassantKey()
+    {
+        if (enPassantSquare < 0) {
+            return 0L;
+        }
+        int us = currentPlayer.ordinal();
+        // our pawns attack the square from where an enemy pawn on it would attack
+        long pawns = bitboards[us * PieceType.COUNT + PieceType.PAWN.ordinal()];
+        return (Attacks.pawn(1 - us, enPassantSquare) & pawns) != 0 ? Zobrist.enPassant(enPassantSquare) : 0L;
+    }
+
+    /**
+     * Returns the midgame material and piece-square score of the position,
+     * updated incrementally as pieces are placed and removed.
+     * @return the score in centipawns, white minus black
+     */
+    public int getMidgameScore()
+    {
+        return midgameScore;
+    }
+
+    /**
+     * Returns the endgame material and piece-square score of the position,
+     * updated incrementally as pieces are placed and removed.
+     * @return the score in centipawns, white minus black
+     */
+    public int getEndgameScore()
+    {
+        return endgameScore;
+    }
+
+    /**
+     * Returns the game phase given by the pieces left on the board.
+     * @return PieceSquareTables.MAX_PHASE with all pieces on the board, down to 0 with only pawns and kings
+     */
+    public int getPhase()
+    {
+        return phase;
+    }
+
+    /**
+     * Checks whether the player to move is in check, using the bitboards.
+     * @return true if the king of the player to move is attacked
+     */
+    public boolean isInCheck()
+    {
+        int king = kingSquares[currentPlayer.ordinal()];
+        return king != Square.NONE && getAttackers(king, currentPlayer.opposite()) != 0;
+    }
+
+    /**
+     * Checks whether the current position occurred before with the same
+     * player to move, looking back only as far as the last capture or pawn
+     * move since no earlier position can repeat.
+     * @return true if the position is a repetition
+     */
+    public boolean isRepetition()
+    {
+        int earliest = Math.max(0, ply - halfmoveClock);
+        long key = hashKey();
+        for (int i = ply - 2; i >= earliest; i -= 2) {
+            if (undoHash[i] == key) {
+                return true;
             }
         }
+        return false;
+    }
+
+    /**
+     * Checks the parts of castling that do not depend on attacks: the right
+     * must still be held, the king and rook must stand on their starting
+     * squares and every square between them must be empty. Whether the king
+     * starts in, passes through or lands on an attacked square is checked by
+     * Legality.
+     * @param color    the color of the castling player
+     * @param kingside true for castling kingside, false for queenside
+     * @return true if castling is not ruled out by the rights or the pieces in the way
+     */
+    public boolean canCastle(Color color, boolean kingside)
+    {
+        int king = color == Color.WHITE ? Square.E1 : Square.E8;
+        int rook = kingside ? king + 3 : king - 4;
+        int right = color == Color.WHITE ? (kingside ? WHITE_KINGSIDE : WHITE_QUEENSIDE)
+                : (kingside ? BLACK_KINGSIDE : BLACK_QUEENSIDE);
+        return (castlingRights & right) != 0
+                && kingSquares[color.ordinal()] == king
+                && (bitboards[color.ordinal() * PieceType.COUNT + PieceType.ROOK.ordinal()] & 1L << rook) != 0
+                && (occupied & Attacks.between(king, rook)) == 0;
+    }
+
+    /**
+     * Returns the castling rights still available.
+     * @return a combination of the WHITE_KINGSIDE, WHITE_QUEENSIDE,
+     *         BLACK_KINGSIDE and BLACK_QUEENSIDE bits
+     */
+    public int getCastlingRights()
+    {
+        return castlingRights;
+    }
 
-        return enemyAttacks;
+    /**
+     * Sets the castling rights still available.
+     * @param castlingRights a combination of the castling right bits
+     */
+    public void setCastlingRights(int castlingRights)
+    {
+        hashKey ^= Zobrist.castling(this.castlingRights) ^ Zobrist.castling(castlingRights);
+        this.castlingRights = castlingRights;
+    }
+
+    /**
+     * Returns the number of moves since the last capture or pawn move.
+     * @return the halfmove clock
+     */
+    public int getHalfmoveClock()
+    {
+        return halfmoveClock;
+    }
+
+    /**
+     * Returns the number of the current full move, which starts at 1 and is
+     * increased after each move of black.
+     * @return the fullmove number
+     */
+    public int getFullmoveNumber()
+    {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Returns the square a pawn may capture en passant on this move.
+     * @return the square index (row * 8 + col), or -1 if no en passant capture is possible
+     */
+    public int getEnPassantSquare()
+    {
+        return enPassantSquare;
+    }
+
+    /**
+     * Sets the square a pawn may capture en passant on this move.
+     * @param square the square index (row * 8 + col), or -1 for none
+     */
+    public void setEnPassantSquare(int square)
+    {
+        enPassantSquare = square;
+    }
+
+    /**
+     * Returns all squares on the board that are currently being attacked by the enemy pieces
+     * of the specified player color, leaving out squares held by the enemy itself.
+     * @param playerColor the color of the player whose enemy attacks are being checked
+     * @return the set of squares being attacked by the enemy pieces
+     */
+    public SquareSet getEnemyAttacks(Color playerColor)
+    {
+        Color enemyColor = playerColor.opposite();
+        return SquareSet.fromMask(getAttackedSquares(enemyColor) & ~occupancy[enemyColor.ordinal()]);
+    }
+
+    /**
+     * Returns a set of all squares on the board that are currently being attacked by the enemy pieces
+     * of the specified player color.
+     * @param playerColor the color of the player whose enemy attacks are being checked
+     * @return a set of square indices from 0 to 63 being attacked by the enemy pieces
+     * @deprecated boxes every square; use getEnemyAttacks instead
+     */
+    @Deprecated
+    public Set<Integer> getEnemyAttackSquares(Color playerColor)
+    {
+        return getEnemyAttacks(playerColor).toSet();
     }
 
     /**
@@ -418,54 +1179,135 @@ public class Gameboard
      */
     public boolean isSquareAttacked(int row, int col, Color color)
     {
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board[i].length; j++) {
-                Piece piece = board[i][j];
-                if (piece != null && piece.getColor() == color && piece.canMoveTo(i, j, row, col, this)) {
-                    return true;
-                }
-            }
+        return (getAttackedSquares(color) & 1L << (row * 8 + col)) != 0;
+    }
+
+    /**
+     * Returns every square attacked by the pieces of a color, whether empty
+     * or occupied. The attack maps are computed once per position and
+     * reused until the next change to the board.
+     * @param color the attacking color
+     * @return the bitboard of attacked squares
+     */
+    public long getAttackedSquares(Color color)
+    {
+        if (!attacksValid) {
+            updateAttacks();
         }
-        return false;
-    }    
+        return attacked[color.ordinal()];
+    }
 
     /**
-     * Returns the last move made on the game board.
-     * @return the last move made on the game board or null if there have been no moves made yet.
+     * Returns the enemy pieces giving check to the king of a color.
+     * @param color the color of the king
+     * @return the bitboard of checking pieces, 0 if the king is not in check or not on the board
      */
-    public Move getLastMove()
+    public long getCheckers(Color color)
     {
-        if (this.moves.size() > 0) {
-            return this.moves.get(this.moves.size() - 1);
+        if (!pinsValid[color.ordinal()]) {
+            updatePins(color);
         }
-        return null;
+        return checkers[color.ordinal()];
     }
-    
-    public boolean hasJustDoubleMoved(Pawn pawn) {
-        Move lastMove = this.getLastMove();
-        if (lastMove != null && lastMove.getPiece() != null && lastMove.getPiece() == pawn && Math.abs(lastMove.getFromRow() - lastMove.getToRow()) == 2) {
-            return true;
+
+    /**
+     * Returns the pieces of a color that are absolutely pinned: each stands
+     * alone between its own king and an enemy rook, bishop or queen.
+     * @param color the color of the pinned pieces
+     * @return the bitboard of pinned pieces
+     */
+    public long getPinned(Color color)
+    {
+        if (!pinsValid[color.ordinal()]) {
+            updatePins(color);
         }
-        return false;
+        return pinned[color.ordinal()];
     }
-    
-    public Piece getLastMovedPiece() {
-        if (this.moves.isEmpty()) {
-            return null;
+
+    /**
+     * Recomputes the attack maps of both colors from the bitboards.
+     */
+    private void updateAttacks()
+    {
+        for (Color color : COLORS) {
+            int side = color.ordinal();
+            int base = side * PieceType.COUNT;
+            long map = 0L;
+            for (long pawns = bitboards[base + PieceType.PAWN.ordinal()]; pawns != 0; pawns &= pawns - 1) {
+                map |= Attacks.pawn(side, Long.numberOfTrailingZeros(pawns));
+            }
+            for (long knights = bitboards[base + PieceType.KNIGHT.ordinal()]; knights != 0; knights &= knights - 1) {
+                map |= Attacks.knight(Long.numberOfTrailingZeros(knights));
+            }
+            long queens = bitboards[base + PieceType.QUEEN.ordinal()];
+            for (long diagonal = bitboards[base + PieceType.BISHOP.ordinal()] | queens; diagonal != 0;
+                    diagonal &= diagonal - 1) {
+                map |= Attacks.bishop(Long.numberOfTrailingZeros(diagonal), occupied);
+            }
+            for (long straight = bitboards[base + PieceType.ROOK.ordinal()] | queens; straight != 0;
+                    straight &= straight - 1) {
+                map |= Attacks.rook(Long.numberOfTrailingZeros(straight), occupied);
+            }
+            if (kingSquares[side] != Square.NONE) {
+                map |= Attacks.king(kingSquares[side]);
+            }
+            attacked[side] = map;
         }
-        Move lastMove = this.moves.get(this.moves.size() - 1);
-        return lastMove.getPiece();
+        attacksValid = true;
     }
-    
-    public Pawn getJustDoubleMoved() {
-        if (moves.size() < 2) {
-            return null;
+
+    /**
+     * Recomputes the checkers of a king and the pieces pinned to it from the bitboards.
+     * @param color the color of the king
+     */
+    private void updatePins(Color color)
+    {
+        int side = color.ordinal();
+        int kingSquare = kingSquares[side];
+        checkers[side] = 0L;
+        pinned[side] = 0L;
+        pinsValid[side] = true;
+        if (kingSquare == Square.NONE) {
+            return;
         }
-        Move lastMove = moves.get(moves.size() - 1);
-        Move prevMove = moves.get(moves.size() - 2);
-        if (lastMove.getPiece() instanceof Pawn && Math.abs(lastMove.getToRow() - prevMove.getToRow()) == 2) {
-            return (Pawn) lastMove.getPiece();
+        Color enemy = color.opposite();
+        int enemyBase = enemy.ordinal() * PieceType.COUNT;
+        long enemyQueens = bitboards[enemyBase + PieceType.QUEEN.ordinal()];
+        checkers[side] = getAttackers(kingSquare, enemy);
+
+        // enemy sliders that would attack the king if no piece of this color stood in the way
+        long enemyPieces = occupancy[enemy.ordinal()];
+        long snipers = (Attacks.rook(kingSquare, enemyPieces)
+                & (bitboards[enemyBase + PieceType.ROOK.ordinal()] | enemyQueens))
+                | (Attacks.bishop(kingSquare, enemyPieces)
+                & (bitboards[enemyBase + PieceType.BISHOP.ordinal()] | enemyQueens));
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & occupancy[side]) != 0) {
+                pinned[side] |= blockers;
+            }
+        }
+    }
+
+    /**
+     * Returns the last move made on the game board.
+     * @return the last move made on the game board or null if there have been no moves made yet.
+     */
+    public Move getLastMove()
+    {
+        if (ply > 0) {
+            return decodeMove(undoMoves[ply - 1]);
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Decodes a move that has been played, taking the piece from its ending square.
+     * @param move the encoded move
+     * @return the decoded move
+     */
+    private Move decodeMove(int move)
+    {
+        return new Move(move, squares[MoveCode.to(move)]);
+    }
+}
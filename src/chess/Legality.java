@@ -0,0 +1,114 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.utils.Attacks;
+import chess.utils.Square;
+
+/**
+ * Decides whether a pseudo-legal move leaves the mover's king safe,
+ * without making the move. The checkers and pinned pieces of the
+ * position come from the game board's per-position cache, so most moves
+ * are decided with a couple of mask tests: in double check only the king
+ * may move; in single check a move must capture the checker or block the
+ * check; a pinned piece must stay on the line through its king. King
+ * moves look up the attackers of the target square with the king lifted
+ * off the board, and en passant captures, which remove two pieces from a
+ * rank at once, are checked against every enemy slider.
+ */
+public final class Legality
+{
+    /**
+     * This class only holds static methods and is not instantiated.
+     */
+    private Legality()
+    {
+    }
+
+    /**
+     * Checks that a pseudo-legal move of the current player does not leave
+     * that player's king attacked. Castling moves are also checked for the
+     * king starting in check or passing over an attacked square.
+     * @param board the game board
+     * @param move  the move, encoded as described in MoveCode
+     * @return true if the move is legal
+     */
+    public static boolean isLegal(Gameboard board, int move)
+    {
+        Color us = board.getCurrentPlayer();
+        Color them = us.opposite();
+        int king = board.getKingSquare(us);
+        if (king == Square.NONE) {
+            return true;
+        }
+        int from = MoveCode.from(move);
+        int to = MoveCode.to(move);
+
+        if (MoveCode.isCastle(move)) {
+            int step = to > from ? 1 : -1;
+            return board.getCheckers(us) == 0
+                    && attackers(board, from + step, them, board.getOccupancy()) == 0
+                    && attackers(board, to, them, board.getOccupancy()) == 0;
+        }
+        if (from == king) {
+            // the king must not stay on a ray it blocks itself
+            return attackers(board, to, them, board.getOccupancy() & ~(1L << king)) == 0;
+        }
+        if (MoveCode.isEnPassant(move)) {
+            return isLegalEnPassant(board, from, to, king, us);
+        }
+
+        long checkers = board.getCheckers(us);
+        if (checkers != 0) {
+            if ((checkers & (checkers - 1)) != 0) {
+                return false;
+            }
+            long evasions = checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+            if ((evasions & (1L << to)) == 0) {
+                return false;
+            }
+        }
+        return (board.getPinned(us) & (1L << from)) == 0 || (Attacks.line(king, from) & (1L << to)) != 0;
+    }
+
+    /**
+     * Checks an en passant capture, which removes the capturing and the
+     * captured pawn from the same rank and may uncover a slider on it.
+     * @param board the game board
+     * @param from  the starting square of the capturing pawn
+     * @param to    the en passant square
+     * @param king  the square of the mover's king
+     * @param us    the mover's color
+     * @return true if the king is not attacked after the capture
+     */
+    private static boolean isLegalEnPassant(Gameboard board, int from, int to, int king, Color us)
+    {
+        long capturedPawn = 1L << (us == Color.WHITE ? to + 8 : to - 8);
+        long occupied = (board.getOccupancy() & ~(1L << from) & ~capturedPawn) | (1L << to);
+        return (attackers(board, king, us.opposite(), occupied) & ~capturedPawn) == 0;
+    }
+
+    /**
+     * Returns the pieces of a color that attack a square, given an occupancy
+     * that may differ from the board's.
+     * @param board    the game board
+     * @param square   the attacked square
+     * @param color    the attacking color
+     * @param occupied the occupancy the sliders are blocked by
+     * @return the bitboard of attacking pieces
+     */
+    private static long attackers(Gameboard board, int square, Color color, long occupied)
+    {
+        long queens = board.getBitboard(color, PieceType.QUEEN);
+        return (Attacks.pawn(color.opposite().ordinal(), square) & board.getBitboard(color, PieceType.PAWN))
+                | (Attacks.knight(square) & board.getBitboard(color, PieceType.KNIGHT))
+                | (Attacks.king(square) & board.getBitboard(color, PieceType.KING))
+                | (Attacks.bishop(square, occupied) & (board.getBitboard(color, PieceType.BISHOP) | queens))
+                | (Attacks.rook(square, occupied) & (board.getBitboard(color, PieceType.ROOK) | queens));
+    }
+}
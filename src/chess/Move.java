@@ -1,9 +1,13 @@
 package chess;
 
+import chess.enums.PieceType;
+
 /**
  * This class represents a move made in a game of chess.
  * It stores the starting row and column, as well as the ending row and column,
- * along with the piece that was moved.
+ * along with the piece that was moved and the piece a pawn is promoted to.
+ * Move generation and the undo stack work on moves packed into an int
+ * (see MoveCode); this class is the decoded view of such a move.
  */
 public class Move
 {
@@ -22,6 +26,9 @@ public class Move
     /** The piece that was moved. */
     private Piece piece;
 
+    /** The type a pawn is promoted to, or null if the move is not a promotion. */
+    private PieceType promotion;
+
     /**
      * Constructor for the Move class.
      * @param fromRow the starting row of the move
@@ -39,6 +46,32 @@ public class Move
         this.piece = piece;
     }
 
+    /**
+     * Constructor for a move that promotes a pawn.
+     * @param fromRow the starting row of the move
+     * @param fromCol the starting column of the move
+     * @param toRow the ending row of the move
+     * @param toCol the ending column of the move
+     * @param piece the piece that was moved
+     * @param promotion the type the pawn is promoted to, or null if not a promotion
+     */
+    public Move(int fromRow, int fromCol, int toRow, int toCol, Piece piece, PieceType promotion)
+    {
+        this(fromRow, fromCol, toRow, toCol, piece);
+        this.promotion = promotion;
+    }
+
+    /**
+     * Constructor that decodes a move packed by MoveCode.
+     * @param code the encoded move
+     * @param piece the piece that was moved
+     */
+    public Move(int code, Piece piece)
+    {
+        this(MoveCode.from(code) / 8, MoveCode.from(code) % 8, MoveCode.to(code) / 8, MoveCode.to(code) % 8,
+                piece, MoveCode.promotion(code));
+    }
+
     /**
      * Returns the starting row of the move.
      * @return the starting row of the move
@@ -83,4 +116,31 @@ public class Move
     {
         return piece;
     }
+
+    /**
+     * Returns the type a pawn is promoted to.
+     * @return the promotion type, or null if the move is not a promotion
+     */
+    public PieceType getPromotion()
+    {
+        return promotion;
+    }
+
+    /**
+     * Returns the starting square of the move.
+     * @return the square index (row * 8 + col)
+     */
+    public int getFromSquare()
+    {
+        return fromRow * 8 + fromCol;
+    }
+
+    /**
+     * Returns the ending square of the move.
+     * @return the square index (row * 8 + col)
+     */
+    public int getToSquare()
+    {
+        return toRow * 8 + toCol;
+    }
 }
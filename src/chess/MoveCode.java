@@ -0,0 +1,154 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import chess.enums.PieceType;
+import chess.utils.Square;
+
+/**
+ * Static helpers for moves packed into a single int, so move lists can be
+ * plain int arrays that are reused from ply to ply.
+ * Bits 0-5 hold the starting square and bits 6-11 the ending square
+ * (row * 8 + col), bits 12-14 the ordinal of the promotion type (0 when
+ * the move is not a promotion, since a pawn is never a promotion choice),
+ * and bits 15-18 the CAPTURE, EN_PASSANT, CASTLE and DOUBLE_PUSH flags.
+ * The Move class remains available as a decoded view.
+ */
+public final class MoveCode
+{
+    /** The value that never encodes a real move. */
+    public static final int NONE = 0;
+
+    /** Flag of a move that captures a piece, including en passant. */
+    public static final int CAPTURE = 1 << 15;
+
+    /** Flag of a pawn capture en passant. */
+    public static final int EN_PASSANT = 1 << 16;
+
+    /** Flag of a castling move, encoded as the king's move. */
+    public static final int CASTLE = 1 << 17;
+
+    /** Flag of a pawn advancing two squares. */
+    public static final int DOUBLE_PUSH = 1 << 18;
+
+    /** The piece types indexed by ordinal, to decode promotions without allocating. */
+    private static final PieceType[] TYPES = PieceType.values();
+
+    /**
+     * This class only holds static methods and is not instantiated.
+     */
+    private MoveCode()
+    {
+    }
+
+    /**
+     * Packs a move into an int.
+     * @param from      the starting square
+     * @param to        the ending square
+     * @param promotion the promotion type, or null
+     * @param flags     a combination of the move flags
+     * @return the encoded move
+     */
+    public static int encode(int from, int to, PieceType promotion, int flags)
+    {
+        return from | to << 6 | (promotion == null ? 0 : promotion.ordinal() << 12) | flags;
+    }
+
+    /**
+     * Returns the starting square of an encoded move.
+     * @param move the encoded move
+     * @return the square index (row * 8 + col)
+     */
+    public static int from(int move)
+    {
+        return move & 0x3F;
+    }
+
+    /**
+     * Returns the ending square of an encoded move.
+     * @param move the encoded move
+     * @return the square index (row * 8 + col)
+     */
+    public static int to(int move)
+    {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * Returns the promotion type of an encoded move.
+     * @param move the encoded move
+     * @return the promotion type, or null if the move is not a promotion
+     */
+    public static PieceType promotion(int move)
+    {
+        int ordinal = (move >>> 12) & 0x7;
+        return ordinal == 0 ? null : TYPES[ordinal];
+    }
+
+    /**
+     * Checks whether an encoded move is a promotion.
+     * @param move the encoded move
+     * @return true if the move promotes a pawn
+     */
+    public static boolean isPromotion(int move)
+    {
+        return (move & 0x7000) != 0;
+    }
+
+    /**
+     * Checks whether an encoded move captures a piece.
+     * @param move the encoded move
+     * @return true if the move is a capture
+     */
+    public static boolean isCapture(int move)
+    {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * Checks whether an encoded move is an en passant capture.
+     * @param move the encoded move
+     * @return true if the move is an en passant capture
+     */
+    public static boolean isEnPassant(int move)
+    {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    /**
+     * Checks whether an encoded move is a castling move.
+     * @param move the encoded move
+     * @return true if the move castles
+     */
+    public static boolean isCastle(int move)
+    {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * Checks whether an encoded move advances a pawn two squares.
+     * @param move the encoded move
+     * @return true if the move is a pawn double push
+     */
+    public static boolean isDoublePush(int move)
+    {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    /**
+     * Formats an encoded move in long algebraic coordinates, e.g. "e2e4" or "e7e8q".
+     * @param move the encoded move
+     * @return the move text
+     */
+    public static String toString(int move)
+    {
+        String text = Square.name(from(move)) + Square.name(to(move));
+        if (isPromotion(move)) {
+            text += "pnbrqk".charAt(promotion(move).ordinal());
+        }
+        return text;
+    }
+}
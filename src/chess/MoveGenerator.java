@@ -0,0 +1,216 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.utils.Attacks;
+import chess.utils.Square;
+
+/**
+ * Generates the legal moves of the player to move on a game board.
+ * Moves are encoded as described in MoveCode and written into an int
+ * buffer supplied by the caller, so the same buffer can be reused from
+ * one position to the next.
+ */
+public final class MoveGenerator
+{
+    /** A buffer of this size holds every legal move of any chess position. */
+    public static final int MAX_MOVES = 256;
+
+    /** The promotion choices, in the order they are generated. */
+    private static final PieceType[] PROMOTIONS = {
+        PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT
+    };
+
+    /** The piece types other than pawns, in the order they are generated. */
+    private static final PieceType[] PIECE_TYPES = {
+        PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN, PieceType.KING
+    };
+
+    /**
+     * This class only holds static methods and is not instantiated.
+     */
+    private MoveGenerator()
+    {
+    }
+
+    /**
+     * Fills the buffer with every legal move of the current player, including
+     * castling, en passant captures and the four promotion choices.
+     * @param board  the game board to generate moves for
+     * @param buffer the buffer to write the moves into, at least MAX_MOVES long
+     * @return the number of moves written
+     */
+    public static int generateLegalMoves(Gameboard board, int[] buffer)
+    {
+        return generate(board, buffer, false);
+    }
+
+    /**
+     * Fills the buffer with the legal captures and promotions of the current
+     * player, the moves a quiescence search looks at.
+     * @param board  the game board to generate moves for
+     * @param buffer the buffer to write the moves into, at least MAX_MOVES long
+     * @return the number of moves written
+     */
+    public static int generateLegalCaptures(Gameboard board, int[] buffer)
+    {
+        return generate(board, buffer, true);
+    }
+
+    /**
+     * Generates legal moves into the buffer.
+     * @param board        the game board to generate moves for
+     * @param buffer       the buffer to write the moves into
+     * @param capturesOnly whether to leave out moves that neither capture nor promote
+     * @return the number of moves written
+     */
+    private static int generate(Gameboard board, int[] buffer, boolean capturesOnly)
+    {
+        Color us = board.getCurrentPlayer();
+        Color them = us.opposite();
+        long own = board.getOccupancy(us);
+        long enemy = board.getOccupancy(them);
+        long occupied = board.getOccupancy();
+        int count = 0;
+
+        // Pawns
+        int forward = us == Color.WHITE ? -8 : 8;
+        int startRow = us == Color.WHITE ? 6 : 1;
+        int promotionRow = us == Color.WHITE ? 0 : 7;
+        int enPassant = board.getEnPassantSquare();
+        long pawns = board.getBitboard(us, PieceType.PAWN);
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            int one = from + forward;
+            if ((occupied & (1L << one)) == 0 && (!capturesOnly || one / 8 == promotionRow)) {
+                count = addPawnMove(board, from, one, one / 8 == promotionRow, 0, buffer, count);
+                int two = one + forward;
+                if (!capturesOnly && from / 8 == startRow && (occupied & (1L << two)) == 0) {
+                    count = addPawnMove(board, from, two, false, MoveCode.DOUBLE_PUSH, buffer, count);
+                }
+            }
+            long attacks = Attacks.pawn(us.ordinal(), from);
+            long captures = attacks & enemy;
+            while (captures != 0) {
+                int to = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                count = addPawnMove(board, from, to, to / 8 == promotionRow, MoveCode.CAPTURE, buffer, count);
+            }
+            if (enPassant >= 0 && (attacks & (1L << enPassant)) != 0) {
+                count = addPawnMove(board, from, enPassant, false, MoveCode.CAPTURE | MoveCode.EN_PASSANT,
+                        buffer, count);
+            }
+        }
+
+        // Knights, sliders and king
+        for (PieceType type : PIECE_TYPES) {
+            long pieces = board.getBitboard(us, type);
+            while (pieces != 0) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                long targets = attacks(type, from, occupied) & (capturesOnly ? enemy : ~own);
+                while (targets != 0) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    int move = MoveCode.encode(from, to, null, (enemy & (1L << to)) != 0 ? MoveCode.CAPTURE : 0);
+                    if (Legality.isLegal(board, move)) {
+                        buffer[count++] = move;
+                    }
+                }
+            }
+        }
+
+        return capturesOnly ? count : addCastlingMoves(board, buffer, count);
+    }
+
+    /**
+     * Returns the squares a piece of the given type attacks from a square.
+     * @param type     the piece type, not a pawn
+     * @param square   the square of the piece
+     * @param occupied the bitboard of occupied squares
+     * @return the bitboard of attacked squares
+     */
+    private static long attacks(PieceType type, int square, long occupied)
+    {
+        switch (type) {
+            case KNIGHT:
+                return Attacks.knight(square);
+            case BISHOP:
+                return Attacks.bishop(square, occupied);
+            case ROOK:
+                return Attacks.rook(square, occupied);
+            case QUEEN:
+                return Attacks.queen(square, occupied);
+            default:
+                return Attacks.king(square);
+        }
+    }
+
+    /**
+     * Adds a pawn move to the buffer if it is legal, expanding it into the
+     * four promotion choices when the pawn reaches the last row.
+     * @param board     the game board
+     * @param from      the starting square
+     * @param to        the ending square
+     * @param promotes  whether the pawn reaches the last row
+     * @param flags     the MoveCode flags of the move
+     * @param buffer    the move buffer
+     * @param count     the number of moves already in the buffer
+     * @return the new number of moves in the buffer
+     */
+    private static int addPawnMove(Gameboard board, int from, int to, boolean promotes, int flags,
+            int[] buffer, int count)
+    {
+        if (!Legality.isLegal(board, MoveCode.encode(from, to, null, flags))) {
+            return count;
+        }
+        if (promotes) {
+            for (PieceType promotion : PROMOTIONS) {
+                buffer[count++] = MoveCode.encode(from, to, promotion, flags);
+            }
+        } else {
+            buffer[count++] = MoveCode.encode(from, to, null, flags);
+        }
+        return count;
+    }
+
+    /**
+     * Adds the castling moves of the current player. Castling requires the
+     * right to be intact, the squares between king and rook to be empty, and
+     * the king not to start on, pass through or land on an attacked square.
+     * @param board  the game board
+     * @param buffer the move buffer
+     * @param count  the number of moves already in the buffer
+     * @return the new number of moves in the buffer
+     */
+    private static int addCastlingMoves(Gameboard board, int[] buffer, int count)
+    {
+        Color us = board.getCurrentPlayer();
+        Color them = us.opposite();
+        int king = us == Color.WHITE ? Square.E1 : Square.E8;
+        int rights = us == Color.WHITE ? Gameboard.WHITE_KINGSIDE | Gameboard.WHITE_QUEENSIDE
+                : Gameboard.BLACK_KINGSIDE | Gameboard.BLACK_QUEENSIDE;
+        if ((board.getCastlingRights() & rights) == 0
+                || board.getKingSquare(us) != king
+                || board.getAttackers(king, them) != 0) {
+            return count;
+        }
+        if (board.canCastle(us, true)
+                && board.getAttackers(king + 1, them) == 0
+                && board.getAttackers(king + 2, them) == 0) {
+            buffer[count++] = MoveCode.encode(king, king + 2, null, MoveCode.CASTLE);
+        }
+        if (board.canCastle(us, false)
+                && board.getAttackers(king - 1, them) == 0
+                && board.getAttackers(king - 2, them) == 0) {
+            buffer[count++] = MoveCode.encode(king, king - 2, null, MoveCode.CASTLE);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft").
+ * The counts are compared against published reference values to verify the
+ * move generator, and the node rate is the generator's throughput figure.
+ */
+public final class Perft
+{
+    /**
+     * The standard perft test positions, in FEN, from the Chess Programming
+     * Wiki: the initial position, "Kiwipete" and positions 3 to 6.
+     */
+    private static final String[] POSITIONS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+    };
+
+    /** The published node counts of each test position, indexed by position and depth. */
+    private static final long[][] EXPECTED = {
+        { 1L, 20L, 400L, 8902L, 197281L, 4865609L, 119060324L },
+        { 1L, 48L, 2039L, 97862L, 4085603L },
+        { 1L, 14L, 191L, 2812L, 43238L, 674624L },
+        { 1L, 6L, 264L, 9467L, 422333L },
+        { 1L, 44L, 1486L, 62379L, 2103487L },
+        { 1L, 46L, 2079L, 89890L, 3894594L }
+    };
+
+    /**
+     * This class only holds static methods and is not instantiated.
+     */
+    private Perft()
+    {
+    }
+
+    /**
+     * Counts the positions reachable from the board in exactly the given number of moves.
+     * The board is returned to its original position afterwards.
+     * @param board the game board to start from
+     * @param depth the number of moves to play
+     * @return the number of leaf positions
+     */
+    public static long perft(Gameboard board, int depth)
+    {
+        return perft(board, depth, new int[depth + 1][MoveGenerator.MAX_MOVES]);
+    }
+
+    /**
+     * Prints the perft count below each legal move of the board, then the total.
+     * @param board the game board to start from
+     * @param depth the number of moves to play, at least 1
+     * @return the total number of leaf positions
+     */
+    public static long divide(Gameboard board, int depth)
+    {
+        int[][] buffers = new int[depth + 1][MoveGenerator.MAX_MOVES];
+        int[] moves = buffers[depth];
+        int count = MoveGenerator.generateLegalMoves(board, moves);
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            board.makeMove(move);
+            long nodes = perft(board, depth - 1, buffers);
+            board.unmakeMove();
+            System.out.println(MoveCode.toString(move) + ": " + nodes);
+            total += nodes;
+        }
+        System.out.println("Total: " + total);
+        return total;
+    }
+
+    /**
+     * Runs perft on each test position and compares each depth up to the
+     * given maximum, 5 by default, with the published count. With the
+     * arguments "divide n", prints the divide output at depth n instead, for
+     * the initial position or for a FEN given after the depth.
+     * @param args the command line arguments
+     */
+    public static void main(String[] args)
+    {
+        if (args.length >= 2 && args[0].equals("divide")) {
+            Gameboard board = args.length > 2
+                    ? Gameboard.fromFen(String.join(" ", Arrays.copyOfRange(args, 2, args.length)))
+                    : new Gameboard();
+            divide(board, Integer.parseInt(args[1]));
+            return;
+        }
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        boolean passed = true;
+        for (int position = 0; position < POSITIONS.length; position++) {
+            System.out.println(POSITIONS[position]);
+            long[] expected = EXPECTED[position];
+            for (int depth = 1; depth <= maxDepth && depth < expected.length; depth++) {
+                Gameboard board = Gameboard.fromFen(POSITIONS[position]);
+                long start = System.nanoTime();
+                long nodes = perft(board, depth);
+                long elapsed = Math.max(1, System.nanoTime() - start);
+                boolean ok = nodes == expected[depth];
+                passed &= ok;
+                System.out.println("depth " + depth + ": " + nodes + " nodes, "
+                        + (nodes * 1_000_000_000L / elapsed) + " nps " + (ok ? "ok" : "FAILED, expected "
+                        + expected[depth]));
+            }
+        }
+        System.out.println(passed ? "All perft counts match" : "Perft mismatch");
+    }
+
+    /**
+     * Counts leaf positions using one preallocated move buffer per remaining depth.
+     * @param board   the game board
+     * @param depth   the number of moves to play
+     * @param buffers the move buffers, indexed by depth
+     * @return the number of leaf positions
+     */
+    private static long perft(Gameboard board, int depth, int[][] buffers)
+    {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = buffers[depth];
+        int count = MoveGenerator.generateLegalMoves(board, moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            nodes += perft(board, depth - 1, buffers);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+}
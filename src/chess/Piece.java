@@ -8,45 +8,71 @@ package chess;
 import java.util.Set;
 
 import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.pieces.Bishop;
+import chess.pieces.King;
+import chess.pieces.Knight;
+import chess.pieces.Pawn;
+import chess.pieces.Queen;
+import chess.pieces.Rook;
+import chess.utils.SquareSet;
 
 /**
- * Represents a chess piece on the game board.
+ * Represents a chess piece on the game board. A piece only knows its color
+ * and type: the square it stands on and whether it has moved are kept by
+ * the game board, so the twelve instances returned by of are shared by
+ * every square and every board, and a board can be copied without copying
+ * its pieces.
  */
 public abstract class Piece
 {
     /** The color of the piece. */
-    private Color color;
+    private final Color color;
 
-    /** The row on the game board where the piece is located. */
-    private int row;
-
-    /** The column on the game board where the piece is located. */
-    private int col;
-    
     /** The name of the piece, typically a two-character string like "wK" or "bQ". */
-    private String name;
-
-    /** The boolean representing whether or not the piece has moved. */
-    private Boolean hasMoved;
+    private final String name;
 
-    /** The color of the piece attacking, black or white */
-    protected Color attackingColor;
+    /**
+     * Holds the shared piece instances, created the first time one is asked for.
+     */
+    private static final class Flyweights
+    {
+        /** The piece of each color and type, indexed by color ordinal * PieceType.COUNT + type ordinal. */
+        private static final Piece[] PIECES = new Piece[2 * PieceType.COUNT];
+
+        static {
+            for (Color color : Color.values()) {
+                int base = color.ordinal() * PieceType.COUNT;
+                PIECES[base + PieceType.PAWN.ordinal()] = new Pawn(color);
+                PIECES[base + PieceType.KNIGHT.ordinal()] = new Knight(color);
+                PIECES[base + PieceType.BISHOP.ordinal()] = new Bishop(color);
+                PIECES[base + PieceType.ROOK.ordinal()] = new Rook(color);
+                PIECES[base + PieceType.QUEEN.ordinal()] = new Queen(color);
+                PIECES[base + PieceType.KING.ordinal()] = new King(color);
+            }
+        }
+    }
 
     /**
-     * Constructs a new Piece object with the given
-     * color, type, row, column, location, and name.
+     * Constructs a new Piece object with the given color and name.
      * @param color the color of the piece (either Color.WHITE or Color.BLACK)
-     * @param row the row of the piece on the board (0-7)
-     * @param col the column of the piece on the board (0-7)
      * @param name the name of the piece (e.g. "wK" for a white king, "bP" for a black pawn, etc.)
      */
-    public Piece(Color color, int row, int col, String name)
+    protected Piece(Color color, String name)
     {
         this.color = color;
-        this.row = row;
-        this.col = col;
         this.name = name;
-        this.hasMoved = false;
+    }
+
+    /**
+     * Returns the shared piece of the given color and type.
+     * @param color the color of the piece
+     * @param type  the type of the piece
+     * @return the piece, the same instance on every call
+     */
+    public static Piece of(Color color, PieceType type)
+    {
+        return Flyweights.PIECES[color.ordinal() * PieceType.COUNT + type.ordinal()];
     }
 
     /**
@@ -64,66 +90,54 @@ public abstract class Piece
     public abstract boolean canMoveTo(int fromRow, int fromCol, int toRow, int toCol, Gameboard board);
 
     /**
-     * Returns a set of integers representing the squares that this piece is attacking on the game board.
-     * This method should be overridden by subclasses to implement piece-specific attack rules.
-     * @param board the game board on which the piece is attacking
-     * @return a set of integers representing the squares that this piece is attacking
-     */
-    public abstract Set<Integer> getAttackSquares(Gameboard board);
-
-    /**
-     * Sets the attacking color of the game to the specified color.
-     * The attacking color is the color of the player who is currently attacking.
-     * @param color the color to set as the attacking color
-     */
-    public void setAttackingColor(Color color)
-    {
-        this.attackingColor = color;
-    }
-
-    /**
-     * Gets the color of the piece.
-     * @return the color of the piece
+     * Returns the squares that this piece is attacking from a square of the
+     * game board, leaving out squares occupied by its own color. Subclasses
+     * with piece-specific attack rules override this method.
+     * @param square the square the piece stands on
+     * @param board  the game board on which the piece is attacking
+     * @return the set of squares that this piece is attacking
      */
-    public Color getColor()
+    public SquareSet getAttacks(int square, Gameboard board)
     {
-        return color;
+        return SquareSet.fromMask(getAttackMask(square, board) & ~board.getOccupancy(color));
     }
 
     /**
-     * Gets the row of the piece on the game board.
-     * @return the row of the piece
+     * Returns a set of integers representing the squares that this piece is attacking on the game board.
+     * @param square the square the piece stands on
+     * @param board  the game board on which the piece is attacking
+     * @return a set of square indices from 0 to 63 that this piece is attacking
+     * @deprecated boxes every square; use getAttacks instead
      */
-    public int getRow()
+    @Deprecated
+    public Set<Integer> getAttackSquares(int square, Gameboard board)
     {
-        return row;
+        return getAttacks(square, board).toSet();
     }
 
     /**
-     * Gets the column of the piece on the game board.
-     * @return the column of the piece
+     * Returns the squares this piece attacks from a square as a bitboard, with
+     * bit n set for square n (row * 8 + col). Unlike getAttacks, squares
+     * holding pieces of either color are included, and no objects are allocated.
+     * @param square the square the piece stands on
+     * @param board  the game board on which the piece is attacking
+     * @return the bitboard of attacked squares
      */
-    public int getCol()
-    {
-        return col;
-    }
+    public abstract long getAttackMask(int square, Gameboard board);
 
     /**
-     * Sets the row of the piece on the game board.
-     * @param row the new row of the piece
+     * Returns the type of this piece.
+     * @return the type of the piece
      */
-    public void setRow(int row)
-    {
-        this.row = row;
-    }
+    public abstract PieceType getType();
 
     /**
-     * Sets the column of the piece on the game board.
-     * @param col the new column of the piece
+     * Gets the color of the piece.
+     * @return the color of the piece
      */
-    public void setCol(int col)
+    public Color getColor()
     {
-        this.col = col;
+        return color;
     }
 
     /**
@@ -135,23 +149,4 @@ public abstract class Piece
     {
         return name;
     }
-
-    /**
-     * Sets the name of the piece, as a string
-     * that includes its color and type (e.g., "wKnight").
-     * @param name the new name of the piece
-     */
-    public void setName(String name)
-    {
-        this.name = name;
-    }
-    
-    /**
-     * Sets the moved status of the piece.
-     * @param hasMoved true if the piece has been moved, false otherwise
-     */
-    public void setMoved(boolean hasMoved)
-    {
-        this.hasMoved = hasMoved;
-    }
 }
@@ -0,0 +1,111 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+/**
+ * The random keys used to hash game board positions. A position's key is
+ * the XOR of one key per piece on its square, a key when black is to move,
+ * one key for the castling rights and one for the file of the en passant
+ * square when a pawn can capture there, so each move changes it with a
+ * handful of XORs. The keys come
+ * from a fixed seed, so the same position hashes the same in every run.
+ */
+public final class Zobrist
+{
+    /** The key of each piece and square, indexed by color * 6 + type, then square. */
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+
+    /** The key of each combination of castling right bits. */
+    private static final long[] CASTLING = new long[16];
+
+    /** The key of each en passant file. */
+    private static final long[] EN_PASSANT_FILE = new long[8];
+
+    /** The key XORed in when black is to move. */
+    private static final long BLACK_TO_MOVE;
+
+    /** The increment of the splitmix64 generator that produces the keys. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    static {
+        long state = 0L;
+        for (int piece = 0; piece < 12; piece++) {
+            for (int square = 0; square < 64; square++) {
+                state += GOLDEN_GAMMA;
+                PIECE_SQUARE[piece][square] = mix(state);
+            }
+        }
+        for (int rights = 1; rights < 16; rights++) {
+            state += GOLDEN_GAMMA;
+            CASTLING[rights] = mix(state);
+        }
+        for (int file = 0; file < 8; file++) {
+            state += GOLDEN_GAMMA;
+            EN_PASSANT_FILE[file] = mix(state);
+        }
+        state += GOLDEN_GAMMA;
+        BLACK_TO_MOVE = mix(state);
+    }
+
+    /**
+     * This class only holds static tables and is not instantiated.
+     */
+    private Zobrist()
+    {
+    }
+
+    /**
+     * Returns the key of a piece on a square.
+     * @param piece  the piece index, color ordinal * 6 + type ordinal
+     * @param square the square index (row * 8 + col)
+     * @return the key
+     */
+    public static long piece(int piece, int square)
+    {
+        return PIECE_SQUARE[piece][square];
+    }
+
+    /**
+     * Returns the key of a set of castling rights.
+     * @param rights a combination of the Gameboard castling right bits
+     * @return the key, 0 when no rights are left
+     */
+    public static long castling(int rights)
+    {
+        return CASTLING[rights];
+    }
+
+    /**
+     * Returns the key of an en passant square.
+     * @param square the en passant square, or -1 for none
+     * @return the key of the square's file, 0 when there is no en passant square
+     */
+    public static long enPassant(int square)
+    {
+        return square < 0 ? 0L : EN_PASSANT_FILE[square & 7];
+    }
+
+    /**
+     * Returns the key XORed in when black is to move.
+     * @return the key
+     */
+    public static long blackToMove()
+    {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * The output function of the splitmix64 generator.
+     * @param z the generator state
+     * @return the pseudo-random value for that state
+     */
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.engine;
+
+import chess.Gameboard;
+
+/**
+ * A source of prepared moves, such as an opening book, that a search
+ * probes before searching. How the book is stored and how one of several
+ * moves is chosen is left to the implementation, so a caller adapting
+ * chess.io.book.OpeningBook chooses the source of randomness, e.g.
+ * {@code board -> book.pickMove(board, random)} with a seeded Random for
+ * repeatable games.
+ */
+@FunctionalInterface
+public interface Book
+{
+    /**
+     * Picks a move for the position on a board.
+     * @param board the game board, which must be left in its position
+     * @return the move encoded as in MoveCode, or MoveCode.NONE if the book has no move for it
+     */
+    int pickMove(Gameboard board);
+}
@@ -0,0 +1,248 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.engine;
+
+import chess.Gameboard;
+import chess.PieceSquareTables;
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.utils.Attacks;
+import chess.utils.Square;
+
+/**
+ * Scores a Gameboard position in centipawns. The score is tapered: each
+ * term has a midgame and an endgame value, blended by the game phase of
+ * the pieces left on the board. Material and piece-square values come
+ * from the sums the game board keeps up to date as moves are made and
+ * taken back, so only mobility, pawn structure and king safety are
+ * computed here, all from the bitboards. An Evaluator reuses its scratch
+ * storage, so each search thread needs its own.
+ */
+public final class Evaluator
+{
+    /** The piece types, indexed by ordinal. */
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    /** The squares of each file, indexed by column. */
+    private static final long[] FILE_MASK = new long[8];
+
+    /** The squares of the files next to each file, indexed by column. */
+    private static final long[] ADJACENT_FILES = new long[8];
+
+    /**
+     * The squares in front of a pawn on its own and adjacent files, indexed
+     * by color ordinal and square; a pawn with no enemy pawns there is passed.
+     */
+    private static final long[][] PASSED_MASK = new long[2][64];
+
+    /** The two ranks in front of a king on its own and adjacent files, indexed by color ordinal and square. */
+    private static final long[][] SHIELD_MASK = new long[2][64];
+
+    /** The squares of the a file, which pawns cannot capture towards the left from. */
+    private static final long NOT_FILE_A = ~0x0101010101010101L;
+
+    /** The squares of the h file, which pawns cannot capture towards the right from. */
+    private static final long NOT_FILE_H = ~0x8080808080808080L;
+
+    /** The midgame bonus per square a piece can move to, indexed by type ordinal. */
+    private static final int[] MOBILITY_MIDGAME = { 0, 4, 5, 2, 1, 0 };
+
+    /** The endgame bonus per square a piece can move to, indexed by type ordinal. */
+    private static final int[] MOBILITY_ENDGAME = { 0, 4, 3, 4, 2, 0 };
+
+    /** The midgame bonus of a passed pawn, indexed by its rank counted from its own side. */
+    private static final int[] PASSED_MIDGAME = { 0, 0, 5, 10, 20, 35, 60, 0 };
+
+    /** The endgame bonus of a passed pawn, indexed by its rank counted from its own side. */
+    private static final int[] PASSED_ENDGAME = { 0, 10, 15, 25, 45, 70, 110, 0 };
+
+    /** The midgame penalty per extra pawn on a file. */
+    private static final int DOUBLED_MIDGAME = 10;
+
+    /** The endgame penalty per extra pawn on a file. */
+    private static final int DOUBLED_ENDGAME = 20;
+
+    /** The midgame penalty per pawn with no friendly pawns on the adjacent files. */
+    private static final int ISOLATED_MIDGAME = 10;
+
+    /** The endgame penalty per pawn with no friendly pawns on the adjacent files. */
+    private static final int ISOLATED_ENDGAME = 15;
+
+    /** The midgame bonus per pawn sheltering the king. */
+    private static final int SHIELD_MIDGAME = 10;
+
+    /** The weight of each attack on the king zone, indexed by the attacker's type ordinal. */
+    private static final int[] KING_ATTACK_WEIGHT = { 0, 2, 2, 3, 5, 0 };
+
+    /** The percentage of the king attack weight counted, indexed by the number of attackers. */
+    private static final int[] KING_ATTACKERS_SCALE = { 0, 0, 50, 75, 88, 94, 97, 99 };
+
+    /** The midgame and endgame totals of white's terms, reused by every evaluation. */
+    private final int[] whiteScores = new int[2];
+
+    /** The midgame and endgame totals of black's terms, reused by every evaluation. */
+    private final int[] blackScores = new int[2];
+
+    static {
+        for (int col = 0; col < 8; col++) {
+            FILE_MASK[col] = 0x0101010101010101L << col;
+        }
+        for (int col = 0; col < 8; col++) {
+            ADJACENT_FILES[col] = (col > 0 ? FILE_MASK[col - 1] : 0L) | (col < 7 ? FILE_MASK[col + 1] : 0L);
+        }
+        for (int square = 0; square < 64; square++) {
+            int row = square / 8;
+            int col = square % 8;
+            long files = FILE_MASK[col] | ADJACENT_FILES[col];
+            long above = row == 0 ? 0L : -1L >>> (64 - row * 8);
+            long below = row == 7 ? 0L : -1L << ((row + 1) * 8);
+            PASSED_MASK[Color.WHITE.ordinal()][square] = files & above;
+            PASSED_MASK[Color.BLACK.ordinal()][square] = files & below;
+            long twoAbove = row < 2 ? above : above & (-1L << ((row - 2) * 8));
+            long twoBelow = row >= 5 ? below : below & (-1L >>> ((5 - row) * 8));
+            SHIELD_MASK[Color.WHITE.ordinal()][square] = files & twoAbove;
+            SHIELD_MASK[Color.BLACK.ordinal()][square] = files & twoBelow;
+        }
+    }
+
+    /**
+     * Scores the position on the board.
+     * @param board the game board to evaluate
+     * @return the score in centipawns from the side to move's point of view
+     */
+    public int evaluate(Gameboard board)
+    {
+        int midgame = board.getMidgameScore();
+        int endgame = board.getEndgameScore();
+
+        long whitePawns = board.getBitboard(Color.WHITE, PieceType.PAWN);
+        long blackPawns = board.getBitboard(Color.BLACK, PieceType.PAWN);
+        long whitePawnAttacks = ((whitePawns & NOT_FILE_A) >>> 9) | ((whitePawns & NOT_FILE_H) >>> 7);
+        long blackPawnAttacks = ((blackPawns & NOT_FILE_A) << 7) | ((blackPawns & NOT_FILE_H) << 9);
+
+        int[] white = whiteScores;
+        int[] black = blackScores;
+        white[0] = 0;
+        white[1] = 0;
+        black[0] = 0;
+        black[1] = 0;
+        evaluatePieces(board, Color.WHITE, blackPawnAttacks, white);
+        evaluatePieces(board, Color.BLACK, whitePawnAttacks, black);
+        evaluatePawns(Color.WHITE, whitePawns, blackPawns, white);
+        evaluatePawns(Color.BLACK, blackPawns, whitePawns, black);
+        midgame += white[0] - black[0];
+        endgame += white[1] - black[1];
+
+        int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (midgame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return board.getCurrentPlayer() == Color.WHITE ? score : -score;
+    }
+
+    /**
+     * Adds the mobility of a side's pieces and the safety of its king.
+     * @param board            the game board
+     * @param color            the side to score
+     * @param enemyPawnAttacks the squares attacked by the other side's pawns
+     * @param scores           the midgame and endgame totals to add to
+     */
+    private void evaluatePieces(Gameboard board, Color color, long enemyPawnAttacks, int[] scores)
+    {
+        long occupied = board.getOccupancy();
+        long available = ~board.getOccupancy(color) & ~enemyPawnAttacks;
+        for (int type = PieceType.KNIGHT.ordinal(); type <= PieceType.QUEEN.ordinal(); type++) {
+            long pieces = board.getBitboard(color, PIECE_TYPES[type]);
+            while (pieces != 0) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                int moves = Long.bitCount(attacks(type, square, occupied) & available);
+                scores[0] += MOBILITY_MIDGAME[type] * moves;
+                scores[1] += MOBILITY_ENDGAME[type] * moves;
+            }
+        }
+
+        int kingSquare = board.getKingSquare(color);
+        if (kingSquare == Square.NONE) {
+            return;
+        }
+        long ownPawns = board.getBitboard(color, PieceType.PAWN);
+        scores[0] += SHIELD_MIDGAME * Long.bitCount(ownPawns & SHIELD_MASK[color.ordinal()][kingSquare]);
+
+        long zone = Attacks.king(kingSquare) | 1L << kingSquare;
+        Color enemy = color.opposite();
+        int attackers = 0;
+        int weight = 0;
+        for (int type = PieceType.KNIGHT.ordinal(); type <= PieceType.QUEEN.ordinal(); type++) {
+            long pieces = board.getBitboard(enemy, PIECE_TYPES[type]);
+            while (pieces != 0) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                long hits = attacks(type, square, occupied) & zone;
+                if (hits != 0) {
+                    attackers++;
+                    weight += KING_ATTACK_WEIGHT[type] * Long.bitCount(hits);
+                }
+            }
+        }
+        scores[0] -= weight * weight * KING_ATTACKERS_SCALE[Math.min(attackers, 7)] / 100;
+    }
+
+    /**
+     * Adds the pawn structure terms of a side: doubled, isolated and passed pawns.
+     * @param color      the side to score
+     * @param pawns      the side's pawns
+     * @param enemyPawns the other side's pawns
+     * @param scores     the midgame and endgame totals to add to
+     */
+    private void evaluatePawns(Color color, long pawns, long enemyPawns, int[] scores)
+    {
+        for (int col = 0; col < 8; col++) {
+            int count = Long.bitCount(pawns & FILE_MASK[col]);
+            if (count == 0) {
+                continue;
+            }
+            if (count > 1) {
+                scores[0] -= DOUBLED_MIDGAME * (count - 1);
+                scores[1] -= DOUBLED_ENDGAME * (count - 1);
+            }
+            if ((pawns & ADJACENT_FILES[col]) == 0) {
+                scores[0] -= ISOLATED_MIDGAME * count;
+                scores[1] -= ISOLATED_ENDGAME * count;
+            }
+        }
+
+        long remaining = pawns;
+        while (remaining != 0) {
+            int square = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            if ((enemyPawns & PASSED_MASK[color.ordinal()][square]) == 0) {
+                int rank = color == Color.WHITE ? 7 - square / 8 : square / 8;
+                scores[0] += PASSED_MIDGAME[rank];
+                scores[1] += PASSED_ENDGAME[rank];
+            }
+        }
+    }
+
+    /**
+     * Returns the squares a knight, bishop, rook or queen attacks.
+     * @param type     the piece type ordinal
+     * @param square   the square of the piece
+     * @param occupied the occupancy of both colors
+     * @return the attacked squares
+     */
+    private static long attacks(int type, int square, long occupied)
+    {
+        switch (type) {
+            case 1:
+                return Attacks.knight(square);
+            case 2:
+                return Attacks.bishop(square, occupied);
+            case 3:
+                return Attacks.rook(square, occupied);
+            default:
+                return Attacks.queen(square, occupied);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.engine;
+
+/**
+ * The budget of a search: a maximum depth, a node count and a time limit.
+ * The search stops at whichever limit is reached first; a limit of 0 means
+ * no limit of that kind.
+ */
+public final class Limits
+{
+    /** The maximum depth to search, in plies. */
+    private final int depth;
+
+    /** The maximum number of nodes to search. */
+    private final long nodes;
+
+    /** The maximum time to search, in milliseconds. */
+    private final long millis;
+
+    /**
+     * Creates a search budget.
+     * @param depth  the maximum depth in plies, or 0 for no depth limit
+     * @param nodes  the maximum number of nodes, or 0 for no node limit
+     * @param millis the maximum time in milliseconds, or 0 for no time limit
+     */
+    public Limits(int depth, long nodes, long millis)
+    {
+        this.depth = depth;
+        this.nodes = nodes;
+        this.millis = millis;
+    }
+
+    /**
+     * Creates a budget limited by depth only.
+     * @param depth the maximum depth in plies
+     * @return the limits
+     */
+    public static Limits depth(int depth)
+    {
+        return new Limits(depth, 0, 0);
+    }
+
+    /**
+     * Creates a budget limited by node count only. The count is checked at
+     * every node, so a search stops as soon as it reaches the limit.
+     * @param nodes the maximum number of nodes
+     * @return the limits
+     */
+    public static Limits nodes(long nodes)
+    {
+        return new Limits(0, nodes, 0);
+    }
+
+    /**
+     * Creates a budget limited by time only.
+     * @param millis the maximum time in milliseconds
+     * @return the limits
+     */
+    public static Limits time(long millis)
+    {
+        return new Limits(0, 0, millis);
+    }
+
+    /**
+     * Returns the maximum depth.
+     * @return the depth in plies, or 0 for no limit
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Returns the maximum number of nodes.
+     * @return the node count, or 0 for no limit
+     */
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    /**
+     * Returns the maximum time.
+     * @return the time in milliseconds, or 0 for no limit
+     */
+    public long getMillis()
+    {
+        return millis;
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import chess.Gameboard;
+
+/**
+ * A multi-threaded search in the "lazy SMP" style: helper threads search
+ * the same root position as the main search, each on its own copy of the
+ * game board, and the only thing they share is the transposition table.
+ * Helpers do not report moves; they fill the table with results the main
+ * search then finds, so the main search reaches each depth sooner. Half of
+ * the helpers start one iteration deeper than the main search so the
+ * threads do not all walk the same tree in step. The result is always the
+ * main search's, and the helpers are stopped as soon as it returns.
+ */
+public class ParallelSearch
+{
+    /** The transposition table shared by all threads. */
+    private final TranspositionTable table;
+
+    /** The main search, run on the calling thread. */
+    private final Search main;
+
+    /** The helper searches, one per helper thread. */
+    private final Search[] helpers;
+
+    /** The threads running the helper searches. */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a parallel search with its own 16 megabyte transposition table.
+     * @param threads the number of threads, at least 1, including the calling thread
+     */
+    public ParallelSearch(int threads)
+    {
+        this(threads, new TranspositionTable(16));
+    }
+
+    /**
+     * Creates a parallel search sharing the given transposition table
+     * between all its threads.
+     * @param threads the number of threads, at least 1, including the calling thread
+     * @param table   the transposition table
+     */
+    public ParallelSearch(int threads, TranspositionTable table)
+    {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.table = table;
+        main = new Search(table);
+        helpers = new Search[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Search(table);
+        }
+        executor = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches the position on the board for the best move of the player to
+     * move, using every thread, unless the opening book has a move for it.
+     * The board is left in its original position.
+     * @param board  the game board to search
+     * @param limits the depth, node and time budget of the main search
+     * @return the main search's result, with the nodes of all threads, or the book move
+     */
+    public SearchResult search(Gameboard board, Limits limits)
+    {
+        SearchResult bookResult = main.probeBook(board);
+        if (bookResult != null) {
+            return bookResult;
+        }
+        // start the generation before any thread stores, so no entry of this search looks stale
+        table.newSearch();
+        List<Future<SearchResult>> futures = new ArrayList<>(helpers.length);
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = helpers[i];
+            Gameboard copy = new Gameboard(board);
+            int firstDepth = 1 + (i + 1) % 2;
+            helper.reset();
+            futures.add(executor.submit(() -> helper.searchHelper(copy, limits, firstDepth)));
+        }
+
+        SearchResult result = main.searchMain(board, limits);
+
+        long nodes = result.getNodes();
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i].stop();
+        }
+        for (Future<SearchResult> future : futures) {
+            try {
+                nodes += future.get().getNodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes, result.getPv());
+    }
+
+    /**
+     * Sets the opening book the main search probes before each search.
+     * @param book the opening book, or null to always search
+     */
+    public void setBook(Book book)
+    {
+        main.setBook(book);
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible. Safe to call from any thread.
+     */
+    public void stop()
+    {
+        main.stop();
+        for (Search helper : helpers) {
+            helper.stop();
+        }
+    }
+
+    /**
+     * Stops the helper threads. The parallel search cannot be used afterwards.
+     */
+    public void shutdown()
+    {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Searches the initial position to a fixed depth with 1, 2, 4, 8 and 16
+     * threads and prints the time to depth and the speedup over one thread,
+     * after one untimed single-threaded search to warm up the JIT compiler.
+     * The first argument, if given, is the depth (default 7).
+     * @param args the command line arguments
+     */
+    public static void main(String[] args)
+    {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        System.out.println("cores available: " + Runtime.getRuntime().availableProcessors());
+        new Search().search(new Gameboard(), Limits.depth(depth));
+        double baseline = 0;
+        for (int threads = 1; threads <= 16; threads *= 2) {
+            ParallelSearch search = new ParallelSearch(threads, new TranspositionTable(64));
+            long start = System.nanoTime();
+            SearchResult result = search.search(new Gameboard(), Limits.depth(depth));
+            double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+            search.shutdown();
+            if (threads == 1) {
+                baseline = seconds;
+            }
+            System.out.printf("threads %2d  time %7.3fs  nodes %10d  nps %9d  speedup %.2f  %s%n",
+                    threads, seconds, result.getNodes(), (long) (result.getNodes() / seconds),
+                    baseline / seconds, result);
+        }
+    }
+}
@@ -0,0 +1,551 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.engine;
+
+import java.util.Arrays;
+
+import chess.Gameboard;
+import chess.MoveCode;
+import chess.MoveGenerator;
+import chess.Piece;
+
+/**
+ * A negamax alpha-beta search over Gameboard positions. It deepens
+ * iteratively until a depth, node or time limit is reached, searches the
+ * first move of each node with a full window and the rest with a null
+ * window (principal variation search), resolves captures in a quiescence
+ * search, and orders moves by transposition table move, captures (most
+ * valuable victim, least valuable attacker), killer moves and history.
+ * All working storage is allocated once per Search object, so the search
+ * itself does not allocate. A Search object is not thread-safe; use one
+ * per thread.
+ */
+public class Search
+{
+    /** The deepest ply the search can reach. */
+    public static final int MAX_PLY = 128;
+
+    /** The score of being mated at the root; mate in n plies scores MATE - n. */
+    public static final int MATE = 30000;
+
+    /** A score beyond any reachable score. */
+    private static final int INFINITY = 32000;
+
+    /** The value of each piece type in centipawns, indexed by ordinal, for ordering captures. */
+    private static final int[] PIECE_VALUES = { 100, 320, 330, 500, 900, 0 };
+
+    /** How many nodes pass between two checks of the time limit; the node limit is checked at every node. */
+    private static final int CHECK_INTERVAL = 2048;
+
+    /** The transposition table, possibly shared with other searches. */
+    private final TranspositionTable table;
+
+    /** The evaluation of the positions at the leaves of the search. */
+    private final Evaluator evaluator = new Evaluator();
+
+    /** The move buffer of each ply. */
+    private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+
+    /** The ordering score of each move in the move buffer of each ply. */
+    private final int[][] moveScores = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+
+    /** Two quiet moves per ply that recently caused a beta cutoff. */
+    private final int[][] killers = new int[MAX_PLY][2];
+
+    /** The history score of each quiet move, indexed by color, from square and to square. */
+    private final int[][][] history = new int[2][64][64];
+
+    /** The triangular principal variation table. */
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+
+    /** The length of the principal variation found at each ply. */
+    private final int[] pvLength = new int[MAX_PLY];
+
+    /** The board being searched. */
+    private Gameboard board;
+
+    /** The number of nodes searched so far. */
+    private long nodes;
+
+    /** The node limit of the current search, or Long.MAX_VALUE. */
+    private long nodeLimit;
+
+    /** The time at which the current search must stop, in System.nanoTime units, or Long.MAX_VALUE. */
+    private long deadline;
+
+    /** Set when the search has to stop; may be set from another thread. */
+    private volatile boolean stopped;
+
+    /** The opening book probed before searching, or null. */
+    private Book book;
+
+    /**
+     * Creates a search with its own 16 megabyte transposition table.
+     */
+    public Search()
+    {
+        this(new TranspositionTable(16));
+    }
+
+    /**
+     * Creates a search that uses the given transposition table.
+     * @param table the transposition table
+     */
+    public Search(TranspositionTable table)
+    {
+        this.table = table;
+    }
+
+    /**
+     * Searches the position on the board for the best move of the player to
+     * move, unless the opening book has a move for it. The board is left in
+     * its original position.
+     * @param board  the game board to search
+     * @param limits the depth, node and time budget
+     * @return the result of the deepest iteration completed, or the book move;
+     *         see iterate for a search stopped before any iteration completed
+     */
+    public SearchResult search(Gameboard board, Limits limits)
+    {
+        SearchResult bookResult = probeBook(board);
+        if (bookResult != null) {
+            return bookResult;
+        }
+        table.newSearch();
+        return searchMain(board, limits);
+    }
+
+    /**
+     * Picks a move for the position from the opening book.
+     * @param board the game board
+     * @return the book move as a result of depth 0, or null if there is no
+     *         book or it has no move for the position
+     */
+    SearchResult probeBook(Gameboard board)
+    {
+        if (book != null) {
+            int move = book.pickMove(board);
+            if (move != MoveCode.NONE) {
+                return new SearchResult(move, 0, 0, 0, new int[] {move});
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs the search as the main search of a ParallelSearch, which starts
+     * the new table generation itself, once for all its threads, before any
+     * of them searches.
+     * @param board  the game board to search
+     * @param limits the depth, node and time budget
+     * @return the result of the deepest iteration completed
+     */
+    SearchResult searchMain(Gameboard board, Limits limits)
+    {
+        stopped = false;
+        return iterate(board, limits, 1);
+    }
+
+    /**
+     * Sets the opening book to probe before each search. When the book has
+     * a move for the position, the search returns it at once, with depth 0.
+     * @param book the opening book, or null to always search
+     */
+    public void setBook(Book book)
+    {
+        this.book = book;
+    }
+
+    /**
+     * Runs the search as a helper of a ParallelSearch: the table generation
+     * is left to the ParallelSearch, and a stop requested before the helper
+     * started is not cleared.
+     * @param board      the helper's own copy of the game board
+     * @param limits     the depth, node and time budget
+     * @param firstDepth the depth of the first iteration, so helpers spread over depths
+     * @return the result of the deepest iteration completed
+     */
+    SearchResult searchHelper(Gameboard board, Limits limits, int firstDepth)
+    {
+        return iterate(board, limits, firstDepth);
+    }
+
+    /**
+     * Clears the stop flag before the search is handed to a helper thread.
+     */
+    void reset()
+    {
+        stopped = false;
+    }
+
+    /**
+     * Deepens the search one iteration at a time until a limit is reached.
+     * The result of an iteration cut short by a limit is dropped. When no
+     * iteration completes, the result has depth 0, the static evaluation as
+     * its score and, as its move, the best root move searched so far or else
+     * the first legal move, so a move is returned whenever there is one.
+     * @param board      the game board to search
+     * @param limits     the depth, node and time budget
+     * @param firstDepth the depth of the first iteration
+     * @return the result of the deepest iteration completed
+     */
+    private SearchResult iterate(Gameboard board, Limits limits, int firstDepth)
+    {
+        this.board = board;
+        long start = System.nanoTime();
+        nodes = 0;
+        nodeLimit = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        deadline = limits.getMillis() > 0 ? start + limits.getMillis() * 1_000_000L : Long.MAX_VALUE;
+        int maxDepth = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_PLY - 1) : MAX_PLY - 1;
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = 0;
+            plyKillers[1] = 0;
+        }
+
+        int bestMove = 0;
+        int bestScore = 0;
+        int completed = 0;
+        int[] pv = new int[0];
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            int score = search(depth, -INFINITY, INFINITY, 0, true);
+            if (stopped) {
+                break;
+            }
+            bestScore = score;
+            completed = depth;
+            pv = Arrays.copyOf(pvTable[0], pvLength[0]);
+            bestMove = pv.length > 0 ? pv[0] : 0;
+            if (Math.abs(score) >= MATE - MAX_PLY) {
+                break;
+            }
+        }
+        if (completed == 0) {
+            // the root only records a move in pvTable once its subtree was searched in full
+            bestMove = pvLength[0] > 0 ? pvTable[0][0] : 0;
+            int count = MoveGenerator.generateLegalMoves(board, moves[0]);
+            if (bestMove == 0 && count > 0) {
+                bestMove = moves[0][0];
+            }
+            bestScore = count > 0 ? evaluator.evaluate(board) : board.isInCheck() ? -MATE : 0;
+            pv = bestMove == 0 ? new int[0] : new int[] {bestMove};
+        }
+        return new SearchResult(bestMove, bestScore, completed, nodes, pv);
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible. The search returns
+     * the result of the last iteration it completed.
+     */
+    public void stop()
+    {
+        stopped = true;
+    }
+
+    /**
+     * Clears the history and killer tables, e.g. before a new game.
+     */
+    public void clearHistory()
+    {
+        for (int[][] colorHistory : history) {
+            for (int[] fromHistory : colorHistory) {
+                Arrays.fill(fromHistory, 0);
+            }
+        }
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, 0);
+        }
+    }
+
+    /**
+     * The alpha-beta search of one node.
+     * @param depth  the remaining depth
+     * @param alpha  the lower bound of the window
+     * @param beta   the upper bound of the window
+     * @param ply    the distance from the root
+     * @param pvNode whether the node is on the principal variation
+     * @return the score of the position from the side to move's point of view
+     */
+    private int search(int depth, int alpha, int beta, int ply, boolean pvNode)
+    {
+        pvLength[ply] = 0;
+        if (ply > 0 && (board.getHalfmoveClock() >= 100 || board.isRepetition())) {
+            return 0;
+        }
+        boolean inCheck = board.isInCheck();
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiesce(alpha, beta, ply);
+        }
+        if (++nodes >= nodeLimit || nodes % CHECK_INTERVAL == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        long key = board.hashKey();
+        long entry = table.probe(key);
+        int tableMove = 0;
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] plyMoves = moves[ply];
+        int count = MoveGenerator.generateLegalMoves(board, plyMoves);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(ply, count, tableMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = 0;
+        for (int i = 0; i < count; i++) {
+            int move = pickMove(ply, i, count);
+            board.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -search(depth - 1, -beta, -alpha, ply + 1, pvNode);
+            } else {
+                score = -search(depth - 1, -alpha - 1, -alpha, ply + 1, false);
+                if (score > alpha && score < beta && !stopped) {
+                    score = -search(depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        if (!MoveCode.isCapture(move) && !MoveCode.isPromotion(move)) {
+                            rememberQuietCutoff(ply, move, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, depth, bound, toTable(bestScore, ply), bestMove);
+        return bestScore;
+    }
+
+    /**
+     * Searches captures and promotions only, until the position is quiet,
+     * so the static evaluation is never taken in the middle of an exchange.
+     * @param alpha the lower bound of the window
+     * @param beta  the upper bound of the window
+     * @param ply   the distance from the root
+     * @return the score of the position from the side to move's point of view
+     */
+    private int quiesce(int alpha, int beta, int ply)
+    {
+        pvLength[ply] = 0;
+        if (++nodes >= nodeLimit || nodes % CHECK_INTERVAL == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        int standPat = evaluator.evaluate(board);
+        if (standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int count = MoveGenerator.generateLegalCaptures(board, moves[ply]);
+        scoreMoves(ply, count, 0);
+        for (int i = 0; i < count; i++) {
+            int move = pickMove(ply, i, count);
+            board.makeMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                if (score >= beta) {
+                    break;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Gives each generated move an ordering score: the table move first, then
+     * captures and promotions by gain, then killer moves, then quiet moves by
+     * history.
+     * @param ply       the ply whose move buffer to score
+     * @param count     the number of moves in the buffer
+     * @param tableMove the best move stored in the transposition table, or 0
+     */
+    private void scoreMoves(int ply, int count, int tableMove)
+    {
+        int[] plyMoves = moves[ply];
+        int[] scores = moveScores[ply];
+        int color = board.getCurrentPlayer().ordinal();
+        for (int i = 0; i < count; i++) {
+            int move = plyMoves[i];
+            int from = MoveCode.from(move);
+            int to = MoveCode.to(move);
+            if (move == tableMove) {
+                scores[i] = 1 << 30;
+            } else if (MoveCode.isCapture(move) || MoveCode.isPromotion(move)) {
+                Piece victim = board.getPieceAt(to);
+                int gain = victim == null ? PIECE_VALUES[0] : PIECE_VALUES[victim.getType().ordinal()];
+                if (MoveCode.isPromotion(move)) {
+                    gain += PIECE_VALUES[MoveCode.promotion(move).ordinal()];
+                }
+                scores[i] = (1 << 29) + gain * 16 - PIECE_VALUES[board.getPieceAt(from).getType().ordinal()] / 16;
+            } else if (move == killers[ply][0]) {
+                scores[i] = (1 << 28) + 1;
+            } else if (move == killers[ply][1]) {
+                scores[i] = 1 << 28;
+            } else {
+                scores[i] = history[color][from][to];
+            }
+        }
+    }
+
+    /**
+     * Moves the best scored move among the remaining ones to position index
+     * (a selection sort step, so ordering stops once a cutoff is found).
+     * @param ply   the ply whose move buffer to search
+     * @param index the position to fill
+     * @param count the number of moves in the buffer
+     * @return the move now at position index
+     */
+    private int pickMove(int ply, int index, int count)
+    {
+        int[] plyMoves = moves[ply];
+        int[] scores = moveScores[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = plyMoves[best];
+        plyMoves[best] = plyMoves[index];
+        plyMoves[index] = move;
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+        return move;
+    }
+
+    /**
+     * Records a quiet move that caused a beta cutoff in the killer and history tables.
+     * @param ply   the ply of the cutoff
+     * @param move  the move
+     * @param depth the remaining depth of the node
+     */
+    private void rememberQuietCutoff(int ply, int move, int depth)
+    {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] fromHistory = history[board.getCurrentPlayer().ordinal()][MoveCode.from(move)];
+        int to = MoveCode.to(move);
+        fromHistory[to] += depth * depth;
+        if (fromHistory[to] > 1 << 20) {
+            for (int[][] colorHistory : history) {
+                for (int[] row : colorHistory) {
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] /= 2;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes a move the head of the principal variation of a ply, followed by
+     * the variation found one ply deeper.
+     * @param ply  the ply
+     * @param move the new best move
+     */
+    private void updatePv(int ply, int move)
+    {
+        int[] line = pvTable[ply];
+        line[0] = move;
+        int childLength = ply + 1 < MAX_PLY ? pvLength[ply + 1] : 0;
+        if (childLength > 0) {
+            System.arraycopy(pvTable[ply + 1], 0, line, 1, Math.min(childLength, MAX_PLY - 1));
+        }
+        pvLength[ply] = Math.min(childLength + 1, MAX_PLY);
+    }
+
+    /**
+     * Stops the search once the node or time limit is exceeded.
+     */
+    private void checkLimits()
+    {
+        if (nodes >= nodeLimit || System.nanoTime() >= deadline) {
+            stopped = true;
+        }
+    }
+
+    /**
+     * Converts a score to be stored in the table: mate scores are made
+     * relative to the stored position rather than to the root.
+     * @param score the score relative to the root
+     * @param ply   the ply of the position
+     * @return the score to store
+     */
+    private static int toTable(int score, int ply)
+    {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Converts a score read from the table back to be relative to the root.
+     * @param score the stored score
+     * @param ply   the ply of the position
+     * @return the score relative to the root
+     */
+    private static int fromTable(int score, int ply)
+    {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.engine;
+
+import chess.MoveCode;
+
+/**
+ * The outcome of a search: the best move with its score, the principal
+ * variation, the depth completed and the number of nodes visited.
+ */
+public final class SearchResult
+{
+    /** The best move, encoded as in MoveCode, or 0 if there is no legal move. */
+    private final int bestMove;
+
+    /** The score of the best move from the side to move's point of view, in centipawns. */
+    private final int score;
+
+    /** The deepest iteration completed. */
+    private final int depth;
+
+    /** The number of nodes searched. */
+    private final long nodes;
+
+    /** The principal variation, starting with the best move. */
+    private final int[] pv;
+
+    /**
+     * Creates a search result.
+     * @param bestMove the best move, or 0
+     * @param score    the score in centipawns
+     * @param depth    the deepest iteration completed
+     * @param nodes    the number of nodes searched
+     * @param pv       the principal variation
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, int[] pv)
+    {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.pv = pv;
+    }
+
+    /**
+     * Returns the best move.
+     * @return the move encoded as in MoveCode, or 0 if there is no legal move
+     */
+    public int getBestMove()
+    {
+        return bestMove;
+    }
+
+    /**
+     * Returns the score of the best move.
+     * @return the score in centipawns from the side to move's point of view
+     */
+    public int getScore()
+    {
+        return score;
+    }
+
+    /**
+     * Returns the deepest iteration completed.
+     * @return the depth in plies
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Returns the number of nodes searched.
+     * @return the node count
+     */
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    /**
+     * Returns the principal variation.
+     * @return the moves encoded as in MoveCode, starting with the best move
+     */
+    public int[] getPv()
+    {
+        return pv.clone();
+    }
+
+    /**
+     * Checks whether the score announces a forced mate.
+     * @return true if the score is a mate score
+     */
+    public boolean isMate()
+    {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * Formats the result, e.g. "depth 6 score 35 nodes 81234 pv e2e4 e7e5".
+     * @return the result text
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder text = new StringBuilder();
+        text.append("depth ").append(depth).append(" score ").append(score).append(" nodes ").append(nodes)
+                .append(" pv");
+        for (int move : pv) {
+            text.append(' ').append(MoveCode.toString(move));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results keyed by Gameboard.hashKey().
+ * Each entry stores the depth, bound type, score and best move of a
+ * searched position in one long, next to a second long holding the key
+ * XORed with that data. The whole table is a single long array shared by
+ * all search threads without locks: a reader accepts an entry only if
+ * the two words still XOR back to its key, so an entry torn by a
+ * concurrent write is seen as a miss rather than as wrong data.
+ */
+public final class TranspositionTable
+{
+    /**
+     * Decides whether a new result may overwrite the entry in its slot.
+     */
+    public enum ReplacementPolicy
+    {
+        /** Always overwrite the slot with the newest result. */
+        ALWAYS,
+
+        /**
+         * Overwrite results of the same position or of an earlier search, and
+         * otherwise only keep the result searched to the greater depth.
+         */
+        DEPTH_PREFERRED
+    }
+
+    /** Bound type of a score that is exact. */
+    public static final int EXACT = 1;
+
+    /** Bound type of a score that is a lower bound (the search failed high). */
+    public static final int LOWER = 2;
+
+    /** Bound type of a score that is an upper bound (the search failed low). */
+    public static final int UPPER = 3;
+
+    /** The number of bytes taken by one entry. */
+    private static final int ENTRY_BYTES = 16;
+
+    /** Two longs per entry: the key XOR the data, then the data. */
+    private final long[] table;
+
+    /** The mask that turns a key into an entry index. */
+    private final int mask;
+
+    /** The replacement policy of the table. */
+    private final ReplacementPolicy policy;
+
+    /** The generation of the current search, stored in each entry to age old results. */
+    private volatile int generation;
+
+    /**
+     * Creates a table using at most the given memory, with depth-preferred replacement.
+     * @param megabytes the memory budget in megabytes, at least 1
+     * @throws IllegalArgumentException if megabytes is less than 1
+     */
+    public TranspositionTable(int megabytes)
+    {
+        this(megabytes, ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    /**
+     * Creates a table using at most the given memory. The number of entries
+     * is the largest power of two that fits.
+     * @param megabytes the memory budget in megabytes, at least 1
+     * @param policy    the replacement policy
+     * @throws IllegalArgumentException if megabytes is less than 1
+     */
+    public TranspositionTable(int megabytes, ReplacementPolicy policy)
+    {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("the table needs at least 1 megabyte: " + megabytes);
+        }
+        long entries = Long.highestOneBit(((long) megabytes << 20) / ENTRY_BYTES);
+        entries = Math.min(entries, 1L << 29);
+        this.table = new long[(int) entries * 2];
+        this.mask = (int) entries - 1;
+        this.policy = policy;
+    }
+
+    /**
+     * Looks up a position.
+     * @param key the hash key of the position
+     * @return the entry data, or 0 if the position is not in the table
+     */
+    public long probe(long key)
+    {
+        int index = ((int) key & mask) << 1;
+        long data = table[index + 1];
+        return (table[index] ^ data) == key ? data : 0L;
+    }
+
+    /**
+     * Stores a search result, subject to the replacement policy.
+     * @param key   the hash key of the position
+     * @param depth the depth searched, 0 to 255
+     * @param bound EXACT, LOWER or UPPER
+     * @param score the score, within the range of a short
+     * @param move  the best move found, encoded as in MoveCode, or 0
+     */
+    public void store(long key, int depth, int bound, int score, int move)
+    {
+        int index = ((int) key & mask) << 1;
+        int gen = generation;
+        long oldData = table[index + 1];
+        long oldKey = table[index] ^ oldData;
+        if (policy == ReplacementPolicy.DEPTH_PREFERRED && oldData != 0 && oldKey != key
+                && generation(oldData) == gen && depth(oldData) > depth) {
+            return;
+        }
+        if (move == 0 && oldKey == key) {
+            // keep the best move of an earlier search of the same position
+            move = move(oldData);
+        }
+        long data = (move & 0x7FFFFL)
+                | (long) bound << 19
+                | (long) Math.min(depth, 255) << 21
+                | (long) (gen & 0xFF) << 29
+                | (long) (score & 0xFFFF) << 48;
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+
+    /**
+     * Starts a new search, so results of earlier searches are replaced first.
+     */
+    public void newSearch()
+    {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear()
+    {
+        Arrays.fill(table, 0L);
+    }
+
+    /**
+     * Returns the number of entries of the table.
+     * @return the capacity in entries
+     */
+    public int capacity()
+    {
+        return mask + 1;
+    }
+
+    /**
+     * Estimates how full the table is from its first thousand entries.
+     * @return the share of entries written by the current search, in permille
+     */
+    public int hashfull()
+    {
+        int sample = Math.min(1000, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = table[i * 2 + 1];
+            if (data != 0 && generation(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    /**
+     * Returns the best move of an entry.
+     * @param data the entry data returned by probe
+     * @return the move encoded as in MoveCode, or 0 if none was stored
+     */
+    public static int move(long data)
+    {
+        return (int) (data & 0x7FFFF);
+    }
+
+    /**
+     * Returns the bound type of an entry.
+     * @param data the entry data returned by probe
+     * @return EXACT, LOWER or UPPER
+     */
+    public static int bound(long data)
+    {
+        return (int) (data >>> 19) & 0x3;
+    }
+
+    /**
+     * Returns the depth of an entry.
+     * @param data the entry data returned by probe
+     * @return the depth searched
+     */
+    public static int depth(long data)
+    {
+        return (int) (data >>> 21) & 0xFF;
+    }
+
+    /**
+     * Returns the score of an entry.
+     * @param data the entry data returned by probe
+     * @return the score stored
+     */
+    public static int score(long data)
+    {
+        return (short) (data >>> 48);
+    }
+
+    /**
+     * Returns the search generation of an entry.
+     * @param data the entry data
+     * @return the generation, 0 to 255
+     */
+    private static int generation(long data)
+    {
+        return (int) (data >>> 29) & 0xFF;
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.enums;
+
+/**
+ * The PieceType enum represents the six kinds of chess pieces.
+ * The declaration order is used to index the bitboards on the game board.
+ */
+public enum PieceType
+{
+    PAWN,
+    KNIGHT,
+    BISHOP,
+    ROOK,
+    QUEEN,
+    KING;
+
+    /**
+     * The number of piece types.
+     */
+    public static final int COUNT = 6;
+}
@@ -0,0 +1,336 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import chess.Gameboard;
+import chess.MoveGenerator;
+import chess.io.pgn.PgnGame;
+
+/**
+ * A read-only archive of games in the binary format written by
+ * GameArchiveWriter, mapped into memory so any game is reached through
+ * the offset index without reading the games before it.
+ * <p>
+ * The file starts with a 32-byte header: the magic number "CHGA", the
+ * format version, the number of games and the offset of the index, all
+ * big-endian. Each game record holds its result code, tag count and move
+ * count, its tags as length-prefixed UTF-8 strings, and one byte per move:
+ * the rank of the move among the legal moves of the position, ordered by
+ * MoveCode value, which never exceeds 217. The index at the end holds the
+ * offset of each record. Files are mapped in segments of 1 GiB, and no
+ * record crosses a segment boundary, so archives can hold any number of
+ * games.
+ * <p>
+ * Moves are relative to the position they are played in, so reaching a
+ * ply replays the game from its start; a game of a few hundred plies is
+ * decoded in microseconds. Reads do not change any state, so one archive
+ * can be shared between threads.
+ */
+public final class GameArchive implements Closeable
+{
+    /** The first four bytes of an archive, "CHGA". */
+    static final int MAGIC = 0x43484741;
+
+    /** The version of the format. */
+    static final int VERSION = 1;
+
+    /** The size of the header, in bytes. */
+    static final int HEADER_SIZE = 32;
+
+    /** The base 2 logarithm of the size of a mapped segment. */
+    static final int SEGMENT_BITS = 30;
+
+    /** The results indexed by their code in a game record. */
+    static final String[] RESULTS = {"*", "1-0", "0-1", "1/2-1/2"};
+
+    /** The open file. */
+    private final FileChannel channel;
+
+    /** The mapped segments of the file. */
+    private final MappedByteBuffer[] segments;
+
+    /** The number of games in the archive. */
+    private final long gameCount;
+
+    /** The offset of the index of game records. */
+    private final long indexOffset;
+
+    /**
+     * Maps an archive file.
+     * @param channel the file, open for reading
+     * @throws IOException if the file cannot be mapped or is not an archive
+     */
+    private GameArchive(FileChannel channel) throws IOException
+    {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            throw new IOException("not a game archive");
+        }
+        int count = (int) ((size - 1 >>> SEGMENT_BITS) + 1);
+        segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = (long) i << SEGMENT_BITS;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, 1L << SEGMENT_BITS));
+        }
+        ByteBuffer header = segments[0];
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("not a game archive");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("unsupported game archive version " + header.getInt(4));
+        }
+        gameCount = header.getLong(8);
+        indexOffset = header.getLong(16);
+        if (gameCount < 0 || indexOffset < HEADER_SIZE || indexOffset + gameCount * 8 > size) {
+            throw new IOException("corrupt game archive header");
+        }
+    }
+
+    /**
+     * Opens an archive file for reading.
+     * @param path the archive file
+     * @return the archive
+     * @throws IOException if the file cannot be read or is not an archive
+     */
+    public static GameArchive open(Path path) throws IOException
+    {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new GameArchive(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of games in the archive.
+     * @return the game count
+     */
+    public long getGameCount()
+    {
+        return gameCount;
+    }
+
+    /**
+     * Returns the number of moves of a game.
+     * @param game the game number, from 0
+     * @return the number of plies of the game
+     */
+    public int getMoveCount(long game)
+    {
+        long offset = recordOffset(game);
+        return getShort(offset + 2);
+    }
+
+    /**
+     * Returns the result of a game.
+     * @param game the game number, from 0
+     * @return "1-0", "0-1", "1/2-1/2" or "*"
+     */
+    public String getResult(long game)
+    {
+        return RESULTS[getByte(recordOffset(game)) & 3];
+    }
+
+    /**
+     * Returns the tags of a game.
+     * @param game the game number, from 0
+     * @return the tags, in the order they were written
+     */
+    public Map<String, String> getTags(long game)
+    {
+        long offset = recordOffset(game);
+        int tagCount = getByte(offset + 1);
+        Map<String, String> tags = new LinkedHashMap<>();
+        offset += 4;
+        for (int i = 0; i < tagCount; i++) {
+            String name = getString(offset);
+            offset += 2 + getShort(offset);
+            tags.put(name, getString(offset));
+            offset += 2 + getShort(offset);
+        }
+        return tags;
+    }
+
+    /**
+     * Decodes a whole game.
+     * @param game the game number, from 0
+     * @return the game with its tags, moves and result
+     */
+    public PgnGame getGame(long game)
+    {
+        PgnGame pgn = new PgnGame();
+        getTags(game).forEach(pgn::setTag);
+        pgn.setResult(getResult(game));
+        Gameboard board = pgn.createBoard();
+        int moveCount = getMoveCount(game);
+        long moves = movesOffset(game);
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < moveCount; ply++) {
+            int move = decode(board, getByte(moves + ply), buffer);
+            board.makeMove(move);
+            pgn.addMove(move);
+        }
+        return pgn;
+    }
+
+    /**
+     * Replays a game up to a ply.
+     * @param game the game number, from 0
+     * @param ply  the number of moves to play, from 0 to getMoveCount(game)
+     * @return a new game board holding the position after that many moves
+     */
+    public Gameboard replay(long game, int ply)
+    {
+        int moveCount = getMoveCount(game);
+        if (ply < 0 || ply > moveCount) {
+            throw new IllegalArgumentException("ply out of range: " + ply);
+        }
+        String fen = getTags(game).get("FEN");
+        Gameboard board = fen == null ? new Gameboard() : Gameboard.fromFen(fen);
+        long moves = movesOffset(game);
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        for (int i = 0; i < ply; i++) {
+            board.makeMove(decode(board, getByte(moves + i), buffer));
+        }
+        return board;
+    }
+
+    /**
+     * Returns the move of the current player with a given rank among the
+     * legal moves ordered by MoveCode value.
+     * @param board  the game board
+     * @param rank   the rank of the move, from 0
+     * @param buffer a buffer for the legal moves
+     * @return the encoded move
+     */
+    static int decode(Gameboard board, int rank, int[] buffer)
+    {
+        int count = MoveGenerator.generateLegalMoves(board, buffer);
+        if (rank >= count) {
+            throw new IllegalStateException("corrupt game archive: move " + rank + " of " + count);
+        }
+        Arrays.sort(buffer, 0, count);
+        return buffer[rank];
+    }
+
+    /**
+     * Returns the rank of a legal move of the current player among the
+     * legal moves ordered by MoveCode value.
+     * @param board  the game board
+     * @param move   the encoded move
+     * @param buffer a buffer for the legal moves
+     * @return the rank of the move, from 0
+     * @throws IllegalArgumentException if the move is not legal
+     */
+    static int encode(Gameboard board, int move, int[] buffer)
+    {
+        int count = MoveGenerator.generateLegalMoves(board, buffer);
+        int rank = 0;
+        boolean found = false;
+        for (int i = 0; i < count; i++) {
+            if (buffer[i] < move) {
+                rank++;
+            } else if (buffer[i] == move) {
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new IllegalArgumentException("illegal move in game");
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the offset of a game record.
+     * @param game the game number, from 0
+     * @return the offset of the record in the file
+     */
+    private long recordOffset(long game)
+    {
+        if (game < 0 || game >= gameCount) {
+            throw new IllegalArgumentException("game out of range: " + game);
+        }
+        long offset = indexOffset + game * 8;
+        return segments[(int) (offset >>> SEGMENT_BITS)].getLong((int) (offset & (1L << SEGMENT_BITS) - 1));
+    }
+
+    /**
+     * Returns the offset of the moves of a game record, after its tags.
+     * @param game the game number, from 0
+     * @return the offset of the first move in the file
+     */
+    private long movesOffset(long game)
+    {
+        long offset = recordOffset(game);
+        int tagCount = getByte(offset + 1);
+        offset += 4;
+        for (int i = 0; i < 2 * tagCount; i++) {
+            offset += 2 + getShort(offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Reads an unsigned byte of the file.
+     * @param offset the offset in the file
+     * @return the byte from 0 to 255
+     */
+    private int getByte(long offset)
+    {
+        return segments[(int) (offset >>> SEGMENT_BITS)].get((int) (offset & (1L << SEGMENT_BITS) - 1)) & 0xFF;
+    }
+
+    /**
+     * Reads an unsigned big-endian 16-bit value of the file.
+     * @param offset the offset in the file
+     * @return the value from 0 to 65535
+     */
+    private int getShort(long offset)
+    {
+        return getByte(offset) << 8 | getByte(offset + 1);
+    }
+
+    /**
+     * Reads a UTF-8 string prefixed by its 16-bit length in bytes.
+     * @param offset the offset of the length in the file
+     * @return the string
+     */
+    private String getString(long offset)
+    {
+        int length = getShort(offset);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) getByte(offset + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Closes the file. The mapped segments are released when they are
+     * garbage collected.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+}
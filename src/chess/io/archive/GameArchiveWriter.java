@@ -0,0 +1,240 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import chess.Gameboard;
+import chess.MoveGenerator;
+import chess.io.pgn.PgnGame;
+
+/**
+ * Writes games into the binary archive format read by GameArchive. Each
+ * game is replayed on a board to turn its moves into legal-move ranks.
+ * Games are streamed to the file as they are added, and the offsets of
+ * the index go to a temporary file next to the archive until close, so
+ * memory use does not grow with the number of games.
+ */
+public final class GameArchiveWriter implements Closeable
+{
+    /** The size of the output buffers, in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The archive file. */
+    private final FileChannel channel;
+
+    /** The temporary file holding the index until close, deleted when closed. */
+    private final FileChannel index;
+
+    /** The bytes not yet written to the archive file. */
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** The bytes not yet written to the temporary index file. */
+    private final ByteBuffer indexBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** The game record being encoded. */
+    private ByteBuffer record = ByteBuffer.allocate(1024);
+
+    /** The buffer for the legal moves of the boards games are replayed on. */
+    private final int[] moveBuffer = new int[MoveGenerator.MAX_MOVES];
+
+    /** The offset in the file of the next byte added to buffer. */
+    private long position = GameArchive.HEADER_SIZE;
+
+    /** The number of games added. */
+    private long gameCount;
+
+    /**
+     * Creates an archive file, replacing any file at that path.
+     * @param path the archive file
+     * @throws IOException if the file cannot be created
+     */
+    public GameArchiveWriter(Path path) throws IOException
+    {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING);
+        Path directory = path.toAbsolutePath().getParent();
+        Path indexPath = Files.createTempFile(directory, path.getFileName().toString(), ".index");
+        index = FileChannel.open(indexPath, StandardOpenOption.WRITE, StandardOpenOption.READ,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        buffer.position(GameArchive.HEADER_SIZE);
+    }
+
+    /**
+     * Adds a game to the archive. Tags whose name or value is longer than
+     * 65535 bytes in UTF-8 cannot be stored.
+     * @param game the game to add
+     * @return the number of the game in the archive
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the game has more than 255 tags, a
+     *         tag too long, more than 65535 moves or an illegal move
+     */
+    public long add(PgnGame game) throws IOException
+    {
+        Map<String, String> tags = game.getTags();
+        if (tags.size() > 255) {
+            throw new IllegalArgumentException("too many tags: " + tags.size());
+        }
+        if (game.getMoveCount() > 0xFFFF) {
+            throw new IllegalArgumentException("too many moves: " + game.getMoveCount());
+        }
+        record.clear();
+        ensureRecordCapacity(4);
+        record.put((byte) resultCode(game.getResult()));
+        record.put((byte) tags.size());
+        record.putShort((short) game.getMoveCount());
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            putString(tag.getKey());
+            putString(tag.getValue());
+        }
+        Gameboard board = game.createBoard();
+        ensureRecordCapacity(game.getMoveCount());
+        for (int ply = 0; ply < game.getMoveCount(); ply++) {
+            int move = game.getMove(ply);
+            record.put((byte) GameArchive.encode(board, move, moveBuffer));
+            board.makeMove(move);
+        }
+        record.flip();
+        writeRecord();
+        return gameCount++;
+    }
+
+    /**
+     * Writes the encoded record, first moving to the next segment if it
+     * would cross a segment boundary, and adds its offset to the index.
+     * @throws IOException if the file cannot be written
+     */
+    private void writeRecord() throws IOException
+    {
+        int size = record.remaining();
+        if (position >>> GameArchive.SEGMENT_BITS != position + size - 1 >>> GameArchive.SEGMENT_BITS) {
+            long next = (position >>> GameArchive.SEGMENT_BITS) + 1 << GameArchive.SEGMENT_BITS;
+            pad(next - position);
+        }
+        if (indexBuffer.remaining() < 8) {
+            flush(indexBuffer, index);
+        }
+        indexBuffer.putLong(position);
+        while (record.hasRemaining()) {
+            if (!buffer.hasRemaining()) {
+                flush(buffer, channel);
+            }
+            int n = Math.min(record.remaining(), buffer.remaining());
+            buffer.put(record.array(), record.position(), n);
+            record.position(record.position() + n);
+        }
+        position += size;
+    }
+
+    /**
+     * Adds zero bytes to the archive.
+     * @param count the number of bytes
+     * @throws IOException if the file cannot be written
+     */
+    private void pad(long count) throws IOException
+    {
+        for (long i = 0; i < count; i++) {
+            if (!buffer.hasRemaining()) {
+                flush(buffer, channel);
+            }
+            buffer.put((byte) 0);
+        }
+        position += count;
+    }
+
+    /**
+     * Adds a string to the record, in UTF-8 after its 16-bit length.
+     * @param text the string
+     */
+    private void putString(String text)
+    {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("tag too long");
+        }
+        ensureRecordCapacity(2 + bytes.length);
+        record.putShort((short) bytes.length);
+        record.put(bytes);
+    }
+
+    /**
+     * Makes room in the record buffer.
+     * @param bytes the number of bytes about to be added
+     */
+    private void ensureRecordCapacity(int bytes)
+    {
+        if (record.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes));
+            record.flip();
+            larger.put(record);
+            record = larger;
+        }
+    }
+
+    /**
+     * Returns the code of a result in a game record.
+     * @param result the game termination marker
+     * @return the index of the result in GameArchive.RESULTS
+     */
+    private static int resultCode(String result)
+    {
+        for (int i = 0; i < GameArchive.RESULTS.length; i++) {
+            if (GameArchive.RESULTS[i].equals(result)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the bytes of a buffer to a file and empties the buffer.
+     * @param bytes the buffer
+     * @param file  the file
+     * @throws IOException if the file cannot be written
+     */
+    private static void flush(ByteBuffer bytes, FileChannel file) throws IOException
+    {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            file.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Appends the index and writes the header, then closes the file. The
+     * archive cannot be read before it is closed.
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try (index) {
+            pad(-position & 7);
+            flush(buffer, channel);
+            flush(indexBuffer, index);
+            long indexOffset = position;
+            long length = index.size();
+            for (long done = 0; done < length; ) {
+                done += index.transferTo(done, length - done, channel);
+            }
+            ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_SIZE);
+            header.putInt(GameArchive.MAGIC).putInt(GameArchive.VERSION).putLong(gameCount).putLong(indexOffset);
+            header.clear();
+            channel.write(header, 0);
+        } finally {
+            channel.close();
+        }
+    }
+}
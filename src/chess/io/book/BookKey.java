@@ -0,0 +1,202 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.book;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import chess.Gameboard;
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.utils.Attacks;
+import chess.utils.Square;
+
+/**
+ * Computes the position keys of opening books. A key is the XOR of
+ * entries of a table of 781 random numbers, laid out as in Polyglot
+ * books: one per piece kind and square, where kinds run black pawn, white
+ * pawn, black knight and so on up to white king and squares run a1, b1,
+ * ... h8; then one per castling right (white kingside, white queenside,
+ * black kingside, black queenside), one per en passant file, counted only
+ * when a pawn of the player to move can actually capture en passant, and
+ * one when white is to move.
+ * <p>
+ * polyglot() gives the keys of Polyglot books, from the Random64 table of
+ * the Polyglot sources shipped as the resource polyglot-random64.bin next
+ * to this class. Other tables are read with read(Path) from a file of 781
+ * big-endian 64-bit values, or generated from a seed, which gives keys
+ * only books built here with the same seed share.
+ */
+public final class BookKey
+{
+    /** The number of random values in a table. */
+    public static final int RANDOM_COUNT = 781;
+
+    /** The index of the first castling value. */
+    private static final int CASTLING_OFFSET = 768;
+
+    /** The index of the first en passant file value. */
+    private static final int EN_PASSANT_OFFSET = 772;
+
+    /** The index of the value used when white is to move. */
+    private static final int TURN_OFFSET = 780;
+
+    /** The castling rights in the order of their values, as Gameboard bits. */
+    private static final int[] CASTLING_RIGHTS = {
+        Gameboard.WHITE_KINGSIDE, Gameboard.WHITE_QUEENSIDE, Gameboard.BLACK_KINGSIDE, Gameboard.BLACK_QUEENSIDE
+    };
+
+    /** The resource, next to this class, holding the Random64 table of the Polyglot sources. */
+    static final String POLYGLOT_RESOURCE = "polyglot-random64.bin";
+
+    /** The random values. */
+    private final long[] random;
+
+    /**
+     * Holds the keys of Polyglot books, so their table is read only when first used.
+     */
+    private static final class Polyglot
+    {
+        /** The keys of Polyglot books, or null if the resource of their table is missing. */
+        static final BookKey KEYS = readResource(POLYGLOT_RESOURCE);
+    }
+
+    /**
+     * Creates the key function of a table of random values.
+     * @param random the 781 random values, copied
+     */
+    public BookKey(long[] random)
+    {
+        if (random.length != RANDOM_COUNT) {
+            throw new IllegalArgumentException("a key table has " + RANDOM_COUNT + " values, not "
+                    + random.length);
+        }
+        this.random = random.clone();
+    }
+
+    /**
+     * Returns the key function of Polyglot books, whose table is the
+     * Random64 table of the Polyglot sources. Its key of the initial
+     * position is 0x463b96181691fc9c.
+     * @return the key function of Polyglot books
+     * @throws IllegalStateException if the resource holding the table is
+     *         missing from the class path
+     */
+    public static BookKey polyglot()
+    {
+        if (Polyglot.KEYS == null) {
+            throw new IllegalStateException("the Polyglot table " + POLYGLOT_RESOURCE
+                    + " is missing from the class path next to " + BookKey.class.getName());
+        }
+        return Polyglot.KEYS;
+    }
+
+    /**
+     * Reads a table of random values from a resource next to this class.
+     * @param name the name of the resource
+     * @return the key function of the table, or null if there is no such resource
+     * @throws UncheckedIOException if the resource cannot be read or is too short
+     */
+    private static BookKey readResource(String name)
+    {
+        try (InputStream in = BookKey.class.getResourceAsStream(name)) {
+            return in == null ? null : read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read the key table " + name, e);
+        }
+    }
+
+    /**
+     * Reads a table of random values from a file of 781 big-endian 64-bit values.
+     * @param path the file
+     * @return the key function of the table
+     * @throws IOException if the file cannot be read or is too short
+     */
+    public static BookKey read(Path path) throws IOException
+    {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads a table of random values as 781 big-endian 64-bit values.
+     * @param in the stream holding the table
+     * @return the key function of the table
+     * @throws IOException if the stream cannot be read or is too short
+     */
+    public static BookKey read(InputStream in) throws IOException
+    {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        long[] random = new long[RANDOM_COUNT];
+        for (int i = 0; i < RANDOM_COUNT; i++) {
+            random[i] = data.readLong();
+        }
+        return new BookKey(random);
+    }
+
+    /**
+     * Generates a table of random values from a seed with the splitmix64
+     * generator. Books keyed with it can only be read with the same seed.
+     * @param seed the seed
+     * @return the key function of the table
+     */
+    public static BookKey generated(long seed)
+    {
+        long[] random = new long[RANDOM_COUNT];
+        long state = seed;
+        for (int i = 0; i < RANDOM_COUNT; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            random[i] = z ^ (z >>> 31);
+        }
+        return new BookKey(random);
+    }
+
+    /**
+     * Computes the key of the position on a board.
+     * @param board the game board
+     * @return the key
+     */
+    public long hash(Gameboard board)
+    {
+        long key = 0;
+        for (Color color : Color.values()) {
+            int side = color == Color.WHITE ? 1 : 0;
+            for (PieceType type : PieceType.values()) {
+                int kind = 2 * type.ordinal() + side;
+                for (long pieces = board.getBitboard(color, type); pieces != 0; pieces &= pieces - 1) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    key ^= random[64 * kind + 8 * (7 - Square.row(square)) + Square.col(square)];
+                }
+            }
+        }
+        int rights = board.getCastlingRights();
+        for (int i = 0; i < CASTLING_RIGHTS.length; i++) {
+            if ((rights & CASTLING_RIGHTS[i]) != 0) {
+                key ^= random[CASTLING_OFFSET + i];
+            }
+        }
+        Color us = board.getCurrentPlayer();
+        int enPassant = board.getEnPassantSquare();
+        // a pawn of the player to move captures en passant from where an enemy pawn on the square would attack
+        if (enPassant >= 0 && (Attacks.pawn(us.opposite().ordinal(), enPassant)
+                & board.getBitboard(us, PieceType.PAWN)) != 0) {
+            key ^= random[EN_PASSANT_OFFSET + Square.col(enPassant)];
+        }
+        if (us == Color.WHITE) {
+            key ^= random[TURN_OFFSET];
+        }
+        return key;
+    }
+}
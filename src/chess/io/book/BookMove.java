@@ -0,0 +1,61 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.book;
+
+/**
+ * A move an opening book gives for a position, with its weight.
+ */
+public final class BookMove
+{
+    /** The move, encoded as in MoveCode. */
+    private final int move;
+
+    /** The weight of the move; moves are chosen in proportion to it. */
+    private final int weight;
+
+    /** The learning data stored with the move. */
+    private final int learn;
+
+    /**
+     * Creates a book move.
+     * @param move   the move, encoded as in MoveCode
+     * @param weight the weight, from 0 to 65535
+     * @param learn  the learning data
+     */
+    public BookMove(int move, int weight, int learn)
+    {
+        this.move = move;
+        this.weight = weight;
+        this.learn = learn;
+    }
+
+    /**
+     * Returns the move.
+     * @return the move encoded as in MoveCode
+     */
+    public int getMove()
+    {
+        return move;
+    }
+
+    /**
+     * Returns the weight of the move.
+     * @return the weight, from 0 to 65535
+     */
+    public int getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Returns the learning data stored with the move.
+     * @return the learning data, usually 0
+     */
+    public int getLearn()
+    {
+        return learn;
+    }
+}
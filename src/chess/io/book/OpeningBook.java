@@ -0,0 +1,271 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import chess.Gameboard;
+import chess.MoveCode;
+import chess.MoveGenerator;
+import chess.Piece;
+import chess.enums.PieceType;
+import chess.utils.Square;
+
+/**
+ * An opening book in the file format of Polyglot books, mapped into memory
+ * and searched in place. A book must be opened with the key function it
+ * was built with; a book of another Polyglot tool is opened with
+ * open(Path), which uses the Polyglot keys of BookKey.polyglot().
+ * <p>
+ * A book is a sequence of 16-byte big-endian entries sorted by position
+ * key as an unsigned number: the key, the move, the weight and 32 bits of
+ * learning data. A move packs the ending file and rank (bits 0-5, rank 0
+ * being rank 1), the starting file and rank (bits 6-11) and the promotion
+ * piece (bits 12-14: knight 1, bishop 2, rook 3, queen 4). Castling is
+ * written as the king taking its own rook, e.g. e1h1. Book moves are
+ * matched against the legal moves of the board, so a key collision never
+ * yields an illegal move.
+ * <p>
+ * Reads do not change any state, so one book can be shared between threads.
+ */
+public final class OpeningBook implements Closeable
+{
+    /** The size of an entry, in bytes. */
+    static final int ENTRY_SIZE = 16;
+
+    /** The open file. */
+    private final FileChannel channel;
+
+    /** The mapped entries. */
+    private final MappedByteBuffer entries;
+
+    /** The number of entries. */
+    private final int entryCount;
+
+    /** The key function the book was built with. */
+    private final BookKey keys;
+
+    /**
+     * Maps a book file.
+     * @param channel the file, open for reading
+     * @param keys    the key function the book was built with
+     * @throws IOException if the file cannot be mapped or is not a book
+     */
+    private OpeningBook(FileChannel channel, BookKey keys) throws IOException
+    {
+        this.channel = channel;
+        this.keys = keys;
+        long size = channel.size();
+        if (size % ENTRY_SIZE != 0) {
+            throw new IOException("not an opening book: size " + size + " is not a multiple of " + ENTRY_SIZE);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("opening book too large: " + size + " bytes");
+        }
+        entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        entryCount = (int) (size / ENTRY_SIZE);
+    }
+
+    /**
+     * Opens a Polyglot book file for reading, keyed with BookKey.polyglot().
+     * @param path the book file
+     * @return the book
+     * @throws IOException if the file cannot be read or is not a book
+     * @throws IllegalStateException if the Polyglot table is missing from the class path
+     */
+    public static OpeningBook open(Path path) throws IOException
+    {
+        return open(path, BookKey.polyglot());
+    }
+
+    /**
+     * Opens a book file for reading.
+     * @param path the book file
+     * @param keys the key function the book was built with
+     * @return the book
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(Path path, BookKey keys) throws IOException
+    {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new OpeningBook(channel, keys);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of entries of the book.
+     * @return the entry count
+     */
+    public int getEntryCount()
+    {
+        return entryCount;
+    }
+
+    /**
+     * Returns the book moves of the player to move, in book order, which
+     * is usually by decreasing weight.
+     * @param board the game board
+     * @return the legal book moves, possibly none
+     */
+    public List<BookMove> getMoves(Gameboard board)
+    {
+        long key = keys.hash(board);
+        List<BookMove> moves = new ArrayList<>();
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        for (int entry = lowerBound(key); entry < entryCount && getKey(entry) == key; entry++) {
+            int offset = entry * ENTRY_SIZE;
+            int move = toMove(board, entries.getShort(offset + 8) & 0xFFFF, buffer);
+            if (move != MoveCode.NONE) {
+                moves.add(new BookMove(move, entries.getShort(offset + 10) & 0xFFFF, entries.getInt(offset + 12)));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Picks a book move of the player to move at random, each with a
+     * probability in proportion to its weight.
+     * @param board  the game board
+     * @param random the source of randomness
+     * @return the move, or MoveCode.NONE if the book has no move with a weight for the position
+     */
+    public int pickMove(Gameboard board, Random random)
+    {
+        List<BookMove> moves = getMoves(board);
+        long total = 0;
+        for (BookMove move : moves) {
+            total += move.getWeight();
+        }
+        if (total == 0) {
+            return MoveCode.NONE;
+        }
+        long target = (long) (random.nextDouble() * total);
+        for (BookMove move : moves) {
+            target -= move.getWeight();
+            if (target < 0) {
+                return move.getMove();
+            }
+        }
+        return moves.get(moves.size() - 1).getMove();
+    }
+
+    /**
+     * Returns the book move of the player to move with the highest weight.
+     * @param board the game board
+     * @return the move, or MoveCode.NONE if the book has no move for the position
+     */
+    public int bestMove(Gameboard board)
+    {
+        int best = MoveCode.NONE;
+        int bestWeight = -1;
+        for (BookMove move : getMoves(board)) {
+            if (move.getWeight() > bestWeight) {
+                best = move.getMove();
+                bestWeight = move.getWeight();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the first entry of a key with a binary search.
+     * @param key the position key
+     * @return the first entry whose key is not below key, as unsigned numbers
+     */
+    private int lowerBound(long key)
+    {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(getKey(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the key of an entry.
+     * @param entry the entry number
+     * @return the position key
+     */
+    private long getKey(int entry)
+    {
+        return entries.getLong(entry * ENTRY_SIZE);
+    }
+
+    /**
+     * Turns a book move into the matching legal move of the player to move.
+     * @param board  the game board
+     * @param move   the move as stored in the book
+     * @param buffer a buffer for the legal moves
+     * @return the encoded move, or MoveCode.NONE if it is not legal
+     */
+    static int toMove(Gameboard board, int move, int[] buffer)
+    {
+        int to = Square.of(7 - (move >>> 3 & 7), move & 7);
+        int from = Square.of(7 - (move >>> 9 & 7), move >>> 6 & 7);
+        int promotion = move >>> 12 & 7;
+        Piece piece = board.getPieceAt(from);
+        Piece target = board.getPieceAt(to);
+        if (piece != null && piece.getType() == PieceType.KING && target != null
+                && target.getType() == PieceType.ROOK && target.getColor() == piece.getColor()) {
+            to = to > from ? from + 2 : from - 2;
+        }
+        int count = MoveGenerator.generateLegalMoves(board, buffer);
+        for (int i = 0; i < count; i++) {
+            int legal = buffer[i];
+            if (MoveCode.from(legal) == from && MoveCode.to(legal) == to
+                    && (MoveCode.isPromotion(legal) ? MoveCode.promotion(legal).ordinal() : 0) == promotion) {
+                return legal;
+            }
+        }
+        return MoveCode.NONE;
+    }
+
+    /**
+     * Turns a move into a move as stored in a book.
+     * @param move the encoded move
+     * @return the book move, with castling as the king taking its rook
+     */
+    static int fromMove(int move)
+    {
+        int from = MoveCode.from(move);
+        int to = MoveCode.to(move);
+        if (MoveCode.isCastle(move)) {
+            to = to > from ? from + 3 : from - 4;
+        }
+        int promotion = MoveCode.isPromotion(move) ? MoveCode.promotion(move).ordinal() : 0;
+        return promotion << 12 | (7 - Square.row(from)) << 9 | Square.col(from) << 6
+                | (7 - Square.row(to)) << 3 | Square.col(to);
+    }
+
+    /**
+     * Closes the file. The mapped entries are released when they are
+     * garbage collected.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.book;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import chess.Gameboard;
+import chess.enums.Color;
+import chess.io.pgn.PgnFormatException;
+import chess.io.pgn.PgnGame;
+import chess.io.pgn.PgnReader;
+
+/**
+ * Builds an opening book from a collection of games. Each move
+ * played in the first plies of a finished game scores 2 for a win of the
+ * side that played it and 1 for a draw; the weight of a book move is its
+ * total score, scaled down per position when it exceeds 16 bits. Moves
+ * that only lost are left out, as are unfinished games.
+ */
+public final class OpeningBookBuilder
+{
+    /** The default number of plies of each game that go into the book. */
+    public static final int DEFAULT_MAX_PLY = 24;
+
+    /** The largest weight a book entry can hold. */
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    /** The key function of the book. */
+    private final BookKey keys;
+
+    /** The score of each book move of each position key. */
+    private final Map<Long, Map<Integer, Long>> scores = new HashMap<>();
+
+    /** The number of plies of each game that go into the book. */
+    private int maxPly = DEFAULT_MAX_PLY;
+
+    /**
+     * Creates a builder.
+     * @param keys the key function of the book
+     */
+    public OpeningBookBuilder(BookKey keys)
+    {
+        this.keys = keys;
+    }
+
+    /**
+     * Sets how many plies of each game go into the book.
+     * @param maxPly the number of plies, at least 1
+     */
+    public void setMaxPly(int maxPly)
+    {
+        if (maxPly < 1) {
+            throw new IllegalArgumentException("invalid ply count: " + maxPly);
+        }
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Adds the opening moves of a game.
+     * @param game the game
+     */
+    public void addGame(PgnGame game)
+    {
+        String result = game.getResult();
+        if (result.equals("*")) {
+            return;
+        }
+        Gameboard board = game.createBoard();
+        int plies = Math.min(game.getMoveCount(), maxPly);
+        for (int ply = 0; ply < plies; ply++) {
+            int move = game.getMove(ply);
+            int score = result.equals("1/2-1/2") ? 1
+                    : result.equals(board.getCurrentPlayer() == Color.WHITE ? "1-0" : "0-1") ? 2 : 0;
+            if (score > 0) {
+                scores.computeIfAbsent(keys.hash(board), key -> new HashMap<>())
+                        .merge(OpeningBook.fromMove(move), (long) score, Long::sum);
+            }
+            board.makeMove(move);
+        }
+    }
+
+    /**
+     * Adds the opening moves of every game a reader reads. Games that
+     * cannot be read are skipped.
+     * @param reader the PGN reader
+     * @return the number of games read
+     * @throws IOException if the input cannot be read
+     */
+    public long addAll(PgnReader reader) throws IOException
+    {
+        long count = 0;
+        while (true) {
+            PgnGame game;
+            try {
+                game = reader.next();
+            } catch (PgnFormatException e) {
+                continue;
+            }
+            if (game == null) {
+                return count;
+            }
+            addGame(game);
+            count++;
+        }
+    }
+
+    /**
+     * Writes the book, sorted by key as an unsigned number and then by
+     * decreasing weight.
+     * @param path the book file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException
+    {
+        // flipping the sign bit makes signed order match unsigned order
+        long[] sorted = new long[scores.size()];
+        int n = 0;
+        for (long key : scores.keySet()) {
+            sorted[n++] = key ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(sorted);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (long flipped : sorted) {
+                long key = flipped ^ Long.MIN_VALUE;
+                List<Map.Entry<Integer, Long>> moves = new ArrayList<>(scores.get(key).entrySet());
+                moves.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+                long highest = moves.get(0).getValue();
+                for (Map.Entry<Integer, Long> move : moves) {
+                    long weight = highest <= MAX_WEIGHT ? move.getValue()
+                            : Math.max(1, move.getValue() * MAX_WEIGHT / highest);
+                    out.writeLong(key);
+                    out.writeShort(move.getKey());
+                    out.writeShort((int) weight);
+                    out.writeInt(0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a book from a PGN file. The arguments are the PGN file, the
+     * book file and optionally the key table: either the file of a table or
+     * "--seed" and a number for a generated table. Without one, the book is
+     * keyed with the Polyglot table, so other Polyglot tools can read it.
+     * @param args the command line arguments
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2 && args.length != 3 && !(args.length == 4 && args[2].equals("--seed"))) {
+            System.err.println("usage: OpeningBookBuilder games.pgn book.bin [random64.bin | --seed n]");
+            return;
+        }
+        BookKey keys = args.length == 2 ? BookKey.polyglot()
+                : args.length == 4 ? BookKey.generated(Long.parseLong(args[3])) : BookKey.read(Paths.get(args[2]));
+        OpeningBookBuilder builder = new OpeningBookBuilder(keys);
+        long games;
+        try (InputStream in = Files.newInputStream(Paths.get(args[0])); PgnReader reader = new PgnReader(in)) {
+            games = builder.addAll(reader);
+        }
+        builder.write(Paths.get(args[1]));
+        System.out.println(games + " games, " + builder.scores.size() + " positions");
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.index;
+
+/**
+ * How often a move was played from a position in the indexed games, and
+ * how those games ended.
+ */
+public final class MoveStatistics
+{
+    /** The move, encoded as in MoveCode. */
+    private final int move;
+
+    /** The number of times the move was played. */
+    private final long games;
+
+    /** The number of those games white won. */
+    private final long whiteWins;
+
+    /** The number of those games drawn. */
+    private final long draws;
+
+    /** The number of those games black won. */
+    private final long blackWins;
+
+    /**
+     * Creates the statistics of a move.
+     * @param move      the move, encoded as in MoveCode
+     * @param games     the number of times the move was played
+     * @param whiteWins the number of those games white won
+     * @param draws     the number of those games drawn
+     * @param blackWins the number of those games black won
+     */
+    public MoveStatistics(int move, long games, long whiteWins, long draws, long blackWins)
+    {
+        this.move = move;
+        this.games = games;
+        this.whiteWins = whiteWins;
+        this.draws = draws;
+        this.blackWins = blackWins;
+    }
+
+    /**
+     * Returns the move.
+     * @return the move encoded as in MoveCode
+     */
+    public int getMove()
+    {
+        return move;
+    }
+
+    /**
+     * Returns the number of times the move was played.
+     * @return the game count, including unfinished games
+     */
+    public long getGames()
+    {
+        return games;
+    }
+
+    /**
+     * Returns the number of games white won after the move.
+     * @return the count of "1-0" results
+     */
+    public long getWhiteWins()
+    {
+        return whiteWins;
+    }
+
+    /**
+     * Returns the number of games drawn after the move.
+     * @return the count of "1/2-1/2" results
+     */
+    public long getDraws()
+    {
+        return draws;
+    }
+
+    /**
+     * Returns the number of games black won after the move.
+     * @return the count of "0-1" results
+     */
+    public long getBlackWins()
+    {
+        return blackWins;
+    }
+}
@@ -0,0 +1,356 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import chess.Gameboard;
+import chess.MoveCode;
+
+/**
+ * A read-only index from positions to the games that reached them, built
+ * by PositionIndexBuilder and mapped into memory, so a lookup is a binary
+ * search over the file without loading it.
+ * <p>
+ * The file starts with a 32-byte header: the magic number "CHPI", the
+ * format version and the number of entries, big-endian. Then come the
+ * entries, 16 bytes each, sorted by Zobrist key and then by value as an
+ * unsigned number: the key of a position as Gameboard.hashKey computes
+ * it, and a value holding the game number (30 bits), the game result (2
+ * bits), the ply at which the position was reached (13 bits) and the move
+ * played from it (19 bits, MoveCode.NONE when the game ended there).
+ * Files are mapped in segments of 1 GiB, which entries never cross.
+ * <p>
+ * The key counts the en passant file only when a capture en passant is
+ * possible, so a position reached by different move orders has one key
+ * and a lookup finds every game that transposed into it.
+ * <p>
+ * Reads do not change any state, so one index can be shared between threads.
+ */
+public final class PositionIndex implements Closeable
+{
+    /** The first four bytes of an index, "CHPI". */
+    static final int MAGIC = 0x43485049;
+
+    /** The version of the format. */
+    static final int VERSION = 1;
+
+    /** The size of the header, in bytes. */
+    static final int HEADER_SIZE = 32;
+
+    /** The size of an entry, in bytes. */
+    static final int ENTRY_SIZE = 16;
+
+    /** The base 2 logarithm of the size of a mapped segment. */
+    static final int SEGMENT_BITS = 30;
+
+    /** The highest game number an entry can hold. */
+    static final long MAX_GAME = (1L << 30) - 1;
+
+    /** The highest ply an entry can hold. */
+    static final int MAX_PLY = (1 << 13) - 1;
+
+    /** The results indexed by their code in an entry. */
+    static final String[] RESULTS = {"*", "1-0", "0-1", "1/2-1/2"};
+
+    /** The open file. */
+    private final FileChannel channel;
+
+    /** The mapped segments of the file. */
+    private final MappedByteBuffer[] segments;
+
+    /** The number of entries. */
+    private final long entryCount;
+
+    /**
+     * Maps an index file.
+     * @param channel the file, open for reading
+     * @throws IOException if the file cannot be mapped or is not an index
+     */
+    private PositionIndex(FileChannel channel) throws IOException
+    {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            throw new IOException("not a position index");
+        }
+        int count = (int) ((size - 1 >>> SEGMENT_BITS) + 1);
+        segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = (long) i << SEGMENT_BITS;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, 1L << SEGMENT_BITS));
+        }
+        if (segments[0].getInt(0) != MAGIC) {
+            throw new IOException("not a position index");
+        }
+        if (segments[0].getInt(4) != VERSION) {
+            throw new IOException("unsupported position index version " + segments[0].getInt(4));
+        }
+        entryCount = segments[0].getLong(8);
+        if (entryCount < 0 || HEADER_SIZE + entryCount * ENTRY_SIZE > size) {
+            throw new IOException("corrupt position index header");
+        }
+    }
+
+    /**
+     * Opens an index file for reading.
+     * @param path the index file
+     * @return the index
+     * @throws IOException if the file cannot be read or is not an index
+     */
+    public static PositionIndex open(Path path) throws IOException
+    {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new PositionIndex(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of entries, one per position of each indexed game.
+     * @return the entry count
+     */
+    public long getEntryCount()
+    {
+        return entryCount;
+    }
+
+    /**
+     * Finds the first entry of a position.
+     * @param key the Zobrist key of the position
+     * @return the number of the first entry with that key, or the number
+     *         of the first entry with a greater key if there is none
+     */
+    public long lowerBound(long key)
+    {
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (getKey(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Counts the times indexed games reached a position.
+     * @param key the Zobrist key of the position
+     * @return the number of entries with that key
+     */
+    public long count(long key)
+    {
+        long first = lowerBound(key);
+        long end = first;
+        while (end < entryCount && getKey(end) == key) {
+            end++;
+        }
+        return end - first;
+    }
+
+    /**
+     * Lists the games that reached the position of a board.
+     * @param board the game board
+     * @return the game numbers, in increasing order, each once
+     */
+    public long[] findGames(Gameboard board)
+    {
+        return findGames(board.hashKey());
+    }
+
+    /**
+     * Lists the games that reached a position.
+     * @param key the Zobrist key of the position
+     * @return the game numbers, in increasing order, each once
+     */
+    public long[] findGames(long key)
+    {
+        long[] games = new long[16];
+        int count = 0;
+        for (long entry = lowerBound(key); entry < entryCount && getKey(entry) == key; entry++) {
+            long game = getGame(entry);
+            // entries of a key are sorted by value, so repeats of a game are adjacent
+            if (count > 0 && games[count - 1] == game) {
+                continue;
+            }
+            if (count == games.length) {
+                games = Arrays.copyOf(games, count * 2);
+            }
+            games[count++] = game;
+        }
+        return Arrays.copyOf(games, count);
+    }
+
+    /**
+     * Returns how often each move was played from the position of a board.
+     * @param board the game board
+     * @return the statistics of each move, most played first
+     */
+    public List<MoveStatistics> getMoveStatistics(Gameboard board)
+    {
+        return getMoveStatistics(board.hashKey());
+    }
+
+    /**
+     * Returns how often each move was played from a position, and how the
+     * games went on to end. Games that ended in the position are not counted.
+     * @param key the Zobrist key of the position
+     * @return the statistics of each move, most played first
+     */
+    public List<MoveStatistics> getMoveStatistics(long key)
+    {
+        // per move: games, white wins, draws, black wins
+        Map<Integer, long[]> counts = new LinkedHashMap<>();
+        for (long entry = lowerBound(key); entry < entryCount && getKey(entry) == key; entry++) {
+            int move = getMove(entry);
+            if (move == MoveCode.NONE) {
+                continue;
+            }
+            long[] count = counts.computeIfAbsent(move, m -> new long[4]);
+            count[0]++;
+            switch (getResult(entry)) {
+                case "1-0":
+                    count[1]++;
+                    break;
+                case "1/2-1/2":
+                    count[2]++;
+                    break;
+                case "0-1":
+                    count[3]++;
+                    break;
+                default:
+                    break;
+            }
+        }
+        List<MoveStatistics> statistics = new ArrayList<>(counts.size());
+        counts.forEach((move, count) -> statistics.add(new MoveStatistics(move, count[0], count[1], count[2], count[3])));
+        statistics.sort((a, b) -> Long.compare(b.getGames(), a.getGames()));
+        return statistics;
+    }
+
+    /**
+     * Returns the Zobrist key of an entry.
+     * @param entry the entry number, from 0
+     * @return the key of the position
+     */
+    public long getKey(long entry)
+    {
+        return getLong(entryOffset(entry));
+    }
+
+    /**
+     * Returns the game of an entry.
+     * @param entry the entry number, from 0
+     * @return the game number
+     */
+    public long getGame(long entry)
+    {
+        return getValue(entry) >>> 34;
+    }
+
+    /**
+     * Returns the result of the game of an entry.
+     * @param entry the entry number, from 0
+     * @return "1-0", "0-1", "1/2-1/2" or "*"
+     */
+    public String getResult(long entry)
+    {
+        return RESULTS[(int) (getValue(entry) >>> 32) & 3];
+    }
+
+    /**
+     * Returns the ply at which the game of an entry reached its position.
+     * @param entry the entry number, from 0
+     * @return the number of moves played before the position
+     */
+    public int getPly(long entry)
+    {
+        return (int) (getValue(entry) >>> 19) & MAX_PLY;
+    }
+
+    /**
+     * Returns the move the game of an entry played from its position.
+     * @param entry the entry number, from 0
+     * @return the move encoded as in MoveCode, or MoveCode.NONE if the game ended there
+     */
+    public int getMove(long entry)
+    {
+        return (int) getValue(entry) & 0x7FFFF;
+    }
+
+    /**
+     * Packs the value of an entry.
+     * @param game   the game number, at most MAX_GAME
+     * @param result the index of the game result in RESULTS
+     * @param ply    the ply, at most MAX_PLY
+     * @param move   the move played, or MoveCode.NONE
+     * @return the value
+     */
+    static long pack(long game, int result, int ply, int move)
+    {
+        return game << 34 | (long) result << 32 | (long) ply << 19 | move;
+    }
+
+    /**
+     * Returns the value of an entry.
+     * @param entry the entry number, from 0
+     * @return the packed game, result, ply and move
+     */
+    private long getValue(long entry)
+    {
+        return getLong(entryOffset(entry) + 8);
+    }
+
+    /**
+     * Returns the offset of an entry in the file.
+     * @param entry the entry number, from 0
+     * @return the offset of its key
+     */
+    private long entryOffset(long entry)
+    {
+        if (entry < 0 || entry >= entryCount) {
+            throw new IllegalArgumentException("entry out of range: " + entry);
+        }
+        return HEADER_SIZE + entry * ENTRY_SIZE;
+    }
+
+    /**
+     * Reads a big-endian long of the file.
+     * @param offset the offset in the file, a multiple of 8
+     * @return the value
+     */
+    private long getLong(long offset)
+    {
+        return segments[(int) (offset >>> SEGMENT_BITS)].getLong((int) (offset & (1L << SEGMENT_BITS) - 1));
+    }
+
+    /**
+     * Closes the file. The mapped segments are released when they are
+     * garbage collected.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+}
@@ -0,0 +1,368 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import chess.Gameboard;
+import chess.MoveCode;
+import chess.io.archive.GameArchive;
+import chess.io.pgn.PgnGame;
+
+/**
+ * Builds a PositionIndex file in bulk with an external sort: entries are
+ * collected in memory up to a fixed number, sorted, and written to a
+ * temporary run file next to the index; on close the runs are merged
+ * into the final sorted file. Memory use is set by the run size, not by
+ * the number of games, so archives of any size can be indexed.
+ */
+public final class PositionIndexBuilder implements Closeable
+{
+    /** The default number of entries sorted in memory at once, 64 MiB worth. */
+    public static final int DEFAULT_RUN_SIZE = 1 << 22;
+
+    /** The number of entries the run arrays start with; they grow as needed up to the run size. */
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    /** The size of the file buffers, in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Ranges at most this long are sorted by insertion. */
+    private static final int INSERTION_SORT_LENGTH = 16;
+
+    /** The index file. */
+    private final Path path;
+
+    /** The number of entries sorted in memory at once. */
+    private final int runSize;
+
+    /** The keys of the entries of the current run. */
+    private long[] keys;
+
+    /** The values of the entries of the current run. */
+    private long[] values;
+
+    /** The number of entries in the current run. */
+    private int size;
+
+    /** The run files written so far. */
+    private final List<Path> runs = new ArrayList<>();
+
+    /** The total number of entries added. */
+    private long entryCount;
+
+    /**
+     * Creates a builder with the default run size.
+     * @param path the index file, replaced when the builder is closed
+     */
+    public PositionIndexBuilder(Path path)
+    {
+        this(path, DEFAULT_RUN_SIZE);
+    }
+
+    /**
+     * Creates a builder.
+     * @param path    the index file, replaced when the builder is closed
+     * @param runSize the number of entries sorted in memory at once; the
+     *                memory for them is only taken as entries are added
+     */
+    public PositionIndexBuilder(Path path, int runSize)
+    {
+        if (runSize < 1) {
+            throw new IllegalArgumentException("invalid run size: " + runSize);
+        }
+        this.path = path;
+        this.runSize = runSize;
+        keys = new long[Math.min(runSize, INITIAL_CAPACITY)];
+        values = new long[keys.length];
+    }
+
+    /**
+     * Adds an entry for every position of every game of an archive, using
+     * the archive's game numbers.
+     * @param archive the game archive
+     * @throws IOException if a run file cannot be written
+     */
+    public void addArchive(GameArchive archive) throws IOException
+    {
+        for (long game = 0; game < archive.getGameCount(); game++) {
+            addGame(game, archive.getGame(game));
+        }
+    }
+
+    /**
+     * Adds an entry for every position of a game, from the starting
+     * position to the last one. Positions after ply MAX_PLY are left out.
+     * @param gameId the game number, from 0 to 2^30 - 1
+     * @param game   the game
+     * @throws IOException if a run file cannot be written
+     */
+    public void addGame(long gameId, PgnGame game) throws IOException
+    {
+        if (gameId < 0 || gameId > PositionIndex.MAX_GAME) {
+            throw new IllegalArgumentException("game out of range: " + gameId);
+        }
+        int result = 0;
+        while (!PositionIndex.RESULTS[result].equals(game.getResult())) {
+            result++;
+        }
+        Gameboard board = game.createBoard();
+        int plies = Math.min(game.getMoveCount(), PositionIndex.MAX_PLY);
+        for (int ply = 0; ply <= plies; ply++) {
+            int move = ply < game.getMoveCount() ? game.getMove(ply) : MoveCode.NONE;
+            add(board.hashKey(), PositionIndex.pack(gameId, result, ply, move));
+            if (ply < plies) {
+                board.makeMove(move);
+            }
+        }
+    }
+
+    /**
+     * Adds an entry to the current run, writing the run out when it is full.
+     * @param key   the Zobrist key of the position
+     * @param value the packed game, result, ply and move
+     * @throws IOException if a run file cannot be written
+     */
+    private void add(long key, long value) throws IOException
+    {
+        if (size == runSize) {
+            writeRun();
+        } else if (size == keys.length) {
+            int capacity = (int) Math.min(runSize, 2L * size);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        entryCount++;
+    }
+
+    /**
+     * Sorts the current run and writes it to a new temporary file.
+     * @throws IOException if the file cannot be written
+     */
+    private void writeRun() throws IOException
+    {
+        sort(0, size);
+        Path directory = path.toAbsolutePath().getParent();
+        Path run = Files.createTempFile(directory, path.getFileName().toString(), ".run");
+        runs.add(run);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(run), BUFFER_SIZE))) {
+            for (int i = 0; i < size; i++) {
+                out.writeLong(keys[i]);
+                out.writeLong(values[i]);
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Sorts a range of the current run by key, then by value, with a
+     * quicksort on the two arrays that falls back to insertion sort on
+     * short ranges.
+     * @param from the first entry of the range
+     * @param to   the entry after the range
+     */
+    private void sort(int from, int to)
+    {
+        while (to - from > INSERTION_SORT_LENGTH) {
+            int middle = (from + to) >>> 1;
+            long pivotKey = keys[middle];
+            long pivotValue = values[middle];
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (compare(keys[i], values[i], pivotKey, pivotValue) < 0) {
+                    i++;
+                }
+                while (compare(keys[j], values[j], pivotKey, pivotValue) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // recurse into the smaller half so the stack stays shallow
+            if (j - from < to - i) {
+                sort(from, j + 1);
+                from = i;
+            } else {
+                sort(i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && compare(keys[j - 1], values[j - 1], keys[j], values[j]) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    /**
+     * Swaps two entries of the current run.
+     * @param i the first entry
+     * @param j the second entry
+     */
+    private void swap(int i, int j)
+    {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    /**
+     * Compares two entries in index order: by key, then by value as an
+     * unsigned number, since game numbers from 2^29 on set the sign bit.
+     * @param key1   the key of the first entry
+     * @param value1 the value of the first entry
+     * @param key2   the key of the second entry
+     * @param value2 the value of the second entry
+     * @return a negative number, zero or a positive number as the first
+     *         entry comes before, with or after the second
+     */
+    private static int compare(long key1, long value1, long key2, long value2)
+    {
+        return key1 != key2 ? Long.compare(key1, key2) : Long.compareUnsigned(value1, value2);
+    }
+
+    /**
+     * Merges the runs into the index file and deletes them.
+     * @throws IOException if a file cannot be read or written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        sort(0, size);
+        List<Run> open = new ArrayList<>();
+        PriorityQueue<Run> queue = new PriorityQueue<>((a, b) -> compare(a.key, a.value, b.key, b.value));
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path run : runs) {
+                Run reader = new Run(run);
+                open.add(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.putInt(PositionIndex.MAGIC).putInt(PositionIndex.VERSION).putLong(entryCount);
+            buffer.position(PositionIndex.HEADER_SIZE);
+            int next = 0;
+            while (next < size || !queue.isEmpty()) {
+                if (buffer.remaining() < PositionIndex.ENTRY_SIZE) {
+                    write(buffer, out);
+                }
+                Run run = queue.peek();
+                if (run == null || next < size && compare(keys[next], values[next], run.key, run.value) <= 0) {
+                    buffer.putLong(keys[next]).putLong(values[next]);
+                    next++;
+                } else {
+                    buffer.putLong(run.key).putLong(run.value);
+                    queue.poll();
+                    if (run.next()) {
+                        queue.add(run);
+                    }
+                }
+            }
+            write(buffer, out);
+        } finally {
+            for (Run run : open) {
+                run.close();
+            }
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            runs.clear();
+            size = 0;
+        }
+    }
+
+    /**
+     * Writes the bytes of a buffer to a file and empties the buffer.
+     * @param buffer the buffer
+     * @param out    the file
+     * @throws IOException if the file cannot be written
+     */
+    private static void write(ByteBuffer buffer, FileChannel out) throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * A sorted run file being merged, positioned on its current entry.
+     */
+    private static final class Run implements Closeable
+    {
+        /** The entries of the run. */
+        private final DataInputStream in;
+
+        /** The key of the current entry. */
+        private long key;
+
+        /** The value of the current entry. */
+        private long value;
+
+        /**
+         * Opens a run file.
+         * @param path the run file
+         * @throws IOException if the file cannot be opened
+         */
+        Run(Path path) throws IOException
+        {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+        }
+
+        /**
+         * Moves to the next entry.
+         * @return false if the run has no more entries
+         * @throws IOException if the file cannot be read
+         */
+        boolean next() throws IOException
+        {
+            try {
+                key = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            value = in.readLong();
+            return true;
+        }
+
+        /**
+         * Closes the run file.
+         * @throws IOException if the file cannot be closed
+         */
+        @Override
+        public void close() throws IOException
+        {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.pgn;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a PGN input holds a game that cannot be read, such as a
+ * malformed tag or an illegal move. The reader has already skipped the
+ * rest of that game, so reading can go on with the next one.
+ */
+public class PgnFormatException extends IOException
+{
+    /** The version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
+    /** The line of the input where the problem was found. */
+    private final int line;
+
+    /**
+     * Constructs an exception for a problem on a line of the input.
+     * @param message the description of the problem
+     * @param line    the line number, from 1
+     */
+    public PgnFormatException(String message, int line)
+    {
+        super("line " + line + ": " + message);
+        this.line = line;
+    }
+
+    /**
+     * Returns the line of the input where the problem was found.
+     * @return the line number, from 1
+     */
+    public int getLine()
+    {
+        return line;
+    }
+}
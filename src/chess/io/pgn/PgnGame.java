@@ -0,0 +1,239 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.pgn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import chess.Gameboard;
+import chess.MoveCode;
+
+/**
+ * One game of a PGN file: its tag pairs in file order, the moves of the
+ * main line as packed MoveCode ints, and the result. Comments and
+ * variations are kept only when the reader is asked to keep them; they
+ * are stored by ply, where ply n is the position after n moves, and
+ * variations keep their movetext as written.
+ */
+public final class PgnGame
+{
+    /** The tag pairs, in the order they were read or set. */
+    private final Map<String, String> tags = new LinkedHashMap<>();
+
+    /** The moves of the main line. */
+    private int[] moves = new int[128];
+
+    /** The number of moves of the main line. */
+    private int moveCount;
+
+    /** The game termination marker: "1-0", "0-1", "1/2-1/2" or "*". */
+    private String result = "*";
+
+    /** The comments after each ply, or null if none were kept. */
+    private List<String> comments;
+
+    /** The variations replacing the move after each ply, or null if none were kept. */
+    private List<List<String>> variations;
+
+    /**
+     * Returns the value of a tag.
+     * @param name the tag name, e.g. "White"
+     * @return the tag value, or null if the game has no such tag
+     */
+    public String getTag(String name)
+    {
+        return tags.get(name);
+    }
+
+    /**
+     * Sets the value of a tag, keeping its place if it was already set.
+     * @param name  the tag name
+     * @param value the tag value
+     */
+    public void setTag(String name, String value)
+    {
+        tags.put(name, value);
+    }
+
+    /**
+     * Returns the tag pairs of the game, in order.
+     * @return an unmodifiable view of the tags
+     */
+    public Map<String, String> getTags()
+    {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * Returns the position the game starts from.
+     * @return the FEN of the FEN tag, or null if the game starts from the initial position
+     */
+    public String getStartFen()
+    {
+        return tags.get("FEN");
+    }
+
+    /**
+     * Creates a board holding the position the game starts from.
+     * @return a new game board
+     * @throws IllegalArgumentException if the FEN tag is not a valid FEN
+     */
+    public Gameboard createBoard()
+    {
+        String fen = getStartFen();
+        return fen == null ? new Gameboard() : Gameboard.fromFen(fen);
+    }
+
+    /**
+     * Replays the main line up to a ply.
+     * @param ply the number of moves to play, from 0 to getMoveCount()
+     * @return a new game board holding the position after that many moves
+     */
+    public Gameboard replay(int ply)
+    {
+        if (ply < 0 || ply > moveCount) {
+            throw new IllegalArgumentException("ply out of range: " + ply);
+        }
+        Gameboard board = createBoard();
+        for (int i = 0; i < ply; i++) {
+            board.makeMove(moves[i]);
+        }
+        return board;
+    }
+
+    /**
+     * Adds a move to the end of the main line.
+     * @param move the encoded move, legal in the position after the current last move
+     */
+    public void addMove(int move)
+    {
+        if (move == MoveCode.NONE) {
+            throw new IllegalArgumentException("no move");
+        }
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moveCount * 2);
+        }
+        moves[moveCount++] = move;
+    }
+
+    /**
+     * Returns a move of the main line.
+     * @param i the index of the move, from 0
+     * @return the encoded move
+     */
+    public int getMove(int i)
+    {
+        if (i < 0 || i >= moveCount) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return moves[i];
+    }
+
+    /**
+     * Returns the number of moves of the main line.
+     * @return the number of plies played
+     */
+    public int getMoveCount()
+    {
+        return moveCount;
+    }
+
+    /**
+     * Returns a copy of the moves of the main line.
+     * @return the encoded moves, in order
+     */
+    public int[] getMoves()
+    {
+        return Arrays.copyOf(moves, moveCount);
+    }
+
+    /**
+     * Returns the game termination marker.
+     * @return "1-0", "0-1", "1/2-1/2" or "*"
+     */
+    public String getResult()
+    {
+        return result;
+    }
+
+    /**
+     * Sets the game termination marker.
+     * @param result "1-0", "0-1", "1/2-1/2" or "*"
+     */
+    public void setResult(String result)
+    {
+        if (PgnReader.toResult(result) == null) {
+            throw new IllegalArgumentException("invalid result: " + result);
+        }
+        this.result = result;
+    }
+
+    /**
+     * Returns the comment after a ply; the comment at ply 0 comes before the first move.
+     * @param ply the number of moves played before the comment
+     * @return the comment, or null if there is none
+     */
+    public String getComment(int ply)
+    {
+        return comments == null || ply >= comments.size() ? null : comments.get(ply);
+    }
+
+    /**
+     * Adds a comment after the current last move. Several comments at one
+     * ply are joined with a space.
+     * @param comment the comment text, without braces
+     */
+    public void addComment(String comment)
+    {
+        if (comments == null) {
+            comments = new ArrayList<>();
+        }
+        while (comments.size() <= moveCount) {
+            comments.add(null);
+        }
+        String previous = comments.get(moveCount);
+        comments.set(moveCount, previous == null ? comment : previous + " " + comment);
+    }
+
+    /**
+     * Returns the variations given as alternatives to the move after a ply.
+     * @param ply the number of moves played before the variation starts
+     * @return the movetext of each variation, without parentheses, possibly empty
+     */
+    public List<String> getVariations(int ply)
+    {
+        if (variations == null || ply >= variations.size() || variations.get(ply) == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(variations.get(ply));
+    }
+
+    /**
+     * Adds a variation replacing the current last move, as it stands in PGN
+     * right after that move.
+     * @param movetext the movetext of the variation, without parentheses
+     */
+    public void addVariation(String movetext)
+    {
+        if (moveCount == 0) {
+            throw new IllegalStateException("a variation must follow a move");
+        }
+        if (variations == null) {
+            variations = new ArrayList<>();
+        }
+        while (variations.size() < moveCount) {
+            variations.add(null);
+        }
+        if (variations.get(moveCount - 1) == null) {
+            variations.set(moveCount - 1, new ArrayList<>());
+        }
+        variations.get(moveCount - 1).add(movetext);
+    }
+}
@@ -0,0 +1,556 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import chess.BoardSnapshot;
+import chess.Gameboard;
+import chess.MoveCode;
+import chess.MoveGenerator;
+import chess.notation.San;
+
+/**
+ * Reads the games of a PGN input one at a time, so files of any size can
+ * be processed in a fixed amount of memory: the input goes through a
+ * single buffer, and only the game being read is held. Each game is
+ * replayed on a board as it is read, so every move is checked and stored
+ * as a packed MoveCode int. Comments and variations are skipped unless
+ * the reader is asked to keep them. Text is read as UTF-8, and lines
+ * starting with "%" are ignored.
+ */
+public final class PgnReader implements Closeable
+{
+    /** The game termination markers. */
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "*"};
+
+    /** The mark some files put after an en passant capture, read as a separate symbol. */
+    private static final String EN_PASSANT = "e.p.";
+
+    /** The size of the input buffer, in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The longest move, move number or tag name accepted, in characters. */
+    private static final int MAX_SYMBOL_LENGTH = 255;
+
+    /** The longest tag value, comment or kept variation accepted, in bytes. */
+    private static final int MAX_TEXT_LENGTH = 1 << 20;
+
+    /** The initial position, restored before each game without a FEN tag. */
+    private static final BoardSnapshot START = new Gameboard().snapshot();
+
+    /** The input. */
+    private final ReadableByteChannel channel;
+
+    /** The bytes read from the input and not yet consumed. */
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** A byte given back to be read again, or -1 if none. */
+    private int pushback = -1;
+
+    /** The current line of the input, from 1. */
+    private int line = 1;
+
+    /** Whether the next byte read starts a line. */
+    private boolean lineStart = true;
+
+    /** The move, move number or tag name being read. */
+    private final StringBuilder symbol = new StringBuilder();
+
+    /** The tag value, comment or variation being read. */
+    private byte[] text = new byte[256];
+
+    /** The number of bytes in text. */
+    private int textLength;
+
+    /** The board the current game is replayed on. */
+    private Gameboard board = new Gameboard();
+
+    /** The buffer for the legal moves of the board. */
+    private final int[] moveBuffer = new int[MoveGenerator.MAX_MOVES];
+
+    /** Whether the movetext of the current game has started. */
+    private boolean inMovetext;
+
+    /** Whether comments are kept in the games read. */
+    private boolean keepComments;
+
+    /** Whether variations are kept in the games read. */
+    private boolean keepVariations;
+
+    /**
+     * Constructs a reader of a PGN stream.
+     * @param in the input stream
+     */
+    public PgnReader(InputStream in)
+    {
+        this(Channels.newChannel(in));
+    }
+
+    /**
+     * Constructs a reader of a PGN channel.
+     * @param channel the input channel
+     */
+    public PgnReader(ReadableByteChannel channel)
+    {
+        this.channel = channel;
+        buffer.limit(0);
+    }
+
+    /**
+     * Sets whether comments are kept in the games read.
+     * @param keepComments true to keep comments, false to skip them
+     */
+    public void setKeepComments(boolean keepComments)
+    {
+        this.keepComments = keepComments;
+    }
+
+    /**
+     * Sets whether variations are kept, as text, in the games read.
+     * @param keepVariations true to keep variations, false to skip them
+     */
+    public void setKeepVariations(boolean keepVariations)
+    {
+        this.keepVariations = keepVariations;
+    }
+
+    /**
+     * Reads the next game. When a game cannot be read, the rest of it is
+     * skipped before the exception is thrown, so the next call reads the
+     * following game.
+     * @return the game, or null at the end of the input
+     * @throws PgnFormatException if the game is malformed or holds an illegal move
+     * @throws IOException if the input cannot be read
+     */
+    public PgnGame next() throws IOException
+    {
+        PgnGame game = null;
+        inMovetext = false;
+        try {
+            while (true) {
+                int c = skipWhitespace();
+                if (c == -1) {
+                    if (game != null) {
+                        String result = toResult(game.getTag("Result"));
+                        game.setResult(result == null ? "*" : result);
+                    }
+                    return game;
+                }
+                if (game == null) {
+                    game = new PgnGame();
+                }
+                if (c == '[') {
+                    if (inMovetext) {
+                        pushback = c;
+                        return game;
+                    }
+                    readTag(game);
+                    continue;
+                }
+                if (!inMovetext) {
+                    startMovetext(game);
+                }
+                if (readMovetext(game, c)) {
+                    return game;
+                }
+            }
+        } catch (PgnFormatException e) {
+            skipGame();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads one element of movetext.
+     * @param game the game being read
+     * @param c    the first byte of the element
+     * @return true if the element ends the game
+     * @throws IOException if the movetext is malformed or the input cannot be read
+     */
+    private boolean readMovetext(PgnGame game, int c) throws IOException
+    {
+        switch (c) {
+            case '{':
+                readText('}', keepComments);
+                if (keepComments) {
+                    game.addComment(textString().trim());
+                }
+                return false;
+            case ';':
+                readText('\n', keepComments);
+                if (keepComments) {
+                    game.addComment(textString().trim());
+                }
+                return false;
+            case '(':
+                if (game.getMoveCount() == 0) {
+                    throw error("variation before the first move");
+                }
+                readVariation();
+                if (keepVariations) {
+                    game.addVariation(textString().trim());
+                }
+                return false;
+            case '$':
+                readSymbol(-1);
+                return false;
+            case '*':
+                game.setResult("*");
+                return true;
+            default:
+                break;
+        }
+        if (!isSymbolStart(c)) {
+            throw error("unexpected character '" + (char) c + "'");
+        }
+        readSymbol(c);
+        String result = toResult(symbol);
+        if (result != null) {
+            game.setResult(result);
+            return true;
+        }
+        int start = moveStart();
+        if (start == symbol.length() || symbol.charAt(start) == '!' || symbol.charAt(start) == '?'
+                || EN_PASSANT.contentEquals(symbol)) {
+            return false;
+        }
+        int move = San.parse(board, symbol, start, symbol.length(), moveBuffer);
+        if (move == MoveCode.NONE) {
+            throw error("illegal or ambiguous move " + symbol);
+        }
+        board.makeMove(move);
+        game.addMove(move);
+        return false;
+    }
+
+    /**
+     * Finds where the move starts in a symbol that may begin with a move
+     * number, as in "12." or "12...e5". A number without periods is a move
+     * number only if nothing follows it, since "0-0" starts with a digit.
+     * @return the position of the move in symbol, or its length if it holds only a move number
+     */
+    private int moveStart()
+    {
+        int digits = 0;
+        while (digits < symbol.length() && Character.isDigit(symbol.charAt(digits))) {
+            digits++;
+        }
+        int start = digits;
+        while (start < symbol.length() && symbol.charAt(start) == '.') {
+            start++;
+        }
+        return start > digits || digits == symbol.length() ? start : 0;
+    }
+
+    /**
+     * Sets up the board for the movetext of a game.
+     * @param game the game being read
+     * @throws PgnFormatException if the FEN tag is not a valid FEN
+     */
+    private void startMovetext(PgnGame game) throws PgnFormatException
+    {
+        inMovetext = true;
+        String fen = game.getStartFen();
+        if (fen == null) {
+            board.restore(START);
+            return;
+        }
+        try {
+            board = Gameboard.fromFen(fen);
+        } catch (IllegalArgumentException e) {
+            throw error(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a tag pair after its opening bracket.
+     * @param game the game to add the tag to
+     * @throws IOException if the tag is malformed or the input cannot be read
+     */
+    private void readTag(PgnGame game) throws IOException
+    {
+        int c = skipWhitespace();
+        if (!isSymbolStart(c)) {
+            throw error("missing tag name");
+        }
+        readSymbol(c);
+        String name = symbol.toString();
+        if (skipWhitespace() != '"') {
+            throw error("missing value of tag " + name);
+        }
+        textLength = 0;
+        while ((c = read()) != '"') {
+            if (c == '\\') {
+                c = read();
+            }
+            if (c == -1 || c == '\n') {
+                throw error("unterminated value of tag " + name);
+            }
+            appendText(c);
+        }
+        if (skipWhitespace() != ']') {
+            throw error("missing ']' after tag " + name);
+        }
+        game.setTag(name, textString());
+    }
+
+    /**
+     * Reads a comment up to its closing character, turning line breaks
+     * into spaces.
+     * @param close the byte ending the comment
+     * @param keep  true to keep the text of the comment
+     * @throws IOException if the comment is not closed or the input cannot be read
+     */
+    private void readText(int close, boolean keep) throws IOException
+    {
+        textLength = 0;
+        int c;
+        while ((c = read()) != close) {
+            if (c == -1) {
+                if (close == '\n') {
+                    return;
+                }
+                throw error("unterminated comment");
+            }
+            if (keep && c != '\r') {
+                appendText(c == '\n' ? ' ' : c);
+            }
+        }
+    }
+
+    /**
+     * Reads a variation after its opening parenthesis, up to the matching
+     * closing one, passing over nested variations and comments.
+     * @throws IOException if the variation is not closed or the input cannot be read
+     */
+    private void readVariation() throws IOException
+    {
+        textLength = 0;
+        int depth = 1;
+        int close = -1;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw error("unterminated variation");
+            }
+            if (close != -1) {
+                if (c == close) {
+                    close = -1;
+                }
+            } else if (c == '{') {
+                close = '}';
+            } else if (c == ';') {
+                close = '\n';
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return;
+            }
+            if (keepVariations) {
+                appendText(c == '\n' || c == '\r' ? ' ' : c);
+            }
+        }
+    }
+
+    /**
+     * Reads a move, move number, NAG or tag name into symbol.
+     * @param c the first byte of the symbol, or -1 to start with the next byte
+     * @throws IOException if the symbol is too long or the input cannot be read
+     */
+    private void readSymbol(int c) throws IOException
+    {
+        symbol.setLength(0);
+        if (c != -1) {
+            symbol.append((char) c);
+        }
+        while (isSymbolPart(c = read())) {
+            if (symbol.length() == MAX_SYMBOL_LENGTH) {
+                throw error("token too long");
+            }
+            symbol.append((char) c);
+        }
+        if (c != -1) {
+            pushback = c;
+        }
+    }
+
+    /**
+     * Skips the rest of a game that could not be read, up to the first tag
+     * line that follows a line without tags.
+     * @throws IOException if the input cannot be read
+     */
+    private void skipGame() throws IOException
+    {
+        boolean tagLine = !inMovetext;
+        boolean startOfLine = false;
+        int c;
+        while ((c = read()) != -1) {
+            if (startOfLine) {
+                if (c == '[' && !tagLine) {
+                    pushback = c;
+                    return;
+                }
+                tagLine = c == '[';
+            }
+            startOfLine = c == '\n';
+        }
+    }
+
+    /**
+     * Skips white space and the periods of a move number written apart
+     * from it, as in "12 ... e5".
+     * @return the next other byte, or -1 at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    private int skipWhitespace() throws IOException
+    {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && (c <= ' ' || c == '.'));
+        return c;
+    }
+
+    /**
+     * Reads the next byte, skipping lines that start with "%".
+     * @return the byte from 0 to 255, or -1 at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    private int read() throws IOException
+    {
+        if (pushback != -1) {
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        int c = readByte();
+        if (c == '%' && lineStart) {
+            do {
+                c = readByte();
+            } while (c != '\n' && c != -1);
+        }
+        lineStart = c == '\n';
+        return c;
+    }
+
+    /**
+     * Reads the next byte of the input, refilling the buffer when it is empty.
+     * @return the byte from 0 to 255, or -1 at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    private int readByte() throws IOException
+    {
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            int n;
+            do {
+                n = channel.read(buffer);
+            } while (n == 0);
+            buffer.flip();
+            if (n < 0) {
+                return -1;
+            }
+        }
+        int c = buffer.get() & 0xFF;
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    /**
+     * Adds a byte to the text being read.
+     * @param c the byte
+     * @throws PgnFormatException if the text is too long
+     */
+    private void appendText(int c) throws PgnFormatException
+    {
+        if (textLength == text.length) {
+            if (textLength == MAX_TEXT_LENGTH) {
+                throw error("text too long");
+            }
+            text = Arrays.copyOf(text, Math.min(textLength * 2, MAX_TEXT_LENGTH));
+        }
+        text[textLength++] = (byte) c;
+    }
+
+    /**
+     * Decodes the text read so far.
+     * @return the text
+     */
+    private String textString()
+    {
+        return new String(text, 0, textLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates an exception for a problem on the current line.
+     * @param message the description of the problem
+     * @return the exception
+     */
+    private PgnFormatException error(String message)
+    {
+        return new PgnFormatException(message, line);
+    }
+
+    /**
+     * Checks whether a byte can start a move, move number, result, tag name
+     * or stand-alone annotation such as "!?".
+     * @param c the byte
+     * @return true for letters, digits and the marks "!" and "?"
+     */
+    private static boolean isSymbolStart(int c)
+    {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '!' || c == '?';
+    }
+
+    /**
+     * Checks whether a byte can continue a symbol.
+     * @param c the byte
+     * @return true for letters, digits, the marks used in moves and results,
+     *         and the periods of move numbers
+     */
+    private static boolean isSymbolPart(int c)
+    {
+        return isSymbolStart(c) || c == '_' || c == '+' || c == '#' || c == '=' || c == ':'
+                || c == '-' || c == '/' || c == '.';
+    }
+
+    /**
+     * Returns the game termination marker spelled by a text.
+     * @param text the text, possibly null
+     * @return the marker, or null if the text is not one
+     */
+    static String toResult(CharSequence text)
+    {
+        if (text != null) {
+            for (String result : RESULTS) {
+                if (result.contentEquals(text)) {
+                    return result;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Closes the input.
+     * @throws IOException if the input cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+}
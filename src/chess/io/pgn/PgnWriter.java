@@ -0,0 +1,224 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.pgn;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import chess.Gameboard;
+import chess.MoveGenerator;
+import chess.enums.Color;
+import chess.notation.San;
+
+/**
+ * Writes games in PGN export format: the Seven Tag Roster first, then the
+ * other tags in order, then the movetext in SAN wrapped at 79 columns,
+ * with any comments and variations the games hold. Games are written one
+ * at a time, so any number of them can go to one output.
+ */
+public final class PgnWriter implements Closeable, Flushable
+{
+    /** The tags every game has, in the order they are written, and their unknown values. */
+    private static final String[][] SEVEN_TAG_ROSTER = {
+        {"Event", "?"}, {"Site", "?"}, {"Date", "????.??.??"}, {"Round", "?"},
+        {"White", "?"}, {"Black", "?"}, {"Result", "*"}
+    };
+
+    /** The longest line written, in characters. */
+    private static final int LINE_LENGTH = 79;
+
+    /** The output. */
+    private final Writer out;
+
+    /** The line of movetext being filled. */
+    private final StringBuilder line = new StringBuilder(LINE_LENGTH + 1);
+
+    /** The move being formatted. */
+    private final StringBuilder token = new StringBuilder(16);
+
+    /** The buffer for the legal moves of the board. */
+    private final int[] moveBuffer = new int[MoveGenerator.MAX_MOVES];
+
+    /**
+     * Constructs a writer of PGN to a stream, in UTF-8.
+     * @param out the output stream
+     */
+    public PgnWriter(OutputStream out)
+    {
+        this(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Constructs a writer of PGN to a character stream.
+     * @param out the output writer
+     */
+    public PgnWriter(Writer out)
+    {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+    }
+
+    /**
+     * Writes a game, followed by a blank line.
+     * @param game the game to write
+     * @throws IOException if the output cannot be written
+     * @throws IllegalArgumentException if the FEN tag of the game is not a valid FEN
+     */
+    public void write(PgnGame game) throws IOException
+    {
+        Map<String, String> tags = game.getTags();
+        for (String[] tag : SEVEN_TAG_ROSTER) {
+            String value = tag[0].equals("Result") ? game.getResult() : tags.get(tag[0]);
+            writeTag(tag[0], value == null ? tag[1] : value);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isRosterTag(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        Gameboard board = game.createBoard();
+        boolean needNumber = true;
+        writeComment(game.getComment(0));
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            int move = game.getMove(i);
+            token.setLength(0);
+            if (board.getCurrentPlayer() == Color.WHITE) {
+                token.append(board.getFullmoveNumber()).append(". ");
+            } else if (needNumber) {
+                token.append(board.getFullmoveNumber()).append("... ");
+            }
+            San.append(board, move, token, moveBuffer);
+            writeToken(token);
+            board.makeMove(move);
+
+            String comment = game.getComment(i + 1);
+            needNumber = comment != null || !game.getVariations(i).isEmpty();
+            writeComment(comment);
+            for (String variation : game.getVariations(i)) {
+                writeWords("(" + variation + ")");
+            }
+        }
+        writeToken(game.getResult());
+        out.write(line.toString());
+        out.write("\n\n");
+        line.setLength(0);
+    }
+
+    /**
+     * Writes a tag pair on its own line, escaping quotes and backslashes.
+     * @param name  the tag name
+     * @param value the tag value
+     * @throws IOException if the output cannot be written
+     */
+    private void writeTag(String name, String value) throws IOException
+    {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.write("\"]\n");
+    }
+
+    /**
+     * Checks whether a tag is one of the Seven Tag Roster.
+     * @param name the tag name
+     * @return true if the tag is written before the others
+     */
+    private static boolean isRosterTag(String name)
+    {
+        for (String[] tag : SEVEN_TAG_ROSTER) {
+            if (tag[0].equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes a comment in braces, if there is one.
+     * @param comment the comment, or null
+     * @throws IOException if the output cannot be written
+     */
+    private void writeComment(String comment) throws IOException
+    {
+        if (comment != null) {
+            writeWords("{" + comment.replace('}', ')') + "}");
+        }
+    }
+
+    /**
+     * Writes a text made of several words, breaking lines between words.
+     * @param text the text
+     * @throws IOException if the output cannot be written
+     */
+    private void writeWords(String text) throws IOException
+    {
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf(' ', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            if (end > start) {
+                writeToken(text.subSequence(start, end));
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Adds a token to the current line of movetext, starting a new line
+     * first if the token does not fit.
+     * @param text the token
+     * @throws IOException if the output cannot be written
+     */
+    private void writeToken(CharSequence text) throws IOException
+    {
+        if (line.length() > 0 && line.length() + 1 + text.length() > LINE_LENGTH) {
+            out.write(line.toString());
+            out.write('\n');
+            line.setLength(0);
+        }
+        if (line.length() > 0) {
+            line.append(' ');
+        }
+        line.append(text);
+    }
+
+    /**
+     * Flushes the output.
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        out.flush();
+    }
+
+    /**
+     * Flushes and closes the output.
+     * @throws IOException if the output cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        out.close();
+    }
+}
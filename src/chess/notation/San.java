@@ -0,0 +1,342 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.notation;
+
+import chess.Gameboard;
+import chess.Legality;
+import chess.MoveCode;
+import chess.MoveGenerator;
+import chess.Piece;
+import chess.enums.PieceType;
+import chess.utils.Attacks;
+import chess.utils.Square;
+
+/**
+ * Reads and writes moves in standard algebraic notation (SAN), e.g. "Nf3",
+ * "exd5", "O-O" or "e8=Q+", as used in PGN movetext. Moves are matched
+ * against the legal moves of the board, so disambiguation follows the
+ * actual position, and both directions work on packed MoveCode ints.
+ * A piece move that only one piece can make is found from the attack
+ * masks and checked with Legality, skipping move generation.
+ */
+public final class San
+{
+    /** The SAN letter of each piece type, indexed by ordinal; pawns have none. */
+    private static final String PIECE_LETTERS = " NBRQK";
+
+    /** The piece types indexed by ordinal. */
+    private static final PieceType[] TYPES = PieceType.values();
+
+    /**
+     * This class only holds static methods and is not instantiated.
+     */
+    private San()
+    {
+    }
+
+    /**
+     * Parses a SAN move for the player to move.
+     * @param board the game board the move is played on
+     * @param text  the move, e.g. "Nbd7" or "exd8=Q#"
+     * @return the encoded move, or MoveCode.NONE if the text is not a legal, unambiguous move
+     */
+    public static int parse(Gameboard board, CharSequence text)
+    {
+        return parse(board, text, 0, text.length(), new int[MoveGenerator.MAX_MOVES]);
+    }
+
+    /**
+     * Parses a SAN move held in part of a text, without creating a substring.
+     * Check, mate and annotation marks such as "+", "#", "!" and "?" after
+     * the move are ignored, and an en passant capture may be marked with a
+     * trailing "e.p.", as in "exd6 e.p.".
+     * @param board  the game board the move is played on
+     * @param text   the text holding the move
+     * @param start  the position of the first character of the move
+     * @param end    the position after the last character of the move
+     * @param buffer a buffer for the legal moves, at least MoveGenerator.MAX_MOVES long
+     * @return the encoded move, or MoveCode.NONE if the text is not a legal, unambiguous move
+     */
+    public static int parse(Gameboard board, CharSequence text, int start, int end, int[] buffer)
+    {
+        boolean enPassant = false;
+        while (end > start) {
+            char c = text.charAt(end - 1);
+            if (isSuffix(c) || c == ' ') {
+                end--;
+            } else if (c == '.' && end - start >= 4 && text.charAt(end - 2) == 'p'
+                    && text.charAt(end - 3) == '.' && text.charAt(end - 4) == 'e') {
+                enPassant = true;
+                end -= 4;
+            } else {
+                break;
+            }
+        }
+        if (end - start < 2) {
+            return MoveCode.NONE;
+        }
+        char first = text.charAt(start);
+        if (first == 'O' || first == '0') {
+            return enPassant ? MoveCode.NONE : parseCastling(board, text, start, end, buffer);
+        }
+
+        PieceType type = PieceType.PAWN;
+        int i = start;
+        int letter = PIECE_LETTERS.indexOf(first);
+        if (letter > 0) {
+            type = TYPES[letter];
+            i++;
+        }
+        PieceType promotion = null;
+        if (type == PieceType.PAWN) {
+            int promotionLetter = PIECE_LETTERS.indexOf(text.charAt(end - 1));
+            if (promotionLetter > 0) {
+                promotion = TYPES[promotionLetter];
+                end--;
+                if (end > i && text.charAt(end - 1) == '=') {
+                    end--;
+                }
+            }
+        }
+        int to = Square.parse(text, end - 2);
+        if (end - i < 2 || to == Square.NONE) {
+            return MoveCode.NONE;
+        }
+
+        int fromCol = -1;
+        int fromRow = -1;
+        for (int j = i; j < end - 2; j++) {
+            char c = text.charAt(j);
+            if (c >= 'a' && c <= 'h') {
+                fromCol = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRow = '8' - c;
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return MoveCode.NONE;
+            }
+        }
+        if (type == PieceType.PAWN && fromCol < 0) {
+            fromCol = Square.col(to);
+        }
+
+        if (type != PieceType.PAWN && !enPassant) {
+            // Most piece moves have a single candidate, decided without generating every move
+            long candidates = reach(type, to, board.getOccupancy()) & board.getBitboard(board.getCurrentPlayer(), type);
+            for (long rest = candidates; rest != 0; rest &= rest - 1) {
+                int from = Long.numberOfTrailingZeros(rest);
+                if (fromCol >= 0 && Square.col(from) != fromCol || fromRow >= 0 && Square.row(from) != fromRow) {
+                    candidates &= ~(1L << from);
+                }
+            }
+            if (Long.bitCount(candidates) == 1) {
+                return parseSingle(board, Long.numberOfTrailingZeros(candidates), to);
+            }
+        }
+
+        int count = MoveGenerator.generateLegalMoves(board, buffer);
+        int found = MoveCode.NONE;
+        for (int k = 0; k < count; k++) {
+            int move = buffer[k];
+            int from = MoveCode.from(move);
+            if (MoveCode.to(move) != to
+                    || MoveCode.promotion(move) != promotion
+                    || enPassant && !MoveCode.isEnPassant(move)
+                    || board.getPieceAt(from).getType() != type
+                    || fromCol >= 0 && Square.col(from) != fromCol
+                    || fromRow >= 0 && Square.row(from) != fromRow) {
+                continue;
+            }
+            if (found != MoveCode.NONE) {
+                return MoveCode.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    /**
+     * Returns the squares from which a piece of a type reaches a square,
+     * which are the squares it attacks from there.
+     * @param type     the piece type, not a pawn
+     * @param square   the square reached
+     * @param occupied the occupancy the sliders are blocked by
+     * @return the bitboard of starting squares
+     */
+    private static long reach(PieceType type, int square, long occupied)
+    {
+        switch (type) {
+            case KNIGHT:
+                return Attacks.knight(square);
+            case BISHOP:
+                return Attacks.bishop(square, occupied);
+            case ROOK:
+                return Attacks.rook(square, occupied);
+            case QUEEN:
+                return Attacks.queen(square, occupied);
+            default:
+                return Attacks.king(square);
+        }
+    }
+
+    /**
+     * Builds the move of the only piece that can reach a square, encoded as
+     * the move generator encodes it, and checks that it is legal.
+     * @param board the game board the move is played on
+     * @param from  the square of the piece
+     * @param to    the square the piece moves to
+     * @return the encoded move, or MoveCode.NONE if it is not legal
+     */
+    private static int parseSingle(Gameboard board, int from, int to)
+    {
+        Piece target = board.getPieceAt(to);
+        if (target != null && target.getColor() == board.getCurrentPlayer()) {
+            return MoveCode.NONE;
+        }
+        int move = MoveCode.encode(from, to, null, target != null ? MoveCode.CAPTURE : 0);
+        return Legality.isLegal(board, move) ? move : MoveCode.NONE;
+    }
+
+    /**
+     * Parses "O-O" or "O-O-O", also written with zeros.
+     * @param board  the game board the move is played on
+     * @param text   the text holding the move
+     * @param start  the position of the first character of the move
+     * @param end    the position after the last character of the move
+     * @param buffer a buffer for the legal moves
+     * @return the encoded castling move, or MoveCode.NONE if it is not legal
+     */
+    private static int parseCastling(Gameboard board, CharSequence text, int start, int end, int[] buffer)
+    {
+        int length = end - start;
+        if (length != 3 && length != 5) {
+            return MoveCode.NONE;
+        }
+        for (int j = start; j < end; j++) {
+            char c = text.charAt(j);
+            boolean dash = (j - start) % 2 == 1;
+            if (dash ? c != '-' : c != 'O' && c != '0') {
+                return MoveCode.NONE;
+            }
+        }
+        boolean kingside = length == 3;
+        int count = MoveGenerator.generateLegalMoves(board, buffer);
+        for (int k = 0; k < count; k++) {
+            int move = buffer[k];
+            if (MoveCode.isCastle(move) && (MoveCode.to(move) > MoveCode.from(move)) == kingside) {
+                return move;
+            }
+        }
+        return MoveCode.NONE;
+    }
+
+    /**
+     * Checks whether a character is a check, mate or annotation mark that may follow a move.
+     * @param c the character
+     * @return true if the character is one of "+#!?"
+     */
+    private static boolean isSuffix(char c)
+    {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    /**
+     * Formats a legal move of the player to move in SAN.
+     * @param board the game board the move is played on
+     * @param move  the encoded move
+     * @return the move text, e.g. "Nbd7" or "exd8=Q#"
+     */
+    public static String toString(Gameboard board, int move)
+    {
+        return append(board, move, new StringBuilder(8), new int[MoveGenerator.MAX_MOVES]).toString();
+    }
+
+    /**
+     * Appends a legal move of the player to move in SAN, with the file or
+     * rank of the starting square when another piece of the same type could
+     * reach the same square, and "+" or "#" when the move gives check or
+     * mate. The board is left as it was.
+     * @param board  the game board the move is played on
+     * @param move   the encoded move
+     * @param out    the builder to append the move to
+     * @param buffer a buffer for the legal moves, at least MoveGenerator.MAX_MOVES long
+     * @return the builder
+     */
+    public static StringBuilder append(Gameboard board, int move, StringBuilder out, int[] buffer)
+    {
+        int from = MoveCode.from(move);
+        int to = MoveCode.to(move);
+        if (MoveCode.isCastle(move)) {
+            out.append(to > from ? "O-O" : "O-O-O");
+        } else {
+            PieceType type = board.getPieceAt(from).getType();
+            if (type == PieceType.PAWN) {
+                if (MoveCode.isCapture(move)) {
+                    out.append(Square.file(from)).append('x');
+                }
+            } else {
+                out.append(PIECE_LETTERS.charAt(type.ordinal()));
+                appendOrigin(board, move, type, out, buffer);
+                if (MoveCode.isCapture(move)) {
+                    out.append('x');
+                }
+            }
+            out.append(Square.name(to));
+            if (MoveCode.isPromotion(move)) {
+                out.append('=').append(PIECE_LETTERS.charAt(MoveCode.promotion(move).ordinal()));
+            }
+        }
+
+        board.makeMove(move);
+        if (board.isInCheck()) {
+            out.append(MoveGenerator.generateLegalMoves(board, buffer) == 0 ? '#' : '+');
+        }
+        board.unmakeMove();
+        return out;
+    }
+
+    /**
+     * Appends as much of the starting square as is needed to tell a piece
+     * move apart from moves of other pieces of the same type to the same
+     * square: the file if it differs, else the rank, else both.
+     * @param board  the game board the move is played on
+     * @param move   the encoded move
+     * @param type   the type of the moving piece
+     * @param out    the builder to append to
+     * @param buffer a buffer for the legal moves
+     */
+    private static void appendOrigin(Gameboard board, int move, PieceType type, StringBuilder out, int[] buffer)
+    {
+        int from = MoveCode.from(move);
+        int to = MoveCode.to(move);
+        boolean ambiguous = false;
+        boolean sameCol = false;
+        boolean sameRow = false;
+        int count = MoveGenerator.generateLegalMoves(board, buffer);
+        for (int k = 0; k < count; k++) {
+            int other = MoveCode.from(buffer[k]);
+            if (other == from || MoveCode.to(buffer[k]) != to) {
+                continue;
+            }
+            Piece piece = board.getPieceAt(other);
+            if (piece.getType() != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameCol |= Square.col(other) == Square.col(from);
+            sameRow |= Square.row(other) == Square.row(from);
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameCol) {
+            out.append(Square.file(from));
+        } else if (!sameRow) {
+            out.append(Square.rank(from));
+        } else {
+            out.append(Square.name(from));
+        }
+    }
+}
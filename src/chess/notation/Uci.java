@@ -0,0 +1,141 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.notation;
+
+import chess.Gameboard;
+import chess.MoveCode;
+import chess.MoveGenerator;
+import chess.enums.PieceType;
+import chess.utils.Square;
+
+/**
+ * Reads and writes moves in the long algebraic notation of the UCI
+ * protocol: the starting and ending squares followed by the promotion
+ * piece in lowercase, e.g. "e2e4", "e1g1" for white castling kingside, or
+ * "e7e8q". Parsed moves are matched against the legal moves of the board,
+ * so the capture, castling, en passant and double push flags come out as
+ * the move generator sets them.
+ */
+public final class Uci
+{
+    /** The UCI letter of each piece type, indexed by ordinal. */
+    private static final String PIECE_LETTERS = "pnbrqk";
+
+    /** The piece types indexed by ordinal. */
+    private static final PieceType[] TYPES = PieceType.values();
+
+    /**
+     * This class only holds static methods and is not instantiated.
+     */
+    private Uci()
+    {
+    }
+
+    /**
+     * Parses a UCI move for the player to move.
+     * @param board the game board the move is played on
+     * @param text  the move, e.g. "g1f3" or "a7a8n"
+     * @return the encoded move, or MoveCode.NONE if the text is not a legal move
+     */
+    public static int parse(Gameboard board, CharSequence text)
+    {
+        return parse(board, text, 0, text.length(), new int[MoveGenerator.MAX_MOVES]);
+    }
+
+    /**
+     * Parses a UCI move held in part of a text, without creating a
+     * substring. A space or dash between the squares, as in "e2 e4", is
+     * also accepted, and a promotion without a piece letter promotes to a
+     * queen.
+     * @param board  the game board the move is played on
+     * @param text   the text holding the move
+     * @param start  the position of the first character of the move
+     * @param end    the position after the last character of the move
+     * @param buffer a buffer for the legal moves, at least MoveGenerator.MAX_MOVES long
+     * @return the encoded move, or MoveCode.NONE if the text is not a legal move
+     */
+    public static int parse(Gameboard board, CharSequence text, int start, int end, int[] buffer)
+    {
+        int from = end - start >= 4 ? Square.parse(text, start) : Square.NONE;
+        if (from == Square.NONE) {
+            return MoveCode.NONE;
+        }
+        int i = start + 2;
+        char separator = text.charAt(i);
+        if (separator == ' ' || separator == '-') {
+            i++;
+        }
+        int to = i + 2 <= end ? Square.parse(text, i) : Square.NONE;
+        if (to == Square.NONE) {
+            return MoveCode.NONE;
+        }
+        i += 2;
+        PieceType promotion = null;
+        if (i < end) {
+            int letter = PIECE_LETTERS.indexOf(Character.toLowerCase(text.charAt(i)));
+            if (i + 1 != end || letter <= PieceType.PAWN.ordinal() || letter == PieceType.KING.ordinal()) {
+                return MoveCode.NONE;
+            }
+            promotion = TYPES[letter];
+        }
+
+        int count = MoveGenerator.generateLegalMoves(board, buffer);
+        for (int k = 0; k < count; k++) {
+            int move = buffer[k];
+            if (MoveCode.from(move) == from && MoveCode.to(move) == to
+                    && (MoveCode.promotion(move) == promotion
+                            || promotion == null && MoveCode.promotion(move) == PieceType.QUEEN)) {
+                return move;
+            }
+        }
+        return MoveCode.NONE;
+    }
+
+    /**
+     * Checks whether a text starts like a UCI move, with two square names
+     * that may be split by a space or dash, rather than like a SAN move.
+     * @param text  the text holding the move
+     * @param start the position of the first character of the move
+     * @param end   the position after the last character of the move
+     * @return true if the text should be parsed as UCI
+     */
+    public static boolean isUci(CharSequence text, int start, int end)
+    {
+        if (end - start < 4 || Square.parse(text, start) == Square.NONE) {
+            return false;
+        }
+        char separator = text.charAt(start + 2);
+        int i = separator == ' ' || separator == '-' ? start + 3 : start + 2;
+        return i + 2 <= end && Square.parse(text, i) != Square.NONE;
+    }
+
+    /**
+     * Formats a move in UCI notation.
+     * @param move the encoded move
+     * @return the move text, e.g. "e7e8q"
+     */
+    public static String toString(int move)
+    {
+        return append(move, new StringBuilder(5)).toString();
+    }
+
+    /**
+     * Appends a move in UCI notation.
+     * @param move the encoded move
+     * @param out  the builder to append the move to
+     * @return the builder
+     */
+    public static StringBuilder append(int move, StringBuilder out)
+    {
+        int from = MoveCode.from(move);
+        int to = MoveCode.to(move);
+        out.append(Square.file(from)).append(Square.rank(from)).append(Square.file(to)).append(Square.rank(to));
+        if (MoveCode.isPromotion(move)) {
+            out.append(PIECE_LETTERS.charAt(MoveCode.promotion(move).ordinal()));
+        }
+        return out;
+    }
+}
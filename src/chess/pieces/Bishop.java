@@ -5,25 +5,24 @@
 
 package chess.pieces;
 
-import java.util.*;
-
 import chess.Gameboard;
 import chess.Piece;
 import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.utils.Attacks;
 
 /**
  * Represents a bishop chess piece on the game board.
  */
 public class Bishop extends Piece {
     /**
-     * Constructs a new Bishop Piece object with the given
-     * color, row, and column.
+     * Constructs the bishop of the given color. Boards share one instance per
+     * color, obtained with Piece.of.
      * @param color the color of the piece (either Color.WHITE or Color.BLACK)
-     * @param row   the row of the piece on the board (0-7)
-     * @param col   the column of the piece on the board (0-7)
      */
-    public Bishop(Color color, int row, int col) {
-        super(color, row, col, (color == Color.WHITE) ? "wB" : "bB");
+    public Bishop(Color color)
+    {
+        super(color, (color == Color.WHITE) ? "wB" : "bB");
     }
 
     /**
@@ -64,38 +63,24 @@ public class Bishop extends Piece {
     }
 
     /**
-     * Returns a set of integers representing the squares that this bishop is
-     * attacking on the game board.
-     * This method should be overridden by subclasses to implement piece-specific
-     * attack rules.
-     * 
-     * @param board the game board on which the piece is attacking
-     * @return a set of integers representing the squares that this piece is
-     *         attacking
+     * Returns the squares this bishop attacks as a bitboard.
+     * @param square the square the piece stands on
+     * @param board  the game board on which the piece is attacking
+     * @return the bitboard of attacked squares
      */
     @Override
-    public Set<Integer> getAttackSquares(Gameboard board)
+    public long getAttackMask(int square, Gameboard board)
     {
-        Set<Integer> attackSquares = new HashSet<>();
-        int[] rowDirs = { -1, -1, 1, 1 };
-        int[] colDirs = { -1, 1, -1, 1 };
-        for (int i = 0; i < 4; i++) {
-            int currentRow = getRow() + rowDirs[i];
-            int currentCol = getCol() + colDirs[i];
-            while (currentRow >= 0 && currentRow < 8 &&
-                    currentCol >= 0 && currentCol < 8) {
-                Piece piece = board.getPieceAt(currentRow, currentCol);
-                if (piece != null) {
-                    if (piece.getColor() != getColor()) {
-                        attackSquares.add(currentRow * 8 + currentCol);
-                    }
-                    break;
-                }
-                attackSquares.add(currentRow * 8 + currentCol);
-                currentRow += rowDirs[i];
-                currentCol += colDirs[i];
-            }
-        }
-        return attackSquares;
+        return Attacks.bishop(square, board.getOccupancy());
+    }
+
+    /**
+     * Returns the type of this piece.
+     * @return PieceType.BISHOP
+     */
+    @Override
+    public PieceType getType()
+    {
+        return PieceType.BISHOP;
     }
 }
@@ -5,13 +5,12 @@
 
 package chess.pieces;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import chess.Gameboard;
 import chess.Piece;
 import chess.enums.Color;
-import chess.utils.Utils;
+import chess.enums.PieceType;
+import chess.utils.Attacks;
+import chess.utils.Square;
 
 /**
  * Represents a king chess piece on the game board.
@@ -19,15 +18,13 @@ import chess.utils.Utils;
 public class King extends Piece
 {
     /**
-     * Constructs a new King Piece object with the given
-     * color, row, and column.
+     * Constructs the king of the given color. Boards share one instance per
+     * color, obtained with Piece.of.
      * @param color the color of the piece (either Color.WHITE or Color.BLACK)
-     * @param row the row of the piece on the board (0-7)
-     * @param col the column of the piece on the board (0-7)
      */
-    public King(Color color, int row, int col)
+    public King(Color color)
     {
-        super(color, row, col, (color == Color.WHITE) ? "wK" : "bK");
+        super(color, (color == Color.WHITE) ? "wK" : "bK");
     }
 
     /**
@@ -54,33 +51,33 @@ public class King extends Piece
             // The destination square is adjacent to the king
             return true;
         }
+        if (toRow == fromRow && Math.abs(toCol - fromCol) == 2) {
+            // Castling; whether the king starts in, passes or lands on an attacked square is left to Legality
+            return board.getKingSquare(getColor()) == Square.of(fromRow, fromCol)
+                    && board.canCastle(getColor(), toCol > fromCol);
+        }
         return false;
     }
 
     /**
-     * Returns a set of integers representing the squares that this king is attacking on the game board.
-     * This method should be overridden by subclasses to implement piece-specific attack rules.
-     * @param board the game board on which the piece is attacking
-     * @return a set of integers representing the squares that this piece is attacking
+     * Returns the squares this king attacks as a bitboard.
+     * @param square the square the piece stands on
+     * @param board  the game board on which the piece is attacking
+     * @return the bitboard of attacked squares
      */
     @Override
-    public Set<Integer> getAttackSquares(Gameboard board)
+    public long getAttackMask(int square, Gameboard board)
     {
-        Set<Integer> attacks = new HashSet<>();
-        int[] kingPos = board.findKing(this.getColor());
-        int row = kingPos[0];
-        int col = kingPos[1];
-    
-        // Check all squares around the king for attack
-        for (int r = row - 1; r <= row + 1; r++) {
-            for (int c = col - 1; c <= col + 1; c++) {
-                if ((r == row && c == col) || r < 0 || c < 0 || r > 7 || c > 7) {
-                    // Skip the current square if it's the king's position or out of bounds
-                    continue;
-                }
-                attacks.add(Utils.toIndex(r, c));
-            }
-        }
-        return attacks;
+        return Attacks.king(square);
+    }
+
+    /**
+     * Returns the type of this piece.
+     * @return PieceType.KING
+     */
+    @Override
+    public PieceType getType()
+    {
+        return PieceType.KING;
     }
 }
@@ -8,9 +8,9 @@ package chess.pieces;
 import chess.Gameboard;
 import chess.Piece;
 import chess.enums.Color;
-import chess.utils.Utils;
-
-import java.util.*;
+import chess.enums.PieceType;
+import chess.utils.Attacks;
+import chess.utils.Square;
 
 /**
  * Represents a Knight chess piece on the game board.
@@ -18,15 +18,13 @@ import java.util.*;
 public class Knight extends Piece
 {
     /**
-     * Constructs a new Knight Piece object with the given
-     * color, row, and column.
+     * Constructs the knight of the given color. Boards share one instance per
+     * color, obtained with Piece.of.
      * @param color the color of the piece (either Color.WHITE or Color.BLACK)
-     * @param row   the row of the piece on the board (0-7)
-     * @param col   the column of the piece on the board (0-7)
      */
-    public Knight(Color color, int row, int col)
+    public Knight(Color color)
     {
-        super(color, row, col, (color == Color.WHITE) ? "wN" : "bN");
+        super(color, (color == Color.WHITE) ? "wN" : "bN");
     }
 
     /**
@@ -43,75 +41,33 @@ public class Knight extends Piece
     @Override
     public boolean canMoveTo(int fromRow, int fromCol, int toRow, int toCol, Gameboard board)
     {
-        Set<Integer> attacks = getAttackSquares(board);
-
-        // Convert the starting and ending positions to integer indices
-        int toIndex = Utils.toIndex(toRow, toCol);
-    
-        // Check if the ending position is one of the attack squares
-        if (attacks.contains(toIndex)) {
-            return true;
-        }
-    
-        // Generate all possible moves for the knight
-        int[][] possibleMoves = {
-            {-2, -1}, {-2, 1},
-            {-1, -2}, {-1, 2},
-            {1, -2}, {1, 2},
-            {2, -1}, {2, 1}
-        };
-    
-        // Check if the ending position is a valid move for the knight
-        for (int[] move : possibleMoves) {
-            int destRow = fromRow + move[0];
-            int destCol = fromCol + move[1];
-    
-            if (destRow == toRow && destCol == toCol) {
-                Piece piece = board.getPieceAt(toRow, toCol);
-                if (piece == null || piece.getColor() != getColor()) {
-                    return true;
-                }
-            }
+        Piece piece = board.getPieceAt(toRow, toCol);
+        if (piece != null && piece.getColor() == getColor()) {
+            return false;
         }
-        return false;
+        // The destination must be a knight jump away from the starting square
+        return (Attacks.knight(Square.of(fromRow, fromCol)) & (1L << Square.of(toRow, toCol))) != 0;
     }
 
     /**
-     * Returns a set of integers representing the squares that this knight is attacking on the game board.
-     * This method should be overridden by subclasses to implement piece-specific attack rules.
-     * @param board the game board on which the piece is attacking
-     * @return a set of integers representing the squares that this piece is attacking
+     * Returns the squares this knight attacks as a bitboard.
+     * @param square the square the piece stands on
+     * @param board  the game board on which the piece is attacking
+     * @return the bitboard of attacked squares
      */
     @Override
-    public Set<Integer> getAttackSquares(Gameboard board)
+    public long getAttackMask(int square, Gameboard board)
     {
-        Set<Integer> attacks = new HashSet<>();
+        return Attacks.knight(square);
+    }
 
-        // Generate all possible moves for the knight
-        int[][] possibleMoves = {
-            { -2, -1 }, { -2, 1 },
-            { -1, -2 }, { -1, 2 },
-            { 1, -2 }, { 1, 2 },
-            { 2, -1 }, { 2, 1 },
-            // add the corresponding backward moves
-            { -2, 1 }, { -2, -1 },
-            { -1, 2 }, { -1, -2 },
-            { 1, 2 }, { 1, -2 },
-            { 2, 1 }, { 2, -1 }
-        };
-    
-        // Check each possible move for validity
-        for (int[] move : possibleMoves) {
-            int destRow = getRow() + move[0];
-            int destCol = getCol() + move[1];
-    
-            if (Utils.isInBounds(destRow, destCol)) {
-                Piece piece = board.getPieceAt(destRow, destCol);
-                if (piece == null || piece.getColor() != getColor()) {
-                    attacks.add(Utils.toIndex(destRow, destCol));
-                }
-            }
-        }
-        return attacks;
+    /**
+     * Returns the type of this piece.
+     * @return PieceType.KNIGHT
+     */
+    @Override
+    public PieceType getType()
+    {
+        return PieceType.KNIGHT;
     }
 }
@@ -5,28 +5,25 @@
 
 package chess.pieces;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import chess.Gameboard;
 import chess.Piece;
 import chess.enums.Color;
-import chess.utils.Utils;
+import chess.enums.PieceType;
+import chess.utils.Attacks;
+import chess.utils.Square;
+import chess.utils.SquareSet;
 
 /**
  * Represents a pawn chess piece on the game board.
  */
 public class Pawn extends Piece {
     /**
-     * Constructs a new Pawn Piece object with the given
-     * color, row, and column.
-     * 
+     * Constructs the pawn of the given color. Boards share one instance per
+     * color, obtained with Piece.of.
      * @param color the color of the piece (either Color.WHITE or Color.BLACK)
-     * @param row   the row of the piece on the board (0-7)
-     * @param col   the column of the piece on the board (0-7)
      */
-    public Pawn(Color color, int row, int col) {
-        super(color, row, col, (color == Color.WHITE) ? "wp" : "bp");
+    public Pawn(Color color) {
+        super(color, (color == Color.WHITE) ? "wp" : "bp");
     }
 
     /**
@@ -57,21 +54,15 @@ public class Pawn extends Piece {
         if (fromCol != toCol) {
             // Check if the pawn is capturing a piece diagonally
             if (Math.abs(fromRow - toRow) != 1 || Math.abs(fromCol - toCol) != 1) {
-                // Check for en passant
-                if (board.hasJustDoubleMoved(this)) {
-                    Pawn justDoubleMovedPawn = board.getJustDoubleMoved();
-                    if (justDoubleMovedPawn.getRow() == fromRow &&
-                            Math.abs(justDoubleMovedPawn.getCol() - toCol) == 1 &&
-                            board.getPieceAt(toRow - forwardDirection, toCol) == null) {
-                        return true;
-                    }
-                }                
                 return false;
             }
             Piece capturedPiece = board.getPieceAt(toRow, toCol);
             if (capturedPiece != null && capturedPiece.getColor() != this.getColor()) {
                 // Capture is valid
                 return true;
+            } else if (Square.of(toRow, toCol) == board.getEnPassantSquare()) {
+                // En passant capture of the pawn that just moved two squares past this one
+                return true;
             } else {
                 // Pawn cannot move diagonally without capturing
                 return false;
@@ -96,55 +87,43 @@ public class Pawn extends Piece {
     }    
 
     /**
-     * Returns a set of integers representing the squares that this pawn is
-     * attacking on the game board.
-     * A pawn can attack diagonally in the forward direction.
-     * 
-     * @param board the game board on which the pawn is attacking
-     * @return a set of integers representing the squares that this pawn is
-     *         attacking
+     * Returns the squares that this pawn is attacking from a square of the
+     * game board. A pawn attacks diagonally in the forward direction, and only
+     * squares holding an enemy piece or the en passant square count.
+     * @param square the square the pawn stands on
+     * @param board  the game board on which the pawn is attacking
+     * @return the set of squares that this pawn is attacking
      */
     @Override
-    public Set<Integer> getAttackSquares(Gameboard board) {
-        Set<Integer> attacks = new HashSet<>();
-
-        int forwardDir = (getColor() == Color.WHITE) ? -1 : 1;
-        int row = this.getRow();
-        int col = this.getCol();
-
-        // Check attacks to the left and right diagonally
-        for (int colOffset : new int[] { -1, 1 }) {
-            int attackRow = row + forwardDir;
-            int attackCol = col + colOffset;
-
-            if (attackRow >= 0 && attackRow < 8 && attackCol >= 0 && attackCol < 8) {
-                // Check if there is a piece at the attack square
-                Piece pieceAtAttackSquare = board.getPieceAt(attackRow, attackCol);
-                if (pieceAtAttackSquare != null && pieceAtAttackSquare.getColor() != this.getColor()) {
-                    // Add the attack square to the set of attacks
-                    attacks.add(Utils.toIndex(attackRow, attackCol));
-                } else {
-                    // Check for En passant
-                    Piece lastMovedPiece = board.getLastMovedPiece();
-                    Pawn justDoubleMovedPawn = board.getJustDoubleMoved();
-
-                    if (lastMovedPiece instanceof Pawn && board.hasJustDoubleMoved((Pawn) lastMovedPiece)) {
-                        int lastMovedRow = justDoubleMovedPawn.getRow();
-                        int lastMovedCol = justDoubleMovedPawn.getCol();
-
-                        if (lastMovedPiece.getColor() != this.getColor() &&
-                                lastMovedRow == row && Math.abs(lastMovedCol - col) == 1) {
-                            if (attackRow == lastMovedRow + forwardDir && attackCol == lastMovedCol) {
-                                // Add the attack square to the set of attacks
-                                attacks.add(Utils.toIndex(attackRow, attackCol));
-                            }
-                        }
-                    }
-
-                }
-            }
+    public SquareSet getAttacks(int square, Gameboard board)
+    {
+        long targets = board.getOccupancy(getColor().opposite());
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant != Square.NONE) {
+            targets |= 1L << enPassant;
         }
-        return attacks;
+        return SquareSet.fromMask(getAttackMask(square, board) & targets);
+    }
+
+    /**
+     * Returns the squares this pawn attacks as a bitboard.
+     * @param square the square the piece stands on
+     * @param board  the game board on which the piece is attacking
+     * @return the bitboard of attacked squares
+     */
+    @Override
+    public long getAttackMask(int square, Gameboard board)
+    {
+        return Attacks.pawn(getColor().ordinal(), square);
     }
 
-}
\ No newline at end of file
+    /**
+     * Returns the type of this piece.
+     * @return PieceType.PAWN
+     */
+    @Override
+    public PieceType getType()
+    {
+        return PieceType.PAWN;
+    }
+}
@@ -5,26 +5,24 @@
 
 package chess.pieces;
 
-import java.util.*;
-
 import chess.Gameboard;
 import chess.Piece;
 import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.utils.Attacks;
 
 /**
  * Represents a queen chess piece on the game board.
  */
 public class Queen extends Piece {
     /**
-     * Constructs a new Queen Piece object with the given
-     * color, row, and column.
+     * Constructs the queen of the given color. Boards share one instance per
+     * color, obtained with Piece.of.
      * @param color the color of the piece (either Color.WHITE or Color.BLACK)
-     * @param row   the row of the piece on the board (0-7)
-     * @param col   the column of the piece on the board (0-7)
      */
-
-    public Queen(Color color, int row, int col) {
-        super(color, row, col, (color == Color.WHITE) ? "wQ" : "bQ");
+    public Queen(Color color)
+    {
+        super(color, (color == Color.WHITE) ? "wQ" : "bQ");
     }
 
     /**
@@ -48,14 +46,12 @@ public class Queen extends Piece {
 
         // Check if the move is diagonal (like a Bishop)
         if (Math.abs(toRow - fromRow) == Math.abs(toCol - fromCol)) {
-            Bishop bishop = new Bishop(getColor(), fromRow, fromCol);
-            return bishop.canMoveTo(fromRow, fromCol, toRow, toCol, board);
+            return Piece.of(getColor(), PieceType.BISHOP).canMoveTo(fromRow, fromCol, toRow, toCol, board);
         }
 
         // Check if the move is horizontal or vertical (like a Rook)
         if (toRow == fromRow || toCol == fromCol) {
-            Rook rook = new Rook(getColor(), fromRow, fromCol, getColor().opposite());
-            return rook.canMoveTo(fromRow, fromCol, toRow, toCol, board);
+            return Piece.of(getColor(), PieceType.ROOK).canMoveTo(fromRow, fromCol, toRow, toCol, board);
         }
 
         // If the move is neither diagonal nor horizontal/vertical, it is invalid
@@ -64,28 +60,24 @@ public class Queen extends Piece {
     }
 
     /**
-     * Returns a set of integers representing the squares that this queen is
-     * attacking on the game board.
-     * This method should be overridden by subclasses to implement piece-specific
-     * attack rules.
-     * @param board the game board on which the piece is attacking
-     * @return a set of integers representing the squares that this piece is
-     *         attacking
+     * Returns the squares this queen attacks as a bitboard.
+     * @param square the square the piece stands on
+     * @param board  the game board on which the piece is attacking
+     * @return the bitboard of attacked squares
      */
     @Override
-    public Set<Integer> getAttackSquares(Gameboard board) {
-        Set<Integer> attackSquares = new HashSet<Integer>();
-        int row = getRow();
-        int col = getCol();
-
-        // Add all squares attacked by a Bishop with the same color as this Queen
-        Bishop bishop = new Bishop(getColor(), row, col);
-        attackSquares.addAll(bishop.getAttackSquares(board));
-
-        // Add all squares attacked by a Rook with the same color as this Queen
-        Rook rook = new Rook(getColor(), row, col, getColor().opposite());
-        attackSquares.addAll(rook.getAttackSquares(board));
+    public long getAttackMask(int square, Gameboard board)
+    {
+        return Attacks.queen(square, board.getOccupancy());
+    }
 
-        return attackSquares;
+    /**
+     * Returns the type of this piece.
+     * @return PieceType.QUEEN
+     */
+    @Override
+    public PieceType getType()
+    {
+        return PieceType.QUEEN;
     }
 }
@@ -0,0 +1,360 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.utils;
+
+/**
+ * This class holds precomputed attack tables for every piece type.
+ * Squares are indexed row * 8 + col, so a8 is 0 and h1 is 63, and each
+ * attack set is returned as a bitboard with bit n set for square n.
+ * Knight, king and pawn attacks are plain per-square lookups. Rook and
+ * bishop attacks use magic bitboards: the relevant blockers are masked,
+ * multiplied by a magic number and shifted into an index of a shared
+ * table, so a sliding attack query is a single lookup. The magic numbers
+ * were found once by a random search; the tables they index are filled
+ * when the class is loaded. Two more tables give the squares between and the
+ * line through any two aligned squares, for finding checks and pins.
+ */
+public final class Attacks
+{
+    /** The knight attacks from each square. */
+    private static final long[] KNIGHT = new long[64];
+
+    /** The king attacks from each square. */
+    private static final long[] KING = new long[64];
+
+    /** The pawn attacks from each square, indexed by color ordinal then square. */
+    private static final long[][] PAWN = new long[2][64];
+
+    /** The relevant blocker squares of a rook on each square. */
+    private static final long[] ROOK_MASK = new long[64];
+
+    /** The relevant blocker squares of a bishop on each square. */
+    private static final long[] BISHOP_MASK = new long[64];
+
+    /** The rook magic number of each square. */
+    private static final long[] ROOK_MAGIC = {
+        0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+        0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+        0x0000800080204001L, 0x1000804000802001L, 0x8240801000200080L, 0x8611001004200900L,
+        0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+        0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+        0x0001818014000800L, 0xA002010100080400L, 0x0008040088020130L, 0x0001020004048845L,
+        0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+        0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+        0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+        0x4540040080800800L, 0x0000800400800200L, 0x9281800100808200L, 0x8004048102000854L,
+        0x4420802040008006L, 0x0880500020004002L, 0x0801200241050010L, 0x8400080010008080L,
+        0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+        0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+        0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+        0x8044110480002441L, 0x1023012082044112L, 0x00804080200A0012L, 0x000420310A004A42L,
+        0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+    };
+
+    /** The bishop magic number of each square. */
+    private static final long[] BISHOP_MAGIC = {
+        0x1010220204082A00L, 0x80E0020202002804L, 0x2008480104200020L, 0x000220920280002DL,
+        0x32040421000B0284L, 0x1002080404000400L, 0x0004160892080040L, 0x2203024206204201L,
+        0x0002404264010200L, 0x1120908408428124L, 0xB100424403002280L, 0x240008060440C288L,
+        0x2040040420490400L, 0x0100620210040022L, 0x0400084104202028L, 0x0010050080908820L,
+        0x0C90A04490824802L, 0x000200A008210130L, 0x0C08001000204010L, 0x0008000186014480L,
+        0x0601044820080021L, 0x0002000101013100L, 0x1400A08108080204L, 0x0250401104485410L,
+        0x4820240810142843L, 0x0009142A20182200L, 0x0848140048440020L, 0x2020120000400440L,
+        0x0108840200802003L, 0x0009070082009492L, 0x020C0C0038424245L, 0xCA44005808210410L,
+        0x8011212000500404L, 0x2028840510101008L, 0x0004042A00041400L, 0x0624020080980080L,
+        0x1820410040840040L, 0x2201004202050100L, 0x402A088A24040224L, 0x0242061040002400L,
+        0x90020202400821A0L, 0x00C9009004E01002L, 0x58C2060202023100L, 0x0000012214040800L,
+        0x0210846810100200L, 0x0004208081010200L, 0x01A4108404442100L, 0x8054082C80280106L,
+        0x0004144904104208L, 0x00324C0A11104000L, 0x1000020231040100L, 0x2080001042020004L,
+        0x0544021020288104L, 0x1103501408083020L, 0x4010451004960002L, 0x003010091C44902CL,
+        0x0102402884202000L, 0x0480804C00841086L, 0x04602C8602210400L, 0x0000004000420200L,
+        0x0040000020442C18L, 0x4483804089094100L, 0x80000B0248020400L, 0x0045010808008680L
+    };
+
+    /** The right shift applied to the rook magic product of each square. */
+    private static final int[] ROOK_SHIFT = new int[64];
+
+    /** The right shift applied to the bishop magic product of each square. */
+    private static final int[] BISHOP_SHIFT = new int[64];
+
+    /** The offset of each square's rook entries in the sliding table. */
+    private static final int[] ROOK_OFFSET = new int[64];
+
+    /** The offset of each square's bishop entries in the sliding table. */
+    private static final int[] BISHOP_OFFSET = new int[64];
+
+    /** The squares strictly between two squares on a shared rank, file or diagonal, else 0, indexed by both squares. */
+    private static final long[][] BETWEEN = new long[64][64];
+
+    /** The whole rank, file or diagonal through two squares, else 0, indexed by both squares. */
+    private static final long[][] LINE = new long[64][64];
+
+    /** The rook and bishop attack sets for every relevant blocker combination. */
+    private static final long[] SLIDING;
+
+    /** The row and column steps of the rook rays. */
+    private static final int[][] ROOK_DIRECTIONS = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+
+    /** The row and column steps of the bishop rays. */
+    private static final int[][] BISHOP_DIRECTIONS = { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+
+    /** The row and column steps of a knight. */
+    private static final int[][] KNIGHT_STEPS = {
+        { -2, -1 }, { -2, 1 }, { -1, -2 }, { -1, 2 },
+        { 1, -2 }, { 1, 2 }, { 2, -1 }, { 2, 1 }
+    };
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int row = square / 8;
+            int col = square % 8;
+            for (int[] step : KNIGHT_STEPS) {
+                KNIGHT[square] |= bit(row + step[0], col + step[1]);
+            }
+            for (int r = -1; r <= 1; r++) {
+                for (int c = -1; c <= 1; c++) {
+                    if (r != 0 || c != 0) {
+                        KING[square] |= bit(row + r, col + c);
+                    }
+                }
+            }
+            // white pawns move towards row 0, black pawns towards row 7
+            PAWN[0][square] = bit(row - 1, col - 1) | bit(row - 1, col + 1);
+            PAWN[1][square] = bit(row + 1, col - 1) | bit(row + 1, col + 1);
+            ROOK_MASK[square] = relevantMask(row, col, ROOK_DIRECTIONS);
+            BISHOP_MASK[square] = relevantMask(row, col, BISHOP_DIRECTIONS);
+        }
+        for (int square = 0; square < 64; square++) {
+            fillLines(square, ROOK_DIRECTIONS);
+            fillLines(square, BISHOP_DIRECTIONS);
+        }
+
+        int size = 0;
+        for (int square = 0; square < 64; square++) {
+            ROOK_OFFSET[square] = size;
+            size += 1 << Long.bitCount(ROOK_MASK[square]);
+        }
+        for (int square = 0; square < 64; square++) {
+            BISHOP_OFFSET[square] = size;
+            size += 1 << Long.bitCount(BISHOP_MASK[square]);
+        }
+        SLIDING = new long[size];
+
+        for (int square = 0; square < 64; square++) {
+            ROOK_SHIFT[square] = 64 - Long.bitCount(ROOK_MASK[square]);
+            fillTable(square, ROOK_MASK[square], ROOK_MAGIC[square], ROOK_SHIFT[square],
+                    ROOK_OFFSET[square], ROOK_DIRECTIONS);
+            BISHOP_SHIFT[square] = 64 - Long.bitCount(BISHOP_MASK[square]);
+            fillTable(square, BISHOP_MASK[square], BISHOP_MAGIC[square], BISHOP_SHIFT[square],
+                    BISHOP_OFFSET[square], BISHOP_DIRECTIONS);
+        }
+    }
+
+    /**
+     * This class only holds static tables and is not instantiated.
+     */
+    private Attacks()
+    {
+    }
+
+    /**
+     * Returns the squares attacked by a knight.
+     * @param square the square of the knight
+     * @return the bitboard of attacked squares
+     */
+    public static long knight(int square)
+    {
+        return KNIGHT[square];
+    }
+
+    /**
+     * Returns the squares attacked by a king.
+     * @param square the square of the king
+     * @return the bitboard of attacked squares
+     */
+    public static long king(int square)
+    {
+        return KING[square];
+    }
+
+    /**
+     * Returns the squares attacked diagonally by a pawn.
+     * @param colorIndex the ordinal of the pawn's color (0 for white, 1 for black)
+     * @param square     the square of the pawn
+     * @return the bitboard of attacked squares
+     */
+    public static long pawn(int colorIndex, int square)
+    {
+        return PAWN[colorIndex][square];
+    }
+
+    /**
+     * Returns the squares attacked by a rook, up to and including the first
+     * blocker on each ray.
+     * @param square   the square of the rook
+     * @param occupied the bitboard of all occupied squares
+     * @return the bitboard of attacked squares
+     */
+    public static long rook(int square, long occupied)
+    {
+        int index = (int) (((occupied & ROOK_MASK[square]) * ROOK_MAGIC[square]) >>> ROOK_SHIFT[square]);
+        return SLIDING[ROOK_OFFSET[square] + index];
+    }
+
+    /**
+     * Returns the squares attacked by a bishop, up to and including the first
+     * blocker on each ray.
+     * @param square   the square of the bishop
+     * @param occupied the bitboard of all occupied squares
+     * @return the bitboard of attacked squares
+     */
+    public static long bishop(int square, long occupied)
+    {
+        int index = (int) (((occupied & BISHOP_MASK[square]) * BISHOP_MAGIC[square]) >>> BISHOP_SHIFT[square]);
+        return SLIDING[BISHOP_OFFSET[square] + index];
+    }
+
+    /**
+     * Returns the squares attacked by a queen, up to and including the first
+     * blocker on each ray.
+     * @param square   the square of the queen
+     * @param occupied the bitboard of all occupied squares
+     * @return the bitboard of attacked squares
+     */
+    public static long queen(int square, long occupied)
+    {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * Returns the squares strictly between two squares that share a rank,
+     * file or diagonal.
+     * @param from the first square
+     * @param to   the second square
+     * @return the bitboard of the squares between, or 0 if the squares are not aligned
+     */
+    public static long between(int from, int to)
+    {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * Returns the whole rank, file or diagonal through two squares,
+     * including both of them.
+     * @param from the first square
+     * @param to   the second square
+     * @return the bitboard of the line, or 0 if the squares are not aligned
+     */
+    public static long line(int from, int to)
+    {
+        return LINE[from][to];
+    }
+
+    /**
+     * Returns the bit of a square, or 0 if the row and column are off the board.
+     * @param row the row index
+     * @param col the column index
+     * @return the bitboard holding only that square
+     */
+    private static long bit(int row, int col)
+    {
+        return Utils.isInBounds(row, col) ? 1L << (row * 8 + col) : 0L;
+    }
+
+    /**
+     * Computes the blocker squares that can change a slider's attacks. The
+     * last square of each ray is left out since a piece there blocks nothing.
+     * @param row        the row of the slider
+     * @param col        the column of the slider
+     * @param directions the ray directions of the slider
+     * @return the bitboard of relevant blocker squares
+     */
+    private static long relevantMask(int row, int col, int[][] directions)
+    {
+        long mask = 0L;
+        for (int[] dir : directions) {
+            int r = row + dir[0];
+            int c = col + dir[1];
+            while (Utils.isInBounds(r + dir[0], c + dir[1])) {
+                mask |= bit(r, c);
+                r += dir[0];
+                c += dir[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Computes slider attacks by walking each ray until it leaves the board
+     * or hits a blocker. Used only to fill the tables.
+     * @param square     the square of the slider
+     * @param occupied   the bitboard of occupied squares
+     * @param directions the ray directions of the slider
+     * @return the bitboard of attacked squares
+     */
+    private static long slowAttacks(int square, long occupied, int[][] directions)
+    {
+        long attacks = 0L;
+        for (int[] dir : directions) {
+            int r = square / 8 + dir[0];
+            int c = square % 8 + dir[1];
+            while (Utils.isInBounds(r, c)) {
+                long b = bit(r, c);
+                attacks |= b;
+                if ((occupied & b) != 0) {
+                    break;
+                }
+                r += dir[0];
+                c += dir[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Fills the table slots of one square with the attacks for every subset
+     * of its relevant blocker mask.
+     * @param square     the square of the slider
+     * @param mask       the relevant blocker mask
+     * @param magic      the magic number of the square
+     * @param shift      the right shift applied to the product
+     * @param offset     the first slot of this square in the sliding table
+     * @param directions the ray directions of the slider
+     */
+    private static void fillTable(int square, long mask, long magic, int shift, int offset, int[][] directions)
+    {
+        long subset = 0L;
+        do {
+            int index = (int) ((subset * magic) >>> shift);
+            SLIDING[offset + index] = slowAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        } while (subset != 0L);
+    }
+
+    /**
+     * Fills the between and line tables for every square reached from a square
+     * along the given directions.
+     * @param square     the starting square
+     * @param directions the row and column steps of the rays
+     */
+    private static void fillLines(int square, int[][] directions)
+    {
+        int row = square / 8;
+        int col = square % 8;
+        for (int[] direction : directions) {
+            long ray = slowAttacks(square, 0L, new int[][] { direction });
+            long back = slowAttacks(square, 0L, new int[][] { { -direction[0], -direction[1] } });
+            long between = 0L;
+            for (int r = row + direction[0], c = col + direction[1]; Utils.isInBounds(r, c);
+                    r += direction[0], c += direction[1]) {
+                int target = r * 8 + c;
+                BETWEEN[square][target] = between;
+                LINE[square][target] = ray | back | 1L << square;
+                between |= 1L << target;
+            }
+        }
+    }
+}
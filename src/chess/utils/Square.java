@@ -0,0 +1,282 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.utils;
+
+import java.util.Arrays;
+
+/**
+ * Squares of the game board as plain int indices from 0 to 63, so a
+ * square can be stored, compared and passed around without allocating.
+ * The index is row * 8 + col with row 0 at the top of the printed board,
+ * so a8 is 0 and h1 is 63, matching the bitboards and MoveCode. This
+ * class holds a constant per square plus static helpers to convert
+ * between indices, rows and columns, files and ranks, and algebraic
+ * names such as "e4"; the names and the parsing of file and rank
+ * characters are table lookups.
+ */
+public final class Square
+{
+    /** The index used for "no square", e.g. when there is no en passant square. */
+    public static final int NONE = -1;
+
+    /** The square a8. */
+    public static final int A8 = 0;
+    /** The square b8. */
+    public static final int B8 = 1;
+    /** The square c8. */
+    public static final int C8 = 2;
+    /** The square d8. */
+    public static final int D8 = 3;
+    /** The square e8. */
+    public static final int E8 = 4;
+    /** The square f8. */
+    public static final int F8 = 5;
+    /** The square g8. */
+    public static final int G8 = 6;
+    /** The square h8. */
+    public static final int H8 = 7;
+    /** The square a7. */
+    public static final int A7 = 8;
+    /** The square b7. */
+    public static final int B7 = 9;
+    /** The square c7. */
+    public static final int C7 = 10;
+    /** The square d7. */
+    public static final int D7 = 11;
+    /** The square e7. */
+    public static final int E7 = 12;
+    /** The square f7. */
+    public static final int F7 = 13;
+    /** The square g7. */
+    public static final int G7 = 14;
+    /** The square h7. */
+    public static final int H7 = 15;
+    /** The square a6. */
+    public static final int A6 = 16;
+    /** The square b6. */
+    public static final int B6 = 17;
+    /** The square c6. */
+    public static final int C6 = 18;
+    /** The square d6. */
+    public static final int D6 = 19;
+    /** The square e6. */
+    public static final int E6 = 20;
+    /** The square f6. */
+    public static final int F6 = 21;
+    /** The square g6. */
+    public static final int G6 = 22;
+    /** The square h6. */
+    public static final int H6 = 23;
+    /** The square a5. */
+    public static final int A5 = 24;
+    /** The square b5. */
+    public static final int B5 = 25;
+    /** The square c5. */
+    public static final int C5 = 26;
+    /** The square d5. */
+    public static final int D5 = 27;
+    /** The square e5. */
+    public static final int E5 = 28;
+    /** The square f5. */
+    public static final int F5 = 29;
+    /** The square g5. */
+    public static final int G5 = 30;
+    /** The square h5. */
+    public static final int H5 = 31;
+    /** The square a4. */
+    public static final int A4 = 32;
+    /** The square b4. */
+    public static final int B4 = 33;
+    /** The square c4. */
+    public static final int C4 = 34;
+    /** The square d4. */
+    public static final int D4 = 35;
+    /** The square e4. */
+    public static final int E4 = 36;
+    /** The square f4. */
+    public static final int F4 = 37;
+    /** The square g4. */
+    public static final int G4 = 38;
+    /** The square h4. */
+    public static final int H4 = 39;
+    /** The square a3. */
+    public static final int A3 = 40;
+    /** The square b3. */
+    public static final int B3 = 41;
+    /** The square c3. */
+    public static final int C3 = 42;
+    /** The square d3. */
+    public static final int D3 = 43;
+    /** The square e3. */
+    public static final int E3 = 44;
+    /** The square f3. */
+    public static final int F3 = 45;
+    /** The square g3. */
+    public static final int G3 = 46;
+    /** The square h3. */
+    public static final int H3 = 47;
+    /** The square a2. */
+    public static final int A2 = 48;
+    /** The square b2. */
+    public static final int B2 = 49;
+    /** The square c2. */
+    public static final int C2 = 50;
+    /** The square d2. */
+    public static final int D2 = 51;
+    /** The square e2. */
+    public static final int E2 = 52;
+    /** The square f2. */
+    public static final int F2 = 53;
+    /** The square g2. */
+    public static final int G2 = 54;
+    /** The square h2. */
+    public static final int H2 = 55;
+    /** The square a1. */
+    public static final int A1 = 56;
+    /** The square b1. */
+    public static final int B1 = 57;
+    /** The square c1. */
+    public static final int C1 = 58;
+    /** The square d1. */
+    public static final int D1 = 59;
+    /** The square e1. */
+    public static final int E1 = 60;
+    /** The square f1. */
+    public static final int F1 = 61;
+    /** The square g1. */
+    public static final int G1 = 62;
+    /** The square h1. */
+    public static final int H1 = 63;
+
+    /** The algebraic name of each square. */
+    private static final String[] NAMES = new String[64];
+
+    /** The column of each file letter 'a' to 'h', or -1, indexed by character. */
+    private static final int[] FILE_COLUMN = new int[128];
+
+    /** The row of each rank digit '1' to '8', or -1, indexed by character. */
+    private static final int[] RANK_ROW = new int[128];
+
+    static {
+        Arrays.fill(FILE_COLUMN, -1);
+        Arrays.fill(RANK_ROW, -1);
+        for (int i = 0; i < 8; i++) {
+            FILE_COLUMN['a' + i] = i;
+            RANK_ROW['1' + i] = 7 - i;
+        }
+        for (int square = 0; square < 64; square++) {
+            NAMES[square] = "" + (char) ('a' + col(square)) + (char) ('8' - row(square));
+        }
+    }
+
+    /**
+     * This class only holds constants and static methods and is not instantiated.
+     */
+    private Square()
+    {
+    }
+
+    /**
+     * Returns the square at a row and column.
+     * @param row the row index, 0 for the eighth rank
+     * @param col the column index, 0 for the a file
+     * @return the square index
+     */
+    public static int of(int row, int col)
+    {
+        return row * 8 + col;
+    }
+
+    /**
+     * Returns the row of a square.
+     * @param square the square index
+     * @return the row index, 0 for the eighth rank
+     */
+    public static int row(int square)
+    {
+        return square >>> 3;
+    }
+
+    /**
+     * Returns the column of a square.
+     * @param square the square index
+     * @return the column index, 0 for the a file
+     */
+    public static int col(int square)
+    {
+        return square & 7;
+    }
+
+    /**
+     * Returns the file of a square.
+     * @param square the square index
+     * @return the file letter, 'a' to 'h'
+     */
+    public static char file(int square)
+    {
+        return (char) ('a' + (square & 7));
+    }
+
+    /**
+     * Returns the rank of a square.
+     * @param square the square index
+     * @return the rank number, 1 to 8
+     */
+    public static int rank(int square)
+    {
+        return 8 - (square >>> 3);
+    }
+
+    /**
+     * Checks whether an index is a square of the board.
+     * @param square the index to check
+     * @return true if the index is between 0 and 63
+     */
+    public static boolean isValid(int square)
+    {
+        return (square & ~63) == 0;
+    }
+
+    /**
+     * Returns the algebraic name of a square.
+     * @param square the square index
+     * @return the name, e.g. "e4", or "-" for NONE
+     */
+    public static String name(int square)
+    {
+        return isValid(square) ? NAMES[square] : "-";
+    }
+
+    /**
+     * Parses an algebraic square name, e.g. "e4".
+     * @param text the text holding the name
+     * @return the square index, or NONE if the text does not start with a square name
+     */
+    public static int parse(CharSequence text)
+    {
+        return parse(text, 0);
+    }
+
+    /**
+     * Parses an algebraic square name at a position in a text, without
+     * creating a substring.
+     * @param text   the text holding the name
+     * @param offset the position of the file letter
+     * @return the square index, or NONE if there is no square name at that position
+     */
+    public static int parse(CharSequence text, int offset)
+    {
+        if (offset < 0 || offset + 1 >= text.length()) {
+            return NONE;
+        }
+        char file = text.charAt(offset);
+        char rank = text.charAt(offset + 1);
+        if (file >= 128 || rank >= 128 || FILE_COLUMN[file] < 0 || RANK_ROW[rank] < 0) {
+            return NONE;
+        }
+        return of(RANK_ROW[rank], FILE_COLUMN[file]);
+    }
+}
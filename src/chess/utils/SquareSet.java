@@ -0,0 +1,226 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.utils;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable set of squares held as a 64-bit mask, with bit n set for
+ * square n as described in Square. Membership, size, union and
+ * intersection are single bitwise operations, and iteration hands out
+ * plain ints in increasing square order, so no Integer is boxed.
+ */
+public final class SquareSet
+{
+    /** The set with no squares. */
+    public static final SquareSet EMPTY = new SquareSet(0L);
+
+    /** The set with every square of the board. */
+    public static final SquareSet ALL = new SquareSet(-1L);
+
+    /** The squares of the set, one bit per square. */
+    private final long mask;
+
+    /**
+     * Constructs a square set from its mask.
+     * @param mask the bitboard of the squares in the set
+     */
+    private SquareSet(long mask)
+    {
+        this.mask = mask;
+    }
+
+    /**
+     * Returns the set of squares whose bits are set in a bitboard.
+     * @param mask the bitboard of the squares in the set
+     * @return the square set
+     */
+    public static SquareSet fromMask(long mask)
+    {
+        return mask == 0 ? EMPTY : new SquareSet(mask);
+    }
+
+    /**
+     * Returns the set holding the given squares.
+     * @param squares the square indices from 0 to 63
+     * @return the square set
+     */
+    public static SquareSet of(int... squares)
+    {
+        long mask = 0;
+        for (int square : squares) {
+            mask |= 1L << square;
+        }
+        return fromMask(mask);
+    }
+
+    /**
+     * Returns the squares of this set as a bitboard.
+     * @return the mask, with bit n set for square n
+     */
+    public long toMask()
+    {
+        return mask;
+    }
+
+    /**
+     * Checks whether this set holds a square.
+     * @param square the square index
+     * @return true if the square is in the set
+     */
+    public boolean contains(int square)
+    {
+        return (mask & 1L << square) != 0;
+    }
+
+    /**
+     * Checks whether this set holds no squares.
+     * @return true if the set is empty
+     */
+    public boolean isEmpty()
+    {
+        return mask == 0;
+    }
+
+    /**
+     * Returns the number of squares in this set.
+     * @return the population count of the mask
+     */
+    public int size()
+    {
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * Returns the lowest square of this set.
+     * @return the square index, or Square.NONE if the set is empty
+     */
+    public int first()
+    {
+        return mask == 0 ? Square.NONE : Long.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Returns the squares that are in this set or the other one.
+     * @param other the other set
+     * @return the union of both sets
+     */
+    public SquareSet union(SquareSet other)
+    {
+        return fromMask(mask | other.mask);
+    }
+
+    /**
+     * Returns the squares that are in both this set and the other one.
+     * @param other the other set
+     * @return the intersection of both sets
+     */
+    public SquareSet intersection(SquareSet other)
+    {
+        return fromMask(mask & other.mask);
+    }
+
+    /**
+     * Returns the squares of this set that are not in the other one.
+     * @param other the set of squares to remove
+     * @return the difference of both sets
+     */
+    public SquareSet minus(SquareSet other)
+    {
+        return fromMask(mask & ~other.mask);
+    }
+
+    /**
+     * Calls an action for each square of this set, in increasing order.
+     * @param action the action taking a square index
+     */
+    public void forEach(IntConsumer action)
+    {
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            action.accept(Long.numberOfTrailingZeros(rest));
+        }
+    }
+
+    /**
+     * Returns an iterator over the squares of this set, in increasing order.
+     * Use nextInt to read squares without boxing them.
+     * @return the iterator
+     */
+    public PrimitiveIterator.OfInt iterator()
+    {
+        return new PrimitiveIterator.OfInt()
+        {
+            /** The squares not yet returned. */
+            private long rest = mask;
+
+            @Override
+            public boolean hasNext()
+            {
+                return rest != 0;
+            }
+
+            @Override
+            public int nextInt()
+            {
+                if (rest == 0) {
+                    throw new NoSuchElementException();
+                }
+                int square = Long.numberOfTrailingZeros(rest);
+                rest &= rest - 1;
+                return square;
+            }
+        };
+    }
+
+    /**
+     * Copies the squares of this set into a boxed set, for code that still
+     * uses the Set form of the attack squares.
+     * @return a new set of square indices from 0 to 63
+     */
+    public Set<Integer> toSet()
+    {
+        Set<Integer> squares = new HashSet<>();
+        forEach(squares::add);
+        return squares;
+    }
+
+    /**
+     * Checks whether another object is a square set with the same squares.
+     * @param other the object to compare with
+     * @return true if both sets hold the same squares
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof SquareSet && ((SquareSet) other).mask == mask;
+    }
+
+    /**
+     * Returns a hash code of the squares of this set.
+     * @return the hash code
+     */
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(mask);
+    }
+
+    /**
+     * Returns the names of the squares of this set, e.g. "[e4, d5]".
+     * @return the text form of the set
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder text = new StringBuilder("[");
+        forEach(square -> text.append(text.length() > 1 ? ", " : "").append(Square.name(square)));
+        return text.append(']').toString();
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.utils.Square;
+
+/**
+ * Checks that the attack maps Gameboard caches per position always match
+ * the attacks of its pieces, however the board was changed since they
+ * were computed.
+ */
+class AttackMapTest
+{
+    /**
+     * Recomputes the squares attacked by a color piece by piece.
+     * @param board the game board
+     * @param color the attacking color
+     * @return the bitboard of attacked squares
+     */
+    private static long attacked(Gameboard board, Color color)
+    {
+        long attacks = 0L;
+        for (int square = 0; square < 64; square++) {
+            Piece piece = board.getPieceAt(square);
+            if (piece != null && piece.getColor() == color) {
+                attacks |= piece.getAttackMask(square, board);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Checks the cached attack maps and everything derived from them against a recount.
+     * @param board the game board
+     */
+    private static void assertAttacks(Gameboard board)
+    {
+        String fen = board.toFen();
+        for (Color color : Color.values()) {
+            long attacks = attacked(board, color);
+            assertEquals(attacks, board.getAttackedSquares(color), fen);
+            Color enemy = color.opposite();
+            assertEquals(attacked(board, enemy) & ~board.getOccupancy(enemy), board.getEnemyAttacks(color).toMask(),
+                    fen);
+            int king = board.getKingSquare(enemy);
+            assertEquals((attacks & 1L << king) != 0, board.isCheck(enemy), fen);
+            for (int square = 0; square < 64; square++) {
+                long attackers = 0L;
+                for (int from = 0; from < 64; from++) {
+                    Piece piece = board.getPieceAt(from);
+                    if (piece != null && piece.getColor() == color
+                            && (piece.getAttackMask(from, board) & 1L << square) != 0) {
+                        attackers |= 1L << from;
+                    }
+                }
+                assertEquals(attackers, board.getAttackers(square, color), fen + " " + Square.name(square));
+            }
+        }
+    }
+
+    /** The cache is refreshed after makeMove and unmakeMove, having been read before each. */
+    @Test
+    void followsMoves()
+    {
+        Random random = new Random(11);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 20; game++) {
+            Gameboard board = Gameboard.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            int ply = 0;
+            for (; ply < 60; ply++) {
+                assertAttacks(board);
+                int count = MoveGenerator.generateLegalMoves(board, moves);
+                if (count == 0) {
+                    break;
+                }
+                board.makeMove(moves[random.nextInt(count)]);
+            }
+            for (; ply > 0; ply--) {
+                board.unmakeMove();
+                assertAttacks(board);
+            }
+        }
+    }
+
+    /** The cache is refreshed after setPieceAt and after restoring a snapshot. */
+    @Test
+    void followsEdits()
+    {
+        Gameboard board = new Gameboard();
+        BoardSnapshot initial = board.snapshot();
+        assertFalse(board.isSquareAttacked(5, 4, Color.BLACK));
+        board.setPieceAt(Piece.of(Color.BLACK, PieceType.QUEEN), 4, 4);
+        assertTrue(board.isSquareAttacked(5, 4, Color.BLACK));
+        assertAttacks(board);
+        board.setPieceAt(null, 6, 4);
+        assertTrue(board.isCheck(Color.WHITE));
+        assertAttacks(board);
+        board.restore(initial);
+        assertFalse(board.isCheck(Color.WHITE));
+        assertAttacks(board);
+    }
+}
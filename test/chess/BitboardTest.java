@@ -0,0 +1,118 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.utils.Square;
+
+/**
+ * Checks that the bitboards and occupancy masks of Gameboard always agree
+ * with the piece on each square.
+ */
+class BitboardTest
+{
+    /**
+     * Checks every bitboard of a board against its squares.
+     * @param board the game board
+     */
+    private static void assertConsistent(Gameboard board)
+    {
+        String fen = board.toFen();
+        long[] expected = new long[12];
+        for (int square = 0; square < 64; square++) {
+            Piece piece = board.getPieceAt(square);
+            assertEquals(piece == null, board.isEmpty(Square.row(square), Square.col(square)), fen);
+            if (piece != null) {
+                expected[piece.getColor().ordinal() * PieceType.COUNT + piece.getType().ordinal()] |= 1L << square;
+            }
+        }
+        long all = 0;
+        for (Color color : Color.values()) {
+            long side = 0;
+            for (PieceType type : PieceType.values()) {
+                long bitboard = board.getBitboard(color, type);
+                assertEquals(expected[color.ordinal() * PieceType.COUNT + type.ordinal()], bitboard, fen);
+                side |= bitboard;
+            }
+            assertEquals(side, board.getOccupancy(color), fen);
+            all |= side;
+        }
+        assertEquals(0L, board.getOccupancy(Color.WHITE) & board.getOccupancy(Color.BLACK), fen);
+        assertEquals(all, board.getOccupancy(), fen);
+    }
+
+    /** The initial position has the pawns on the second and seventh ranks and the pieces behind them. */
+    @Test
+    void initialPosition()
+    {
+        Gameboard board = new Gameboard();
+        assertConsistent(board);
+        assertEquals(0x00FF000000000000L, board.getBitboard(Color.WHITE, PieceType.PAWN));
+        assertEquals(0x000000000000FF00L, board.getBitboard(Color.BLACK, PieceType.PAWN));
+        assertEquals(1L << Square.E1, board.getBitboard(Color.WHITE, PieceType.KING));
+        assertEquals(1L << Square.D8, board.getBitboard(Color.BLACK, PieceType.QUEEN));
+        assertEquals(0xFFFF00000000FFFFL, board.getOccupancy());
+    }
+
+    /** The bitboards follow moves of every kind, and unmakeMove, through random games. */
+    @Test
+    void followMoves()
+    {
+        Random random = new Random(1);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        String[] starts = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"
+        };
+        for (String start : starts) {
+            for (int game = 0; game < 20; game++) {
+                Gameboard board = Gameboard.fromFen(start);
+                int ply = 0;
+                for (; ply < 100; ply++) {
+                    assertConsistent(board);
+                    int count = MoveGenerator.generateLegalMoves(board, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    board.makeMove(moves[random.nextInt(count)]);
+                }
+                for (; ply > 0; ply--) {
+                    board.unmakeMove();
+                    assertConsistent(board);
+                }
+            }
+        }
+    }
+
+    /** setPieceAt replaces and removes pieces in the bitboards as well as on the squares. */
+    @Test
+    void setPieceAt()
+    {
+        Gameboard board = new Gameboard();
+        Piece queen = Piece.of(Color.WHITE, PieceType.QUEEN);
+        board.setPieceAt(queen, 1, 4);
+        assertSame(queen, board.getPieceAt(Square.E7));
+        assertEquals(0L, board.getBitboard(Color.BLACK, PieceType.PAWN) & 1L << Square.E7);
+        assertEquals(1L << Square.E7, board.getBitboard(Color.WHITE, PieceType.QUEEN) & 1L << Square.E7);
+        assertConsistent(board);
+
+        board.setPieceAt(null, 1, 4);
+        assertNull(board.getPieceAt(Square.E7));
+        assertTrue(board.isEmpty(1, 4));
+        assertConsistent(board);
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.notation.Uci;
+import chess.utils.Square;
+
+/**
+ * Checks that the castling rights and the en passant square are kept as
+ * board state by makeMove and restored by unmakeMove.
+ */
+class CastlingTest
+{
+    /** All four castling rights. */
+    private static final int ALL = Gameboard.WHITE_KINGSIDE | Gameboard.WHITE_QUEENSIDE
+            | Gameboard.BLACK_KINGSIDE | Gameboard.BLACK_QUEENSIDE;
+
+    /** Kings and rooks on their starting squares with every right held. */
+    private static final String ROOKS = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1";
+
+    /**
+     * Plays a move on a position and checks the castling rights left, then
+     * takes the move back and checks that every right returns.
+     * @param fen    the position
+     * @param move   the move in UCI notation
+     * @param rights the castling rights expected after the move
+     */
+    private static void assertRightsAfter(String fen, String move, int rights)
+    {
+        Gameboard board = Gameboard.fromFen(fen);
+        int before = board.getCastlingRights();
+        long key = board.hashKey();
+        board.makeMove(Uci.parse(board, move));
+        assertEquals(rights, board.getCastlingRights(), move);
+        board.unmakeMove();
+        assertEquals(before, board.getCastlingRights(), move);
+        assertEquals(key, board.hashKey(), move);
+        assertEquals(fen, board.toFen(), move);
+    }
+
+    /** King moves, castling, rook moves and rook captures drop exactly the rights they affect. */
+    @Test
+    void rightsFollowMoves()
+    {
+        assertRightsAfter(ROOKS, "e1e2", ALL & ~(Gameboard.WHITE_KINGSIDE | Gameboard.WHITE_QUEENSIDE));
+        assertRightsAfter(ROOKS, "e1g1", ALL & ~(Gameboard.WHITE_KINGSIDE | Gameboard.WHITE_QUEENSIDE));
+        assertRightsAfter(ROOKS, "e1c1", ALL & ~(Gameboard.WHITE_KINGSIDE | Gameboard.WHITE_QUEENSIDE));
+        assertRightsAfter(ROOKS, "a1a2", ALL & ~Gameboard.WHITE_QUEENSIDE);
+        assertRightsAfter(ROOKS, "h1h2", ALL & ~Gameboard.WHITE_KINGSIDE);
+        assertRightsAfter(ROOKS, "a1a8", ALL & ~(Gameboard.WHITE_QUEENSIDE | Gameboard.BLACK_QUEENSIDE));
+        assertRightsAfter(ROOKS, "h1h8", ALL & ~(Gameboard.WHITE_KINGSIDE | Gameboard.BLACK_KINGSIDE));
+        assertRightsAfter(ROOKS.replace(" w ", " b "), "e8g8",
+                ALL & ~(Gameboard.BLACK_KINGSIDE | Gameboard.BLACK_QUEENSIDE));
+        assertRightsAfter(ROOKS.replace(" w ", " b "), "h8h1",
+                ALL & ~(Gameboard.WHITE_KINGSIDE | Gameboard.BLACK_KINGSIDE));
+        assertRightsAfter("r3k2r/8/8/8/8/8/8/R3K1NR w KQkq - 0 1", "g1f3", ALL);
+    }
+
+    /** Castling moves the rook as well as the king, and unmakeMove puts both back. */
+    @Test
+    void castlingMovesRook()
+    {
+        Gameboard board = Gameboard.fromFen(ROOKS);
+        board.makeMove(Uci.parse(board, "e1c1"));
+        assertEquals(Piece.of(Color.WHITE, PieceType.ROOK), board.getPieceAt(Square.D1));
+        assertNull(board.getPieceAt(Square.A1));
+        assertEquals(Square.C1, board.getKingSquare(Color.WHITE));
+        board.unmakeMove();
+        assertEquals(Piece.of(Color.WHITE, PieceType.ROOK), board.getPieceAt(Square.A1));
+        assertNull(board.getPieceAt(Square.D1));
+        assertEquals(Square.E1, board.getKingSquare(Color.WHITE));
+    }
+
+    /** canCastle needs the right, the king and rook at home and nothing between them. */
+    @Test
+    void canCastle()
+    {
+        Gameboard board = Gameboard.fromFen("rn2k2r/8/8/8/8/8/8/R3K1NR w KQkq - 0 1");
+        assertFalse(board.canCastle(Color.WHITE, true));
+        assertTrue(board.canCastle(Color.WHITE, false));
+        assertTrue(board.canCastle(Color.BLACK, true));
+        assertFalse(board.canCastle(Color.BLACK, false));
+
+        board = Gameboard.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w Kq - 0 1");
+        assertTrue(board.canCastle(Color.WHITE, true));
+        assertFalse(board.canCastle(Color.WHITE, false));
+        assertFalse(board.canCastle(Color.BLACK, true));
+        assertTrue(board.canCastle(Color.BLACK, false));
+
+        // the right is held but the rook has been captured and replaced by a knight
+        board = Gameboard.fromFen("r3k2r/8/8/8/8/8/8/R3K2N w KQkq - 0 1");
+        assertFalse(board.canCastle(Color.WHITE, true));
+        assertTrue(board.canCastle(Color.WHITE, false));
+    }
+
+    /** A double push sets the en passant square for one move only, and unmakeMove brings it back. */
+    @Test
+    void enPassantSquare()
+    {
+        Gameboard board = new Gameboard();
+        assertEquals(Square.NONE, board.getEnPassantSquare());
+        board.makeMove(Uci.parse(board, "e2e4"));
+        assertEquals(Square.E3, board.getEnPassantSquare());
+        board.makeMove(Uci.parse(board, "g8f6"));
+        assertEquals(Square.NONE, board.getEnPassantSquare());
+        board.makeMove(Uci.parse(board, "e4e5"));
+        assertEquals(Square.NONE, board.getEnPassantSquare());
+        board.makeMove(Uci.parse(board, "d7d5"));
+        assertEquals(Square.D6, board.getEnPassantSquare());
+
+        // the capture removes the pawn beside the capturing pawn, not the one on the target square
+        board.makeMove(Uci.parse(board, "e5d6"));
+        assertEquals(Square.NONE, board.getEnPassantSquare());
+        assertNull(board.getPieceAt(Square.D5));
+        assertEquals(Piece.of(Color.WHITE, PieceType.PAWN), board.getPieceAt(Square.D6));
+
+        board.unmakeMove();
+        assertEquals(Square.D6, board.getEnPassantSquare());
+        assertEquals(Piece.of(Color.BLACK, PieceType.PAWN), board.getPieceAt(Square.D5));
+        assertNull(board.getPieceAt(Square.D6));
+        board.unmakeMove();
+        assertEquals(Square.NONE, board.getEnPassantSquare());
+        board.unmakeMove();
+        board.unmakeMove();
+        assertEquals(Square.E3, board.getEnPassantSquare());
+        board.unmakeMove();
+        assertEquals(Square.NONE, board.getEnPassantSquare());
+    }
+
+    /** Through random games the rights only shrink, and unmakeMove restores both fields at every ply. */
+    @Test
+    void randomGames()
+    {
+        Random random = new Random(19);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] rights = new int[200];
+        int[] enPassant = new int[200];
+        for (int game = 0; game < 30; game++) {
+            Gameboard board = Gameboard.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            int ply = 0;
+            for (; ply < rights.length; ply++) {
+                rights[ply] = board.getCastlingRights();
+                enPassant[ply] = board.getEnPassantSquare();
+                int count = MoveGenerator.generateLegalMoves(board, moves);
+                if (count == 0) {
+                    break;
+                }
+                int move = moves[random.nextInt(count)];
+                board.makeMove(move);
+                assertEquals(0, board.getCastlingRights() & ~rights[ply], board.toFen());
+                assertEquals(MoveCode.isDoublePush(move)
+                        ? (MoveCode.from(move) + MoveCode.to(move)) / 2 : Square.NONE,
+                        board.getEnPassantSquare(), board.toFen());
+            }
+            for (; ply > 0; ply--) {
+                board.unmakeMove();
+                assertEquals(rights[ply - 1], board.getCastlingRights(), board.toFen());
+                assertEquals(enPassant[ply - 1], board.getEnPassantSquare(), board.toFen());
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.notation.Uci;
+
+/**
+ * Checks FEN import and export on Gameboard.
+ */
+class FenTest
+{
+    /** Positions with every field in use, each written back exactly as read. */
+    private static final String[] POSITIONS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "r3k2r/8/8/8/8/8/8/R3K2R b Kq - 42 97",
+        "4k3/8/8/8/8/8/8/4K3 w - - 0 65535"
+    };
+
+    /** Every position is written back exactly as it was read. */
+    @Test
+    void roundTrip()
+    {
+        for (String fen : POSITIONS) {
+            assertEquals(fen, Gameboard.fromFen(fen).toFen());
+        }
+    }
+
+    /** The initial board writes the standard starting FEN. */
+    @Test
+    void initialPosition()
+    {
+        assertEquals(POSITIONS[0], new Gameboard().toFen());
+    }
+
+    /** Moves update every field. */
+    @Test
+    void fieldsFollowMoves()
+    {
+        Gameboard board = new Gameboard();
+        for (String move : new String[] {"e2e4", "c7c5", "g1f3"}) {
+            board.makeMove(Uci.parse(board, move));
+        }
+        assertEquals("rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2", board.toFen());
+    }
+
+    /** The move counters may be left off, as in EPD. */
+    @Test
+    void countersDefault()
+    {
+        Gameboard board = Gameboard.fromFen("4k3/8/8/8/8/8/8/4K3 b - -");
+        assertEquals(Color.BLACK, board.getCurrentPlayer());
+        assertEquals("4k3/8/8/8/8/8/8/4K3 b - - 0 1", board.toFen());
+    }
+
+    /** Malformed records are rejected. */
+    @Test
+    void rejectsMalformedRecords()
+    {
+        String[] invalid = {
+            "",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - -1 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 65536",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 0",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra"
+        };
+        for (String fen : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> Gameboard.fromFen(fen), fen);
+        }
+    }
+
+    /** Positions without exactly one king per side, or with pawns on the back ranks, are rejected. */
+    @Test
+    void rejectsImpossiblePositions()
+    {
+        String[] invalid = {
+            "8/8/8/8/8/8/8/8 w - - 0 1",
+            "4k3/8/8/8/8/8/8/8 w - - 0 1",
+            "4k3/8/8/8/8/8/8/3KK3 w - - 0 1",
+            "4k3/4k3/8/8/8/8/8/4K3 w - - 0 1",
+            "P3k3/8/8/8/8/8/8/4K3 w - - 0 1",
+            "4k3/8/8/8/8/8/8/p3K3 b - - 0 1"
+        };
+        for (String fen : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> Gameboard.fromFen(fen), fen);
+        }
+    }
+}
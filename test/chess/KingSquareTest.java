@@ -0,0 +1,82 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.utils.Square;
+
+/**
+ * Checks that Gameboard tracks the square of each king through moves,
+ * edits and copies without scanning the board.
+ */
+class KingSquareTest
+{
+    /**
+     * Checks both king squares of a board against its king bitboards.
+     * @param board the game board
+     */
+    private static void assertKings(Gameboard board)
+    {
+        for (Color color : Color.values()) {
+            long king = board.getBitboard(color, PieceType.KING);
+            assertEquals(king == 0 ? Square.NONE : Long.numberOfTrailingZeros(king), board.getKingSquare(color),
+                    board.toFen());
+        }
+    }
+
+    /** The king squares follow king moves and castling, and unmakeMove, through random games. */
+    @Test
+    void followMoves()
+    {
+        Random random = new Random(15);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 30; game++) {
+            Gameboard board = Gameboard.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            int ply = 0;
+            for (; ply < 100; ply++) {
+                assertKings(board);
+                int count = MoveGenerator.generateLegalMoves(board, moves);
+                if (count == 0) {
+                    break;
+                }
+                board.makeMove(moves[random.nextInt(count)]);
+            }
+            assertKings(new Gameboard(board));
+            assertKings(new Gameboard(board.snapshot()));
+            for (; ply > 0; ply--) {
+                board.unmakeMove();
+                assertKings(board);
+            }
+        }
+    }
+
+    /** The king squares start on e1 and e8 and follow kings placed and removed with setPieceAt. */
+    @Test
+    void followEdits()
+    {
+        Gameboard board = new Gameboard();
+        assertEquals(Square.E1, board.getKingSquare(Color.WHITE));
+        assertEquals(Square.E8, board.getKingSquare(Color.BLACK));
+
+        board.setPieceAt(null, 0, 4);
+        assertEquals(Square.NONE, board.getKingSquare(Color.BLACK));
+        board.setPieceAt(Piece.of(Color.BLACK, PieceType.KING), 3, 3);
+        assertEquals(Square.D5, board.getKingSquare(Color.BLACK));
+        board.setPieceAt(Piece.of(Color.WHITE, PieceType.QUEEN), 3, 3);
+        assertEquals(Square.NONE, board.getKingSquare(Color.BLACK));
+        assertKings(board);
+
+        board.restore(new Gameboard().snapshot());
+        assertEquals(Square.E8, board.getKingSquare(Color.BLACK));
+    }
+}
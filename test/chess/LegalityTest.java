@@ -0,0 +1,180 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.utils.Square;
+
+/**
+ * Checks the pin- and check-aware legality filter against playing each
+ * move and looking at the king, and the cached checkers and pinned pieces
+ * against a recount.
+ */
+class LegalityTest
+{
+    /** Positions full of pins, checks, en passant and promotions. */
+    private static final String[] POSITIONS = {
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"
+    };
+
+    /**
+     * Returns the pieces of a color whose attacks reach a square.
+     * @param board  the game board
+     * @param square the square
+     * @param color  the attacking color
+     * @return the bitboard of attacking pieces
+     */
+    private static long attackers(Gameboard board, int square, Color color)
+    {
+        long attackers = 0L;
+        for (int from = 0; from < 64; from++) {
+            Piece piece = board.getPieceAt(from);
+            if (piece != null && piece.getColor() == color && (piece.getAttackMask(from, board) & 1L << square) != 0) {
+                attackers |= 1L << from;
+            }
+        }
+        return attackers;
+    }
+
+    /**
+     * Lists the moves of the player to move that follow the piece rules but
+     * may leave the king attacked, castling aside.
+     * @param board the game board
+     * @param moves the buffer to write the moves into
+     * @return the number of moves written
+     */
+    private static int pseudoLegalMoves(Gameboard board, int[] moves)
+    {
+        Color us = board.getCurrentPlayer();
+        long own = board.getOccupancy(us);
+        long enemy = board.getOccupancy(us.opposite());
+        int forward = us == Color.WHITE ? -8 : 8;
+        int count = 0;
+        for (int from = 0; from < 64; from++) {
+            Piece piece = board.getPieceAt(from);
+            if (piece == null || piece.getColor() != us) {
+                continue;
+            }
+            long targets = piece.getAttackMask(from, board) & ~own;
+            if (piece.getType() == PieceType.PAWN) {
+                targets &= enemy;
+                int enPassant = board.getEnPassantSquare();
+                if (enPassant >= 0 && (piece.getAttackMask(from, board) & 1L << enPassant) != 0) {
+                    moves[count++] = MoveCode.encode(from, enPassant, null, MoveCode.CAPTURE | MoveCode.EN_PASSANT);
+                }
+                int one = from + forward;
+                if (board.getPieceAt(one) == null) {
+                    targets |= 1L << one;
+                    int two = one + forward;
+                    if (Square.row(from) == (us == Color.WHITE ? 6 : 1) && board.getPieceAt(two) == null) {
+                        moves[count++] = MoveCode.encode(from, two, null, MoveCode.DOUBLE_PUSH);
+                    }
+                }
+            }
+            for (; targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                boolean promotes = piece.getType() == PieceType.PAWN && (Square.row(to) == 0 || Square.row(to) == 7);
+                int flags = board.getPieceAt(to) != null ? MoveCode.CAPTURE : 0;
+                moves[count++] = MoveCode.encode(from, to, promotes ? PieceType.QUEEN : null, flags);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks the legality filter, checkers and pinned pieces of a position.
+     * @param board the game board
+     */
+    private static void assertLegality(Gameboard board)
+    {
+        String fen = board.toFen();
+        Color us = board.getCurrentPlayer();
+        Color them = us.opposite();
+        int king = board.getKingSquare(us);
+        assertEquals(attackers(board, king, them), board.getCheckers(us), fen);
+
+        long pinned = 0L;
+        long sliders = board.getBitboard(them, PieceType.BISHOP) | board.getBitboard(them, PieceType.ROOK)
+                | board.getBitboard(them, PieceType.QUEEN);
+        for (long own = board.getOccupancy(us) & ~(1L << king); own != 0; own &= own - 1) {
+            int square = Long.numberOfTrailingZeros(own);
+            Gameboard lifted = new Gameboard(board);
+            lifted.setPieceAt(null, Square.row(square), Square.col(square));
+            if ((attackers(lifted, king, them) & sliders & ~attackers(board, king, them)) != 0) {
+                pinned |= 1L << square;
+            }
+        }
+        assertEquals(pinned, board.getPinned(us), fen);
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = pseudoLegalMoves(board, moves);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            board.makeMove(move);
+            boolean safe = attackers(board, board.getKingSquare(us), them) == 0;
+            board.unmakeMove();
+            assertEquals(safe, Legality.isLegal(board, move), fen + " " + MoveCode.toString(move));
+        }
+    }
+
+    /** The filter agrees with trying each move, in every position of random games. */
+    @Test
+    void matchesTrialMoves()
+    {
+        Random random = new Random(12);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (String start : POSITIONS) {
+            for (int game = 0; game < 10; game++) {
+                Gameboard board = Gameboard.fromFen(start);
+                int ply = 0;
+                for (; ply < 60; ply++) {
+                    assertLegality(board);
+                    int count = MoveGenerator.generateLegalMoves(board, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    board.makeMove(moves[random.nextInt(count)]);
+                }
+                for (; ply > 0; ply--) {
+                    board.unmakeMove();
+                    assertLegality(board);
+                }
+            }
+        }
+    }
+
+    /** A pinned piece may move along the pin, and only the king may move in double check. */
+    @Test
+    void pinsAndDoubleCheck()
+    {
+        Gameboard board = Gameboard.fromFen("4k3/4r3/8/8/8/8/4R3/4K3 w - - 0 1");
+        assertEquals(1L << Square.E2, board.getPinned(Color.WHITE));
+        assertTrue(Legality.isLegal(board, MoveCode.encode(Square.E2, Square.E5, null, 0)));
+        assertFalse(Legality.isLegal(board, MoveCode.encode(Square.E2, Square.D2, null, 0)));
+
+        board = Gameboard.fromFen("4k3/8/8/8/1b6/1N6/8/r3K3 w - - 0 1");
+        assertEquals(1L << Square.A1 | 1L << Square.B4, board.getCheckers(Color.WHITE));
+        assertFalse(Legality.isLegal(board, MoveCode.encode(Square.B3, Square.C1, null, 0)));
+        assertTrue(Legality.isLegal(board, MoveCode.encode(Square.E1, Square.E2, null, 0)));
+
+        // en passant that would open the rank to the rook
+        board = Gameboard.fromFen("8/8/8/K2pP2r/8/8/8/4k3 w - d6 0 1");
+        assertFalse(Legality.isLegal(board, MoveCode.encode(Square.E5, Square.D6, null,
+                MoveCode.CAPTURE | MoveCode.EN_PASSANT)));
+    }
+}
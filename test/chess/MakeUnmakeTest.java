@@ -0,0 +1,134 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.notation.Uci;
+
+/**
+ * Checks that unmakeMove restores everything makeMove changed: the pieces,
+ * bitboards, player to move, castling rights, en passant square, move
+ * counters, hash key and the last move.
+ */
+class MakeUnmakeTest
+{
+    /**
+     * Describes the full state of a board that makeMove changes.
+     * @param board the game board
+     * @return the description
+     */
+    private static String state(Gameboard board)
+    {
+        StringBuilder text = new StringBuilder(board.toFen());
+        text.append(' ').append(Long.toHexString(board.hashKey()));
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                text.append(' ').append(Long.toHexString(board.getBitboard(color, type)));
+            }
+            text.append(' ').append(Long.toHexString(board.getOccupancy(color)));
+        }
+        text.append(' ').append(Long.toHexString(board.getOccupancy()));
+        Move last = board.getLastMove();
+        text.append(' ').append(last == null ? "-" : last.getFromSquare() + "-" + last.getToSquare());
+        return text.toString();
+    }
+
+    /**
+     * Plays UCI moves on a board.
+     * @param board the game board
+     * @param moves the moves
+     */
+    private static void play(Gameboard board, String... moves)
+    {
+        for (String move : moves) {
+            board.makeMove(Uci.parse(board, move));
+        }
+    }
+
+    /** Every legal move of every position of random games is taken back exactly. */
+    @Test
+    void everyMoveIsTakenBack()
+    {
+        Random random = new Random(4);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        String[] starts = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"
+        };
+        for (String start : starts) {
+            for (int game = 0; game < 10; game++) {
+                Gameboard board = Gameboard.fromFen(start);
+                String[] history = new String[80];
+                int ply = 0;
+                for (; ply < history.length; ply++) {
+                    history[ply] = state(board);
+                    int count = MoveGenerator.generateLegalMoves(board, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        board.makeMove(moves[i]);
+                        board.unmakeMove();
+                        assertEquals(history[ply], state(board), MoveCode.toString(moves[i]));
+                    }
+                    board.makeMove(moves[random.nextInt(count)]);
+                }
+                while (ply > 0) {
+                    board.unmakeMove();
+                    assertEquals(history[--ply], state(board));
+                }
+            }
+        }
+    }
+
+    /** Castling, en passant and promotion with capture are played and taken back. */
+    @Test
+    void specialMoves()
+    {
+        String[][] cases = {
+            {"r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 3 10", "e1g1", "r3k2r/8/8/8/8/8/8/R4RK1 b kq - 4 10"},
+            {"r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 3 10", "e8c8", "2kr3r/8/8/8/8/8/8/R3K2R w KQ - 4 11"},
+            {"4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 5", "e5d6", "4k3/8/3P4/8/8/8/8/4K3 b - - 0 5"},
+            {"1r2k3/P7/8/8/8/8/8/4K3 w - - 7 40", "a7b8n", "1N2k3/8/8/8/8/8/8/4K3 b - - 0 40"},
+            {"r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", "a1a8", "R3k2r/8/8/8/8/8/8/4K2R b Kk - 0 1"}
+        };
+        for (String[] test : cases) {
+            Gameboard board = Gameboard.fromFen(test[0]);
+            String before = state(board);
+            play(board, test[1]);
+            assertEquals(test[2], board.toFen(), test[1]);
+            board.unmakeMove();
+            assertEquals(before, state(board), test[1]);
+            assertNull(board.getLastMove());
+        }
+    }
+
+    /** The undo stack grows past its initial capacity of 512 plies. */
+    @Test
+    void longGames()
+    {
+        Gameboard board = new Gameboard();
+        String start = state(board);
+        for (int i = 0; i < 200; i++) {
+            play(board, "g1f3", "g8f6", "f3g1", "f6g8");
+        }
+        assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 800 401", board.toFen());
+        for (int i = 0; i < 800; i++) {
+            board.unmakeMove();
+        }
+        assertEquals(start, state(board));
+    }
+}
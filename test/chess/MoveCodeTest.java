@@ -0,0 +1,113 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.utils.Square;
+
+/**
+ * Checks packing and unpacking of moves in MoveCode, and the flags the
+ * move generator sets.
+ */
+class MoveCodeTest
+{
+    /** The flags of MoveCode. */
+    private static final int[] FLAGS = { MoveCode.CAPTURE, MoveCode.EN_PASSANT, MoveCode.CASTLE, MoveCode.DOUBLE_PUSH };
+
+    /** Every square pair, promotion and combination of flags unpacks to what was packed. */
+    @Test
+    void packAndUnpack()
+    {
+        PieceType[] promotions = { null, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN };
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                for (PieceType promotion : promotions) {
+                    for (int flags = 0; flags < 1 << FLAGS.length; flags++) {
+                        int combined = 0;
+                        for (int i = 0; i < FLAGS.length; i++) {
+                            combined |= (flags >> i & 1) * FLAGS[i];
+                        }
+                        int move = MoveCode.encode(from, to, promotion, combined);
+                        assertEquals(from, MoveCode.from(move));
+                        assertEquals(to, MoveCode.to(move));
+                        assertEquals(promotion, MoveCode.promotion(move));
+                        assertEquals(promotion != null, MoveCode.isPromotion(move));
+                        assertEquals((combined & MoveCode.CAPTURE) != 0, MoveCode.isCapture(move));
+                        assertEquals((combined & MoveCode.EN_PASSANT) != 0, MoveCode.isEnPassant(move));
+                        assertEquals((combined & MoveCode.CASTLE) != 0, MoveCode.isCastle(move));
+                        assertEquals((combined & MoveCode.DOUBLE_PUSH) != 0, MoveCode.isDoublePush(move));
+                    }
+                }
+            }
+        }
+    }
+
+    /** Moves are written in long algebraic coordinates. */
+    @Test
+    void formats()
+    {
+        assertEquals("e2e4", MoveCode.toString(MoveCode.encode(Square.E2, Square.E4, null, MoveCode.DOUBLE_PUSH)));
+        assertEquals("e7d8q", MoveCode.toString(MoveCode.encode(Square.E7, Square.D8, PieceType.QUEEN,
+                MoveCode.CAPTURE)));
+        assertEquals("a2a1n", MoveCode.toString(MoveCode.encode(Square.A2, Square.A1, PieceType.KNIGHT, 0)));
+    }
+
+    /** The generator sets exactly the flags that match the position, and never produces NONE. */
+    @Test
+    void generatorFlags()
+    {
+        String[] positions = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/Pp2P3/2N2Q1p/1PPBBPPP/R3K2R b KQkq a3 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 b kq - 0 1"
+        };
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (String fen : positions) {
+            Gameboard board = Gameboard.fromFen(fen);
+            int count = MoveGenerator.generateLegalMoves(board, moves);
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                int from = MoveCode.from(move);
+                int to = MoveCode.to(move);
+                PieceType type = board.getPieceAt(from).getType();
+                boolean pawn = type == PieceType.PAWN;
+                String text = fen + " " + MoveCode.toString(move);
+                assertNotEquals(MoveCode.NONE, move, text);
+                assertEquals(pawn && to == board.getEnPassantSquare(), MoveCode.isEnPassant(move), text);
+                assertEquals(board.getPieceAt(to) != null || MoveCode.isEnPassant(move), MoveCode.isCapture(move),
+                        text);
+                assertEquals(type == PieceType.KING && Math.abs(to - from) == 2, MoveCode.isCastle(move), text);
+                assertEquals(pawn && Math.abs(to - from) == 16, MoveCode.isDoublePush(move), text);
+                assertEquals(pawn && (Square.row(to) == 0 || Square.row(to) == 7), MoveCode.isPromotion(move),
+                        text);
+                assertEquals(move, board.encodeMove(new Move(move, board.getPieceAt(from))), text);
+            }
+        }
+    }
+
+    /** A Move decoded from an encoded move has its squares and promotion. */
+    @Test
+    void decodesToMove()
+    {
+        Piece pawn = Piece.of(Color.WHITE, PieceType.PAWN);
+        Move move = new Move(MoveCode.encode(Square.B7, Square.A8, PieceType.ROOK, MoveCode.CAPTURE), pawn);
+        assertEquals(1, move.getFromRow());
+        assertEquals(1, move.getFromCol());
+        assertEquals(0, move.getToRow());
+        assertEquals(0, move.getToCol());
+        assertEquals(PieceType.ROOK, move.getPromotion());
+        assertEquals(pawn, move.getPiece());
+        assertNull(new Move(MoveCode.encode(Square.G1, Square.F3, null, 0), pawn).getPromotion());
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the legal move generator and makeMove/unmakeMove against the
+ * published perft counts of the standard test positions.
+ */
+class PerftTest
+{
+    /**
+     * Counts the leaf nodes of a position to a depth.
+     * @param fen   the position
+     * @param depth the depth in plies
+     * @return the node count
+     */
+    private static long perft(String fen, int depth)
+    {
+        return Perft.perft(Gameboard.fromFen(fen), depth);
+    }
+
+    /** The initial position. */
+    @Test
+    void initialPosition()
+    {
+        assertEquals(197281L, perft("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", 4));
+    }
+
+    /** "Kiwipete", full of castling, en passant and promotions. */
+    @Test
+    void kiwipete()
+    {
+        assertEquals(97862L, perft("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 3));
+    }
+
+    /** An endgame with pins along the rank and en passant discovered checks. */
+    @Test
+    void position3()
+    {
+        assertEquals(43238L, perft("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 4));
+    }
+
+    /** Promotions with captures and castling out of a check. */
+    @Test
+    void position4()
+    {
+        assertEquals(9467L, perft("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 3));
+    }
+
+    /** A promotion to every piece with check. */
+    @Test
+    void position5()
+    {
+        assertEquals(62379L, perft("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 3));
+    }
+
+    /** A quiet middlegame. */
+    @Test
+    void position6()
+    {
+        assertEquals(89890L, perft("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", 3));
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/**
+ * Checks that the piece lists of Gameboard always hold exactly the
+ * squares of the matching bitboard.
+ */
+class PieceListTest
+{
+    /**
+     * Checks every piece list of a board against its bitboard.
+     * @param board the game board
+     */
+    private static void assertLists(Gameboard board)
+    {
+        String fen = board.toFen();
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                long bitboard = board.getBitboard(color, type);
+                int count = board.getPieceCount(color, type);
+                assertEquals(Long.bitCount(bitboard), count, fen + " " + color + " " + type);
+                long listed = 0L;
+                for (int i = 0; i < count; i++) {
+                    listed |= 1L << board.getPieceSquare(color, type, i);
+                }
+                assertEquals(bitboard, listed, fen + " " + color + " " + type);
+            }
+        }
+    }
+
+    /** The lists follow captures, promotions and unmakeMove through random games. */
+    @Test
+    void followMoves()
+    {
+        Random random = new Random(16);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        String[] starts = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"
+        };
+        for (String start : starts) {
+            for (int game = 0; game < 20; game++) {
+                Gameboard board = Gameboard.fromFen(start);
+                int ply = 0;
+                for (; ply < 150; ply++) {
+                    assertLists(board);
+                    int count = MoveGenerator.generateLegalMoves(board, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    board.makeMove(moves[random.nextInt(count)]);
+                }
+                assertLists(new Gameboard(board));
+                assertLists(new Gameboard(board.snapshot()));
+                for (; ply > 0; ply--) {
+                    board.unmakeMove();
+                    assertLists(board);
+                }
+            }
+        }
+    }
+
+    /** A list holds at most sixteen pieces; setPieceAt refuses a seventeenth. */
+    @Test
+    void limit()
+    {
+        Gameboard board = new Gameboard();
+        Piece queen = Piece.of(Color.WHITE, PieceType.QUEEN);
+        for (int i = 0; i < 15; i++) {
+            board.setPieceAt(queen, 2 + i / 8, i % 8);
+        }
+        assertEquals(16, board.getPieceCount(Color.WHITE, PieceType.QUEEN));
+        assertLists(board);
+        assertThrows(IllegalArgumentException.class, () -> board.setPieceAt(queen, 4, 0));
+        board.setPieceAt(queen, 2, 0);
+        assertEquals(16, board.getPieceCount(Color.WHITE, PieceType.QUEEN));
+        assertLists(board);
+    }
+}
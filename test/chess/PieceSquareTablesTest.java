@@ -0,0 +1,114 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.PieceType;
+import chess.utils.Square;
+
+/**
+ * Checks the piece-square tables and the midgame score, endgame score and
+ * phase Gameboard keeps up to date as pieces move.
+ */
+class PieceSquareTablesTest
+{
+    /**
+     * Recounts the midgame score, endgame score and phase of a board from its pieces.
+     * @param board the game board
+     * @return the midgame score, endgame score and phase
+     */
+    private static int[] recount(Gameboard board)
+    {
+        int[] totals = new int[3];
+        for (int square = 0; square < 64; square++) {
+            Piece piece = board.getPieceAt(square);
+            if (piece != null) {
+                int index = piece.getColor().ordinal() * PieceType.COUNT + piece.getType().ordinal();
+                totals[0] += PieceSquareTables.midgame(index, square);
+                totals[1] += PieceSquareTables.endgame(index, square);
+                totals[2] += PieceSquareTables.phase(index);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Checks the incremental scores of a board against a recount.
+     * @param board the game board
+     */
+    private static void assertScores(Gameboard board)
+    {
+        int[] totals = recount(board);
+        String fen = board.toFen();
+        assertEquals(totals[0], board.getMidgameScore(), fen);
+        assertEquals(totals[1], board.getEndgameScore(), fen);
+        assertEquals(totals[2], board.getPhase(), fen);
+    }
+
+    /** The scores follow makeMove and unmakeMove through random games, promotions included. */
+    @Test
+    void incrementalScoresMatchRecount()
+    {
+        Random random = new Random(10);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        String[] starts = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+        };
+        for (String start : starts) {
+            for (int game = 0; game < 20; game++) {
+                Gameboard board = Gameboard.fromFen(start);
+                int ply = 0;
+                for (; ply < 150; ply++) {
+                    assertScores(board);
+                    int count = MoveGenerator.generateLegalMoves(board, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    board.makeMove(moves[random.nextInt(count)]);
+                }
+                assertScores(new Gameboard(board));
+                assertScores(new Gameboard(board.snapshot()));
+                for (; ply > 0; ply--) {
+                    board.unmakeMove();
+                    assertScores(board);
+                }
+            }
+        }
+    }
+
+    /** The initial position is level and has the full phase. */
+    @Test
+    void initialPosition()
+    {
+        Gameboard board = new Gameboard();
+        assertEquals(0, board.getMidgameScore());
+        assertEquals(0, board.getEndgameScore());
+        assertEquals(PieceSquareTables.MAX_PHASE, board.getPhase());
+    }
+
+    /** A black piece scores the negative of a white piece on the square mirrored across the middle rank. */
+    @Test
+    void tablesAreMirrored()
+    {
+        for (PieceType type : PieceType.values()) {
+            int white = type.ordinal();
+            int black = PieceType.COUNT + type.ordinal();
+            for (int square = 0; square < 64; square++) {
+                int mirrored = Square.of(7 - Square.row(square), Square.col(square));
+                assertEquals(PieceSquareTables.midgame(white, square), -PieceSquareTables.midgame(black, mirrored));
+                assertEquals(PieceSquareTables.endgame(white, square), -PieceSquareTables.endgame(black, mirrored));
+            }
+            assertEquals(PieceSquareTables.phase(white), PieceSquareTables.phase(black));
+        }
+    }
+}
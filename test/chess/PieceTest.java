@@ -0,0 +1,88 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/**
+ * Checks that pieces are twelve shared immutable instances, and that
+ * boards only ever hold those instances.
+ */
+class PieceTest
+{
+    /**
+     * Checks that every piece on a board is the shared instance of its color and type.
+     * @param board the game board
+     */
+    private static void assertShared(Gameboard board)
+    {
+        for (int square = 0; square < 64; square++) {
+            Piece piece = board.getPieceAt(square);
+            if (piece != null) {
+                assertSame(Piece.of(piece.getColor(), piece.getType()), piece, board.toFen());
+            }
+        }
+    }
+
+    /** Piece.of returns one instance per color and type, with that color and type. */
+    @Test
+    void flyweights()
+    {
+        Set<Piece> pieces = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                Piece piece = Piece.of(color, type);
+                assertSame(piece, Piece.of(color, type));
+                assertEquals(color, piece.getColor());
+                assertEquals(type, piece.getType());
+                assertEquals(color == Color.WHITE ? 'w' : 'b', piece.getName().charAt(0));
+                pieces.add(piece);
+            }
+        }
+        assertEquals(12, pieces.size());
+    }
+
+    /** Boards hold only the shared pieces, after promotions, unmakeMove, copies and snapshots. */
+    @Test
+    void boardsShareInstances()
+    {
+        Random random = new Random(17);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 20; game++) {
+            Gameboard board = Gameboard.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+            int ply = 0;
+            for (; ply < 80; ply++) {
+                assertShared(board);
+                int count = MoveGenerator.generateLegalMoves(board, moves);
+                if (count == 0) {
+                    break;
+                }
+                board.makeMove(moves[random.nextInt(count)]);
+            }
+            Gameboard copy = new Gameboard(board);
+            for (int square = 0; square < 64; square++) {
+                assertSame(board.getPieceAt(square), copy.getPieceAt(square));
+            }
+            assertShared(new Gameboard(board.snapshot()));
+            for (; ply > 0; ply--) {
+                board.unmakeMove();
+                assertShared(board);
+            }
+        }
+        assertShared(new Gameboard());
+    }
+}
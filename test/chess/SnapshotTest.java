@@ -0,0 +1,150 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+import chess.notation.Uci;
+
+/**
+ * Checks that board copies and snapshots are independent of the board they
+ * were taken from.
+ */
+class SnapshotTest
+{
+    /** A position with castling rights, an en passant square and non-zero counters. */
+    private static final String FEN = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+
+    /**
+     * Describes the position of a board, including its bitboards and key.
+     * @param board the game board
+     * @return the description
+     */
+    private static String state(Gameboard board)
+    {
+        StringBuilder text = new StringBuilder(board.toFen()).append(' ').append(board.hashKey());
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                text.append(' ').append(board.getBitboard(color, type));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Plays random legal moves on a board.
+     * @param board  the game board
+     * @param random the source of the moves
+     * @param plies  the number of moves to play at most
+     * @return the number of moves played, fewer than plies if the game ended
+     */
+    private static int playRandom(Gameboard board, Random random, int plies)
+    {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int i = 0; i < plies; i++) {
+            int count = MoveGenerator.generateLegalMoves(board, moves);
+            if (count == 0) {
+                return i;
+            }
+            board.makeMove(moves[random.nextInt(count)]);
+        }
+        return plies;
+    }
+
+    /** Moves on a copy do not change the original, nor the other way round, and the copy keeps the history. */
+    @Test
+    void copiesAreIndependent()
+    {
+        Gameboard board = Gameboard.fromFen(FEN);
+        board.makeMove(Uci.parse(board, "e5f6"));
+        String original = state(board);
+        Gameboard copy = new Gameboard(board);
+        assertEquals(original, state(copy));
+        assertEquals(board.getLastMove().getToSquare(), copy.getLastMove().getToSquare());
+
+        playRandom(copy, new Random(18), 40);
+        assertEquals(original, state(board));
+        for (int played = playRandom(board, new Random(19), 40); played > 0; played--) {
+            board.unmakeMove();
+        }
+        assertEquals(original, state(board));
+
+        copy = new Gameboard(board);
+        copy.unmakeMove();
+        assertEquals(FEN, copy.toFen());
+        assertEquals(original, state(board));
+    }
+
+    /** A snapshot restores its position exactly, however far the board moved on, and drops the history. */
+    @Test
+    void snapshotsRestore()
+    {
+        Gameboard board = Gameboard.fromFen(FEN);
+        String original = state(board);
+        BoardSnapshot snapshot = board.snapshot();
+        assertEquals(board.hashKey(), snapshot.hashKey());
+        assertEquals(Color.WHITE, snapshot.getCurrentPlayer());
+
+        playRandom(board, new Random(20), 60);
+        assertEquals(original, state(new Gameboard(snapshot)));
+        board.restore(snapshot);
+        assertEquals(original, state(board));
+        assertNull(board.getLastMove());
+
+        // the restored board plays on like one read from FEN
+        board.makeMove(Uci.parse(board, "e5f6"));
+        Gameboard fresh = Gameboard.fromFen(FEN);
+        fresh.makeMove(Uci.parse(fresh, "e5f6"));
+        assertEquals(state(fresh), state(board));
+        board.restore(snapshot);
+        assertEquals(original, state(board));
+    }
+
+    /** Copies searched on several threads at once leave the shared original and each other alone. */
+    @Test
+    void copiesOnThreads() throws InterruptedException, ExecutionException
+    {
+        Gameboard board = Gameboard.fromFen(FEN);
+        String original = state(board);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Gameboard copy = new Gameboard(board);
+                long seed = i;
+                results.add(executor.submit(() -> {
+                    for (int game = 0; game < 50; game++) {
+                        for (int played = playRandom(copy, new Random(seed * 100 + game), 30); played > 0;
+                                played--) {
+                            copy.unmakeMove();
+                        }
+                    }
+                    return state(copy).equals(original);
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(original, state(board));
+    }
+}
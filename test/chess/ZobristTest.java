@@ -0,0 +1,93 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.notation.Uci;
+
+/**
+ * Checks the incremental Zobrist key of Gameboard, in particular that the
+ * en passant file counts only when a capture en passant is possible.
+ */
+class ZobristTest
+{
+    /**
+     * Plays UCI moves from the initial position.
+     * @param moves the moves
+     * @return the board after them
+     */
+    private static Gameboard play(String... moves)
+    {
+        Gameboard board = new Gameboard();
+        for (String move : moves) {
+            board.makeMove(Uci.parse(board, move));
+        }
+        return board;
+    }
+
+    /** Move orders that reach the same position give the same key. */
+    @Test
+    void transpositionsShareKey()
+    {
+        assertEquals(play("d2d4", "g8f6", "c2c4").hashKey(), play("c2c4", "g8f6", "d2d4").hashKey());
+        assertEquals(play("e2e4", "e7e5", "g1f3").hashKey(), play("g1f3", "e7e5", "e2e4").hashKey());
+    }
+
+    /** The en passant square changes the key only when a pawn can capture on it. */
+    @Test
+    void enPassantFileCountsOnlyWhenCapturePossible()
+    {
+        assertEquals(Gameboard.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1").hashKey(),
+                Gameboard.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1").hashKey());
+        assertNotEquals(Gameboard.fromFen("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPP2PPP/RNBQKBNR b KQkq e3 0 3").hashKey(),
+                Gameboard.fromFen("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPP2PPP/RNBQKBNR b KQkq - 0 3").hashKey());
+    }
+
+    /** The incremental key matches the key of the same position set up from FEN, and unmakeMove restores it. */
+    @Test
+    void incrementalKeyMatchesFreshBoard()
+    {
+        Random random = new Random(1);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 50; game++) {
+            Gameboard board = new Gameboard();
+            long[] keys = new long[120];
+            int ply = 0;
+            for (; ply < keys.length; ply++) {
+                keys[ply] = board.hashKey();
+                assertEquals(Gameboard.fromFen(board.toFen()).hashKey(), keys[ply], board.toFen());
+                assertEquals(keys[ply], new Gameboard(board.snapshot()).hashKey());
+                int count = MoveGenerator.generateLegalMoves(board, moves);
+                if (count == 0) {
+                    break;
+                }
+                board.makeMove(moves[random.nextInt(count)]);
+            }
+            while (ply > 0) {
+                board.unmakeMove();
+                assertEquals(keys[--ply], board.hashKey());
+            }
+        }
+    }
+
+    /** A position first reached by a double push repeats when it recurs without the en passant square. */
+    @Test
+    void repetitionAfterDoublePush()
+    {
+        Gameboard board = play("e2e4", "g8f6", "g1f3", "f6g8");
+        assertFalse(board.isRepetition());
+        board.makeMove(Uci.parse(board, "f3g1"));
+        assertTrue(board.isRepetition());
+    }
+}
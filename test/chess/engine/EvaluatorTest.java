@@ -0,0 +1,85 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import chess.Gameboard;
+
+/**
+ * Checks that the tapered evaluation is symmetric between the colors and
+ * scores from the point of view of the player to move.
+ */
+class EvaluatorTest
+{
+    /**
+     * Mirrors a position across the middle rank and swaps the colors.
+     * @param fen the position
+     * @return the mirrored position, with the other player to move
+     */
+    private static String mirror(String fen)
+    {
+        String[] fields = fen.split(" ");
+        String[] ranks = fields[0].split("/");
+        StringBuilder text = new StringBuilder();
+        for (int i = ranks.length - 1; i >= 0; i--) {
+            text.append(swapCase(ranks[i])).append(i > 0 ? "/" : "");
+        }
+        text.append(fields[1].equals("w") ? " b " : " w ");
+        String castling = swapCase(fields[2]);
+        // FEN lists the white rights first
+        text.append(castling.equals("-") ? "-" : castling.replaceAll("[kq]", "") + castling.replaceAll("[KQ]", ""));
+        text.append(' ').append(fields[3].equals("-") ? "-"
+                : fields[3].charAt(0) + String.valueOf((char) ('1' + '8' - fields[3].charAt(1))));
+        return text.append(' ').append(fields[4]).append(' ').append(fields[5]).toString();
+    }
+
+    /**
+     * Swaps upper and lower case letters.
+     * @param text the text
+     * @return the text with the case of each letter swapped
+     */
+    private static String swapCase(String text)
+    {
+        StringBuilder swapped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            swapped.append(Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c));
+        }
+        return swapped.toString();
+    }
+
+    /** A position and its color-swapped mirror image score the same for the player to move. */
+    @Test
+    void symmetric()
+    {
+        String[] positions = {
+            "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+        };
+        Evaluator evaluator = new Evaluator();
+        for (String fen : positions) {
+            assertEquals(evaluator.evaluate(Gameboard.fromFen(fen)), evaluator.evaluate(Gameboard.fromFen(mirror(fen))),
+                    fen);
+        }
+    }
+
+    /** An extra queen is worth a lot to its side and costs as much to the other. */
+    @Test
+    void sideToMove()
+    {
+        Evaluator evaluator = new Evaluator();
+        int white = evaluator.evaluate(Gameboard.fromFen("4k3/8/8/8/8/8/8/3QK3 w - - 0 1"));
+        int black = evaluator.evaluate(Gameboard.fromFen("4k3/8/8/8/8/8/8/3QK3 b - - 0 1"));
+        assertTrue(white > 500, String.valueOf(white));
+        assertEquals(white, -black);
+    }
+}
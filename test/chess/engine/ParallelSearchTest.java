@@ -0,0 +1,78 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import chess.Gameboard;
+import chess.notation.Uci;
+
+/**
+ * Checks the lazy SMP search with several threads sharing one table.
+ */
+class ParallelSearchTest
+{
+    /** The table shared by the threads. */
+    private TranspositionTable table;
+
+    /** The search under test, with four threads. */
+    private ParallelSearch search;
+
+    /** Creates the search. */
+    @BeforeEach
+    void setUp()
+    {
+        table = new TranspositionTable(1);
+        search = new ParallelSearch(4, table);
+    }
+
+    /** Stops the helper threads. */
+    @AfterEach
+    void tearDown()
+    {
+        search.shutdown();
+    }
+
+    /** The threads together still find a mate in one. */
+    @Test
+    void findsMate()
+    {
+        Gameboard board = Gameboard.fromFen("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+        SearchResult result = search.search(board, Limits.depth(5));
+        assertEquals("a1a8", Uci.toString(result.getBestMove()));
+        assertTrue(result.isMate());
+        assertEquals("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1", board.toFen());
+    }
+
+    /** Searches in a row reuse the table, and what they store counts as the current search. */
+    @Test
+    void repeatedSearchesFillCurrentGeneration()
+    {
+        for (int i = 0; i < 3; i++) {
+            SearchResult result = search.search(new Gameboard(), Limits.depth(5));
+            assertEquals(5, result.getDepth());
+            assertTrue(result.getNodes() > 0);
+            assertTrue(table.hashfull() > 0);
+        }
+    }
+
+    /** One thread behaves like a plain search. */
+    @Test
+    void singleThreadMatchesSearch()
+    {
+        ParallelSearch single = new ParallelSearch(1);
+        SearchResult parallel = single.search(new Gameboard(), Limits.depth(4));
+        SearchResult plain = new Search().search(new Gameboard(), Limits.depth(4));
+        assertEquals(plain.getBestMove(), parallel.getBestMove());
+        assertEquals(plain.getScore(), parallel.getScore());
+        single.shutdown();
+    }
+}
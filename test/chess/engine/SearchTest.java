@@ -0,0 +1,117 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import chess.Gameboard;
+import chess.MoveCode;
+import chess.MoveGenerator;
+import chess.notation.Uci;
+
+/**
+ * Checks that the search finds forced mates, honors its limits and always
+ * returns a legal move when there is one.
+ */
+class SearchTest
+{
+    /**
+     * Searches a position.
+     * @param fen    the position
+     * @param limits the search budget
+     * @return the result
+     */
+    private static SearchResult search(String fen, Limits limits)
+    {
+        return new Search().search(Gameboard.fromFen(fen), limits);
+    }
+
+    /**
+     * Checks whether a move is legal in a position.
+     * @param fen  the position
+     * @param move the encoded move
+     * @return true if the move generator produces it
+     */
+    private static boolean isLegal(String fen, int move)
+    {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegalMoves(Gameboard.fromFen(fen), moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** A back rank mate for white. */
+    @Test
+    void findsBackRankMate()
+    {
+        SearchResult result = search("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1", Limits.depth(4));
+        assertEquals("a1a8", Uci.toString(result.getBestMove()));
+        assertEquals(Search.MATE - 1, result.getScore());
+        assertTrue(result.isMate());
+    }
+
+    /** A back rank mate for black. */
+    @Test
+    void findsMateForBlack()
+    {
+        SearchResult result = search("r5k1/5ppp/8/8/8/8/5PPP/6K1 b - - 0 1", Limits.depth(4));
+        assertEquals("a8a1", Uci.toString(result.getBestMove()));
+        assertEquals(Search.MATE - 1, result.getScore());
+    }
+
+    /** A mate with a capture, the queen covered by a bishop. */
+    @Test
+    void findsMateByCapture()
+    {
+        String fen = "r1bqkbnr/pppp1ppp/2n5/4p3/2B1P3/5Q2/PPPP1PPP/RNB1K1NR w KQkq - 2 3";
+        assertEquals("f3f7", Uci.toString(search(fen, Limits.depth(3)).getBestMove()));
+    }
+
+    /** A side that is already mated has no move and the score of being mated. */
+    @Test
+    void matedPositionHasNoMove()
+    {
+        SearchResult result = search("R5k1/5ppp/8/8/8/8/5PPP/6K1 b - - 0 1", Limits.depth(3));
+        assertEquals(MoveCode.NONE, result.getBestMove());
+        assertEquals(-Search.MATE, result.getScore());
+    }
+
+    /** The depth limit is the depth reported. */
+    @Test
+    void stopsAtDepthLimit()
+    {
+        assertEquals(4, new Search().search(new Gameboard(), Limits.depth(4)).getDepth());
+    }
+
+    /** The node count never goes past the node limit. */
+    @Test
+    void nodeLimitIsExact()
+    {
+        for (long limit : new long[] {1, 2, 10, 100, 1000, 5000}) {
+            assertTrue(new Search().search(new Gameboard(), Limits.nodes(limit)).getNodes() <= limit);
+        }
+    }
+
+    /** A search stopped before its first iteration completes reports depth 0 and still a legal move. */
+    @Test
+    void tinyLimitReturnsLegalMove()
+    {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        for (long limit = 1; limit <= 64; limit *= 2) {
+            SearchResult result = search(fen, Limits.nodes(limit));
+            assertTrue(isLegal(fen, result.getBestMove()), "node limit " + limit);
+            assertTrue(result.getDepth() > 0 || result.getPv().length == 1);
+        }
+        assertEquals(0, search(fen, Limits.nodes(1)).getDepth());
+    }
+}
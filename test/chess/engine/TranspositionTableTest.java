@@ -0,0 +1,140 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Field;
+
+import org.junit.jupiter.api.Test;
+
+import chess.MoveCode;
+import chess.utils.Square;
+
+/**
+ * Checks storing and probing the transposition table, both replacement
+ * policies, aging by search generation and the rejection of torn entries.
+ */
+class TranspositionTableTest
+{
+    /** A key of the table. */
+    private static final long KEY = 0x123456789ABCDEF0L;
+
+    /** A different key that maps to the same slot as KEY in any table. */
+    private static final long OTHER = KEY ^ 1L << 40;
+
+    /** A move to store. */
+    private static final int MOVE = MoveCode.encode(Square.E2, Square.E4, null, MoveCode.DOUBLE_PUSH);
+
+    /** Every field of an entry reads back as it was stored. */
+    @Test
+    void storeAndProbe()
+    {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(0L, table.probe(KEY));
+        table.store(KEY, 7, TranspositionTable.LOWER, -1234, MOVE);
+        long data = table.probe(KEY);
+        assertEquals(MOVE, TranspositionTable.move(data));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data));
+        assertEquals(7, TranspositionTable.depth(data));
+        assertEquals(-1234, TranspositionTable.score(data));
+        assertEquals(0L, table.probe(OTHER));
+    }
+
+    /** A result without a move keeps the move of an earlier result of the same position. */
+    @Test
+    void keepsEarlierMove()
+    {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(KEY, 3, TranspositionTable.EXACT, 10, MOVE);
+        table.store(KEY, 4, TranspositionTable.UPPER, -5, MoveCode.NONE);
+        long data = table.probe(KEY);
+        assertEquals(MOVE, TranspositionTable.move(data));
+        assertEquals(4, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(data));
+    }
+
+    /** Depths above 255 are stored as 255. */
+    @Test
+    void clampsDepth()
+    {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(KEY, 300, TranspositionTable.EXACT, 0, MOVE);
+        assertEquals(255, TranspositionTable.depth(table.probe(KEY)));
+    }
+
+    /** Depth-preferred replacement keeps the deeper result of the current search only. */
+    @Test
+    void depthPreferred()
+    {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        table.store(KEY, 8, TranspositionTable.EXACT, 50, MOVE);
+        table.store(OTHER, 2, TranspositionTable.EXACT, 60, MOVE);
+        assertEquals(8, TranspositionTable.depth(table.probe(KEY)));
+        assertEquals(0L, table.probe(OTHER));
+
+        table.store(KEY, 1, TranspositionTable.EXACT, 70, MOVE);
+        assertEquals(70, TranspositionTable.score(table.probe(KEY)));
+
+        table.store(KEY, 8, TranspositionTable.EXACT, 50, MOVE);
+        table.newSearch();
+        table.store(OTHER, 2, TranspositionTable.EXACT, 60, MOVE);
+        assertEquals(0L, table.probe(KEY));
+        assertEquals(60, TranspositionTable.score(table.probe(OTHER)));
+    }
+
+    /** Always-replace overwrites a deeper result of another position. */
+    @Test
+    void alwaysReplace()
+    {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+        table.store(KEY, 8, TranspositionTable.EXACT, 50, MOVE);
+        table.store(OTHER, 2, TranspositionTable.EXACT, 60, MOVE);
+        assertEquals(0L, table.probe(KEY));
+        assertEquals(2, TranspositionTable.depth(table.probe(OTHER)));
+    }
+
+    /** hashfull counts only the entries written by the current search. */
+    @Test
+    void hashfullAges()
+    {
+        TranspositionTable table = new TranspositionTable(1);
+        for (long i = 0; i < 500; i++) {
+            table.store(i | 1L << 40, 1, TranspositionTable.EXACT, 0, MOVE);
+        }
+        assertEquals(500, table.hashfull());
+        table.newSearch();
+        assertEquals(0, table.hashfull());
+        table.store(KEY, 1, TranspositionTable.EXACT, 0, MOVE);
+        table.clear();
+        assertEquals(0L, table.probe(KEY));
+    }
+
+    /** An entry whose two words no longer match, as after a torn write, reads as a miss. */
+    @Test
+    void rejectsTornEntry() throws ReflectiveOperationException
+    {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(KEY, 5, TranspositionTable.EXACT, 42, MOVE);
+        Field field = TranspositionTable.class.getDeclaredField("table");
+        field.setAccessible(true);
+        long[] words = (long[]) field.get(table);
+        int index = ((int) KEY & (table.capacity() - 1)) << 1;
+        words[index + 1] ^= 1L << 48;
+        assertEquals(0L, table.probe(KEY));
+    }
+
+    /** The capacity is the largest power of two that fits, and a table needs at least a megabyte. */
+    @Test
+    void capacity()
+    {
+        assertEquals(1 << 16, new TranspositionTable(1).capacity());
+        assertEquals(1 << 16, new TranspositionTable(3).capacity() / 2);
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(-1));
+    }
+}
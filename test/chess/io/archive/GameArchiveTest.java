@@ -0,0 +1,199 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.archive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import chess.Gameboard;
+import chess.MoveGenerator;
+import chess.io.pgn.PgnGame;
+
+/**
+ * Checks GameArchive on archives written by GameArchiveWriter.
+ */
+class GameArchiveTest
+{
+    /** The directory the archives are written to, deleted after each test. */
+    @TempDir
+    Path directory;
+
+    /**
+     * Plays a random game.
+     * @param random the source of the moves
+     * @param fen    the starting position, or null for the initial position
+     * @param plies  the largest number of plies to play
+     * @return the game, with a few tags and a result
+     */
+    private static PgnGame randomGame(Random random, String fen, int plies)
+    {
+        PgnGame game = new PgnGame();
+        game.setTag("Event", "Test " + random.nextInt(1000));
+        game.setTag("White", "M\u00fcller");
+        game.setTag("Black", "\u014cta");
+        if (fen != null) {
+            game.setTag("SetUp", "1");
+            game.setTag("FEN", fen);
+        }
+        String[] results = {"1-0", "0-1", "1/2-1/2", "*"};
+        game.setResult(results[random.nextInt(results.length)]);
+        Gameboard board = game.createBoard();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < plies; ply++) {
+            int count = MoveGenerator.generateLegalMoves(board, moves);
+            if (count == 0) {
+                break;
+            }
+            int move = moves[random.nextInt(count)];
+            board.makeMove(move);
+            game.addMove(move);
+        }
+        return game;
+    }
+
+    /**
+     * Writes games to a new archive.
+     * @param games the games
+     * @return the archive file
+     * @throws IOException if the file cannot be written
+     */
+    private Path write(List<PgnGame> games) throws IOException
+    {
+        Path path = directory.resolve("games.cga");
+        try (GameArchiveWriter writer = new GameArchiveWriter(path)) {
+            for (int i = 0; i < games.size(); i++) {
+                assertEquals(i, writer.add(games.get(i)));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Checks that games written to an archive are read back with the same
+     * tags, moves and results, in the order they were added.
+     * @throws IOException if the archive cannot be written or read
+     */
+    @Test
+    void roundTripsGames() throws IOException
+    {
+        Random random = new Random(23);
+        List<PgnGame> games = new ArrayList<>();
+        games.add(new PgnGame());
+        for (int i = 0; i < 300; i++) {
+            games.add(randomGame(random, null, 1 + random.nextInt(300)));
+        }
+        games.add(randomGame(random, "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", 40));
+        try (GameArchive archive = GameArchive.open(write(games))) {
+            assertEquals(games.size(), archive.getGameCount());
+            for (int i = 0; i < games.size(); i++) {
+                PgnGame expected = games.get(i);
+                PgnGame actual = archive.getGame(i);
+                assertEquals(expected.getMoveCount(), archive.getMoveCount(i));
+                assertEquals(expected.getResult(), archive.getResult(i));
+                assertEquals(expected.getTags(), archive.getTags(i));
+                assertEquals(List.copyOf(expected.getTags().keySet()), List.copyOf(archive.getTags(i).keySet()));
+                assertArrayEquals(expected.getMoves(), actual.getMoves());
+                assertEquals(expected.getResult(), actual.getResult());
+                assertEquals(expected.getTags(), actual.getTags());
+            }
+        }
+    }
+
+    /**
+     * Checks that replaying a game to any ply gives the position the game
+     * reaches there, from the initial position or a FEN tag.
+     * @throws IOException if the archive cannot be written or read
+     */
+    @Test
+    void replaysPositions() throws IOException
+    {
+        Random random = new Random(230);
+        List<PgnGame> games = new ArrayList<>();
+        games.add(randomGame(random, null, 80));
+        games.add(randomGame(random, "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", 30));
+        try (GameArchive archive = GameArchive.open(write(games))) {
+            for (int i = 0; i < games.size(); i++) {
+                PgnGame game = games.get(i);
+                for (int ply = 0; ply <= game.getMoveCount(); ply++) {
+                    Gameboard board = archive.replay(i, ply);
+                    assertEquals(game.replay(ply).toFen(), board.toFen());
+                    assertEquals(game.replay(ply).hashKey(), board.hashKey());
+                }
+                long number = i;
+                assertThrows(IllegalArgumentException.class, () -> archive.replay(number, -1));
+                assertThrows(IllegalArgumentException.class, () -> archive.replay(number, game.getMoveCount() + 1));
+            }
+        }
+    }
+
+    /**
+     * Checks that every result marker is kept.
+     * @throws IOException if the archive cannot be written or read
+     */
+    @Test
+    void storesResults() throws IOException
+    {
+        String[] results = {"1-0", "0-1", "1/2-1/2", "*"};
+        List<PgnGame> games = new ArrayList<>();
+        for (String result : results) {
+            PgnGame game = new PgnGame();
+            game.setResult(result);
+            games.add(game);
+        }
+        try (GameArchive archive = GameArchive.open(write(games))) {
+            for (int i = 0; i < results.length; i++) {
+                assertEquals(results[i], archive.getResult(i));
+                assertEquals(results[i], archive.getGame(i).getResult());
+            }
+        }
+    }
+
+    /**
+     * Checks that game numbers outside the archive and games the format
+     * cannot hold are rejected.
+     * @throws IOException if the archive cannot be written or read
+     */
+    @Test
+    void rejectsInvalidGames() throws IOException
+    {
+        try (GameArchive archive = GameArchive.open(write(List.of(new PgnGame())))) {
+            assertThrows(IllegalArgumentException.class, () -> archive.getGame(1));
+            assertThrows(IllegalArgumentException.class, () -> archive.getTags(-1));
+        }
+        PgnGame tagged = new PgnGame();
+        for (int i = 0; i < 256; i++) {
+            tagged.setTag("Tag" + i, "x");
+        }
+        try (GameArchiveWriter writer = new GameArchiveWriter(directory.resolve("tags.cga"))) {
+            assertThrows(IllegalArgumentException.class, () -> writer.add(tagged));
+        }
+    }
+
+    /**
+     * Checks that a file that is not an archive is not opened.
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    void rejectsOtherFiles() throws IOException
+    {
+        Path path = directory.resolve("other.cga");
+        Files.writeString(path, "[Event \"not an archive\"]\n\n1. e4 e5 *\n");
+        assertThrows(IOException.class, () -> GameArchive.open(path));
+        Files.write(path, new byte[4]);
+        assertThrows(IOException.class, () -> GameArchive.open(path));
+    }
+}
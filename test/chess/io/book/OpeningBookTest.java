@@ -0,0 +1,404 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.book;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import chess.Gameboard;
+import chess.MoveCode;
+import chess.MoveGenerator;
+import chess.engine.Limits;
+import chess.engine.Search;
+import chess.engine.SearchResult;
+import chess.io.pgn.PgnGame;
+import chess.io.pgn.PgnReader;
+import chess.notation.San;
+import chess.notation.Uci;
+
+/**
+ * Checks OpeningBook on books written by OpeningBookBuilder, and the
+ * BookKey functions they are keyed with.
+ */
+class OpeningBookTest
+{
+    /** The key function of the books built here. */
+    private static final BookKey KEYS = BookKey.generated(25);
+
+    /** The directory the books are written to, deleted after each test. */
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates a game from its moves.
+     * @param fen    the starting position, or null for the initial position
+     * @param result the game result
+     * @param moves  the moves in SAN
+     * @return the game
+     */
+    private static PgnGame game(String fen, String result, String... moves)
+    {
+        PgnGame game = new PgnGame();
+        if (fen != null) {
+            game.setTag("FEN", fen);
+        }
+        game.setResult(result);
+        Gameboard board = game.createBoard();
+        for (String text : moves) {
+            int move = San.parse(board, text);
+            assertNotEquals(MoveCode.NONE, move, text);
+            board.makeMove(move);
+            game.addMove(move);
+        }
+        return game;
+    }
+
+    /**
+     * Writes a builder's book to a new file and opens it.
+     * @param builder the builder
+     * @return the book
+     * @throws IOException if the book cannot be written or read
+     */
+    private OpeningBook open(OpeningBookBuilder builder) throws IOException
+    {
+        Path path = directory.resolve("book.bin");
+        builder.write(path);
+        return OpeningBook.open(path, KEYS);
+    }
+
+    /**
+     * Returns the book moves of a position in SAN with their weights.
+     * @param book  the book
+     * @param board the position
+     * @return the moves, e.g. "e4 4"
+     */
+    private static String[] moves(OpeningBook book, Gameboard board)
+    {
+        List<BookMove> moves = book.getMoves(board);
+        String[] text = new String[moves.size()];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = San.toString(board, moves.get(i).getMove()) + " " + moves.get(i).getWeight();
+        }
+        return text;
+    }
+
+    /**
+     * Checks that a built book gives each move the score of the games that
+     * played it, leaves out losing moves and unfinished games, and sorts
+     * the moves of a position by weight.
+     * @throws IOException if the book cannot be written or read
+     */
+    @Test
+    void roundTripsWeights() throws IOException
+    {
+        OpeningBookBuilder builder = new OpeningBookBuilder(KEYS);
+        builder.addGame(game(null, "1-0", "e4", "e5"));
+        builder.addGame(game(null, "1-0", "e4", "e5"));
+        builder.addGame(game(null, "0-1", "e4", "c5"));
+        builder.addGame(game(null, "1/2-1/2", "d4", "d5"));
+        builder.addGame(game(null, "0-1", "Nf3"));
+        builder.addGame(game(null, "*", "c4"));
+        try (OpeningBook book = open(builder)) {
+            assertEquals(4, book.getEntryCount());
+            Gameboard board = new Gameboard();
+            assertArrayEquals(new String[] {"e4 4", "d4 1"}, moves(book, board));
+            assertEquals(San.parse(board, "e4"), book.bestMove(board));
+            board.makeMove(San.parse(board, "e4"));
+            assertArrayEquals(new String[] {"c5 2"}, moves(book, board));
+            board.makeMove(San.parse(board, "e5"));
+            assertArrayEquals(new String[0], moves(book, board));
+            assertEquals(MoveCode.NONE, book.bestMove(board));
+            assertEquals(MoveCode.NONE, book.pickMove(board, new Random(1)));
+            board = new Gameboard();
+            board.makeMove(San.parse(board, "d4"));
+            assertArrayEquals(new String[] {"d5 1"}, moves(book, board));
+        }
+        try (OpeningBook book = OpeningBook.open(directory.resolve("book.bin"), BookKey.generated(26))) {
+            assertArrayEquals(new String[0], moves(book, new Gameboard()));
+        }
+    }
+
+    /**
+     * Checks that weights beyond 16 bits are scaled down within their
+     * position, keeping every move in the book.
+     * @throws IOException if the book cannot be written or read
+     */
+    @Test
+    void scalesWeights() throws IOException
+    {
+        OpeningBookBuilder builder = new OpeningBookBuilder(KEYS);
+        for (int i = 0; i < 40000; i++) {
+            builder.addGame(game(null, "1-0", "e4"));
+        }
+        for (int i = 0; i < 10; i++) {
+            builder.addGame(game(null, "1/2-1/2", "d4"));
+        }
+        builder.addGame(game(null, "1/2-1/2", "c4"));
+        try (OpeningBook book = open(builder)) {
+            assertArrayEquals(new String[] {"e4 65535", "d4 8", "c4 1"}, moves(book, new Gameboard()));
+        }
+    }
+
+    /**
+     * Checks that only the first plies of each game go into the book.
+     * @throws IOException if the book cannot be written or read
+     */
+    @Test
+    void limitsPlies() throws IOException
+    {
+        OpeningBookBuilder builder = new OpeningBookBuilder(KEYS);
+        assertThrows(IllegalArgumentException.class, () -> builder.setMaxPly(0));
+        builder.setMaxPly(1);
+        builder.addGame(game(null, "1/2-1/2", "e4", "e5", "Nf3"));
+        try (OpeningBook book = open(builder)) {
+            assertEquals(1, book.getEntryCount());
+        }
+    }
+
+    /**
+     * Checks that book moves are weighted at random in proportion to their
+     * weights.
+     * @throws IOException if the book cannot be written or read
+     */
+    @Test
+    void picksByWeight() throws IOException
+    {
+        OpeningBookBuilder builder = new OpeningBookBuilder(KEYS);
+        for (int i = 0; i < 3; i++) {
+            builder.addGame(game(null, "1-0", "e4"));
+        }
+        builder.addGame(game(null, "1-0", "d4"));
+        try (OpeningBook book = open(builder)) {
+            Gameboard board = new Gameboard();
+            int e4 = San.parse(board, "e4");
+            int d4 = San.parse(board, "d4");
+            Random random = new Random(25);
+            int count = 0;
+            for (int i = 0; i < 4000; i++) {
+                int move = book.pickMove(board, random);
+                assertTrue(move == e4 || move == d4);
+                count += move == e4 ? 1 : 0;
+            }
+            assertTrue(count > 2800 && count < 3200, "e4 picked " + count + " times");
+        }
+    }
+
+    /**
+     * Checks that castling is stored as the king taking its own rook and
+     * read back as the castling move, and that promotions keep their piece.
+     * @throws IOException if the book cannot be written or read
+     */
+    @Test
+    void encodesCastlingAndPromotions() throws IOException
+    {
+        Gameboard board = Gameboard.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertEquals(0x107, OpeningBook.fromMove(San.parse(board, "O-O")));
+        assertEquals(0x100, OpeningBook.fromMove(San.parse(board, "O-O-O")));
+        board.makeMove(San.parse(board, "Kf1"));
+        assertEquals(0xF3F, OpeningBook.fromMove(San.parse(board, "O-O")));
+        assertEquals(0xF38, OpeningBook.fromMove(San.parse(board, "O-O-O")));
+        board = Gameboard.fromFen("8/P6k/8/8/8/8/8/4K3 w - - 0 1");
+        assertEquals(0x1C38, OpeningBook.fromMove(San.parse(board, "a8=N")));
+        assertEquals(0x4C38, OpeningBook.fromMove(San.parse(board, "a8=Q")));
+
+        String fen = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1";
+        OpeningBookBuilder builder = new OpeningBookBuilder(KEYS);
+        builder.addGame(game(fen, "1-0", "O-O", "O-O-O"));
+        try (OpeningBook book = open(builder)) {
+            board = Gameboard.fromFen(fen);
+            int castle = book.bestMove(board);
+            assertTrue(MoveCode.isCastle(castle));
+            assertEquals(San.parse(board, "O-O"), castle);
+            board.makeMove(castle);
+            assertArrayEquals(new String[0], moves(book, board));
+        }
+    }
+
+    /**
+     * Checks that every legal move in random games survives the book
+     * encoding.
+     */
+    @Test
+    void roundTripsMoves()
+    {
+        Random random = new Random(250);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 50; game++) {
+            Gameboard board = new Gameboard();
+            for (int ply = 0; ply < 150; ply++) {
+                int count = MoveGenerator.generateLegalMoves(board, moves);
+                if (count == 0) {
+                    break;
+                }
+                for (int i = 0; i < count; i++) {
+                    assertEquals(moves[i], OpeningBook.toMove(board, OpeningBook.fromMove(moves[i]), buffer));
+                }
+                board.makeMove(moves[random.nextInt(count)]);
+            }
+        }
+    }
+
+    /**
+     * Checks that the key depends on the player to move, and counts the en
+     * passant file only when a capture en passant is possible.
+     */
+    @Test
+    void hashesPositions()
+    {
+        Gameboard board = new Gameboard();
+        board.makeMove(San.parse(board, "e4"));
+        assertEquals(KEYS.hash(Gameboard.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")),
+                KEYS.hash(board));
+        assertNotEquals(KEYS.hash(Gameboard.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 1")),
+                KEYS.hash(board));
+        String capturable = "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1";
+        assertNotEquals(KEYS.hash(Gameboard.fromFen(capturable)),
+                KEYS.hash(Gameboard.fromFen(capturable.replace("d6", "-"))));
+        assertNotEquals(KEYS.hash(new Gameboard()), BookKey.generated(26).hash(new Gameboard()));
+    }
+
+    /**
+     * Checks the Polyglot keys against the keys published with the
+     * Polyglot book format, which cover every kind of key value. Runs
+     * only where the Polyglot table is on the class path.
+     */
+    @Test
+    void matchesPolyglotKeys()
+    {
+        assumeTrue(BookKey.class.getResource(BookKey.POLYGLOT_RESOURCE) != null,
+                "the Polyglot table is not on the class path");
+        String[][] games = {
+            {},
+            {"e2e4"},
+            {"e2e4", "d7d5"},
+            {"e2e4", "d7d5", "e4e5"},
+            {"e2e4", "d7d5", "e4e5", "f7f5"},
+            {"e2e4", "d7d5", "e4e5", "f7f5", "e1e2"},
+            {"e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7"},
+            {"a2a4", "b7b5", "h2h4", "b5b4", "c2c4"},
+            {"a2a4", "b7b5", "h2h4", "b5b4", "c2c4", "b4c3", "a1a3"}
+        };
+        long[] keys = {
+            0x463b96181691fc9cL, 0x823c9b50fd114196L, 0x0756b94461c50fb0L,
+            0x662fafb965db29d4L, 0x22a48b5a8e47ff78L, 0x652a607ca3f242c1L,
+            0x00fdd303c946bdd9L, 0x3c8123ea7b067637L, 0x5c3f9b829b279560L
+        };
+        for (int i = 0; i < games.length; i++) {
+            Gameboard board = new Gameboard();
+            for (String move : games[i]) {
+                board.makeMove(Uci.parse(board, move));
+            }
+            assertEquals(keys[i], BookKey.polyglot().hash(board), String.join(" ", games[i]));
+        }
+    }
+
+    /** Asking for the Polyglot keys without their table on the class path fails with a clear error. */
+    @Test
+    void requiresPolyglotTable()
+    {
+        assumeTrue(BookKey.class.getResource(BookKey.POLYGLOT_RESOURCE) == null,
+                "the Polyglot table is on the class path");
+        assertThrows(IllegalStateException.class, BookKey::polyglot);
+    }
+
+    /**
+     * Checks that a table read from its 781 big-endian values gives the
+     * same keys, and that short or wrong-sized tables are rejected.
+     * @throws IOException never, the input being in memory
+     */
+    @Test
+    void readsTables() throws IOException
+    {
+        Random source = new Random(781);
+        long[] random = new long[BookKey.RANDOM_COUNT];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int i = 0; i < BookKey.RANDOM_COUNT; i++) {
+            random[i] = source.nextLong();
+            out.writeLong(random[i]);
+        }
+        BookKey read = BookKey.read(new ByteArrayInputStream(bytes.toByteArray()));
+        BookKey table = new BookKey(random);
+        Random moves = new Random(782);
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        Gameboard board = new Gameboard();
+        for (int ply = 0; ply < 100; ply++) {
+            assertEquals(table.hash(board), read.hash(board));
+            int count = MoveGenerator.generateLegalMoves(board, buffer);
+            if (count == 0) {
+                break;
+            }
+            board.makeMove(buffer[moves.nextInt(count)]);
+        }
+        byte[] truncated = new byte[BookKey.RANDOM_COUNT * 8 - 1];
+        assertThrows(IOException.class, () -> BookKey.read(new ByteArrayInputStream(truncated)));
+        assertThrows(IllegalArgumentException.class, () -> new BookKey(new long[BookKey.RANDOM_COUNT - 1]));
+    }
+
+    /**
+     * Checks that games are read into the book from PGN, skipping those
+     * that cannot be read.
+     * @throws IOException if the input or book cannot be read
+     */
+    @Test
+    void addsPgn() throws IOException
+    {
+        String pgn = "[Event \"a\"]\n\n1. e4 e5 1-0\n\n"
+                + "[Event \"b\"]\n\n1. e4 Ke7 0-1\n\n"
+                + "[Event \"c\"]\n\n1. d4 d5 1/2-1/2\n";
+        OpeningBookBuilder builder = new OpeningBookBuilder(KEYS);
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(2, builder.addAll(reader));
+        }
+        try (OpeningBook book = open(builder)) {
+            assertArrayEquals(new String[] {"e4 2", "d4 1"}, moves(book, new Gameboard()));
+        }
+    }
+
+    /**
+     * Checks that a search with a book plays a book move at once, at depth
+     * 0, and searches positions the book does not know.
+     * @throws IOException if the book cannot be written or read
+     */
+    @Test
+    void feedsSearch() throws IOException
+    {
+        OpeningBookBuilder builder = new OpeningBookBuilder(KEYS);
+        builder.addGame(game(null, "1-0", "Nc3"));
+        try (OpeningBook book = open(builder)) {
+            Search search = new Search();
+            Random random = new Random(1);
+            search.setBook(position -> book.pickMove(position, random));
+            Gameboard board = new Gameboard();
+            SearchResult result = search.search(board, Limits.depth(6));
+            assertEquals(San.parse(board, "Nc3"), result.getBestMove());
+            assertEquals(0, result.getDepth());
+            assertArrayEquals(new int[] {result.getBestMove()}, result.getPv());
+
+            board.makeMove(result.getBestMove());
+            result = search.search(board, Limits.depth(2));
+            assertEquals(2, result.getDepth());
+            assertNotEquals(MoveCode.NONE, result.getBestMove());
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import chess.Gameboard;
+import chess.MoveCode;
+import chess.MoveGenerator;
+import chess.io.archive.GameArchive;
+import chess.io.archive.GameArchiveWriter;
+import chess.io.pgn.PgnGame;
+import chess.notation.San;
+
+/**
+ * Checks PositionIndex on indexes built by PositionIndexBuilder.
+ */
+class PositionIndexTest
+{
+    /** The directory the indexes are written to, deleted after each test. */
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates a game from its moves.
+     * @param result the game result
+     * @param moves  the moves in SAN
+     * @return the game
+     */
+    private static PgnGame game(String result, String... moves)
+    {
+        PgnGame game = new PgnGame();
+        game.setResult(result);
+        Gameboard board = game.createBoard();
+        for (String text : moves) {
+            int move = San.parse(board, text);
+            assertTrue(move != MoveCode.NONE, text);
+            board.makeMove(move);
+            game.addMove(move);
+        }
+        return game;
+    }
+
+    /**
+     * Returns the position after some moves from the initial position.
+     * @param moves the moves in SAN
+     * @return a new game board
+     */
+    private static Gameboard position(String... moves)
+    {
+        return game("*", moves).replay(moves.length);
+    }
+
+    /**
+     * Plays random games.
+     * @param seed  the seed of the moves
+     * @param count the number of games
+     * @return the games
+     */
+    private static List<PgnGame> randomGames(long seed, int count)
+    {
+        Random random = new Random(seed);
+        String[] results = {"1-0", "0-1", "1/2-1/2", "*"};
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        List<PgnGame> games = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PgnGame game = new PgnGame();
+            game.setResult(results[random.nextInt(results.length)]);
+            Gameboard board = game.createBoard();
+            for (int ply = random.nextInt(60); ply > 0; ply--) {
+                int moveCount = MoveGenerator.generateLegalMoves(board, moves);
+                if (moveCount == 0) {
+                    break;
+                }
+                int move = moves[random.nextInt(moveCount)];
+                board.makeMove(move);
+                game.addMove(move);
+            }
+            games.add(game);
+        }
+        return games;
+    }
+
+    /**
+     * Builds an index of games numbered from 0.
+     * @param name    the name of the index file
+     * @param runSize the number of entries sorted in memory at once
+     * @param games   the games
+     * @return the index file
+     * @throws IOException if the index cannot be written
+     */
+    private Path build(String name, int runSize, List<PgnGame> games) throws IOException
+    {
+        Path path = directory.resolve(name);
+        try (PositionIndexBuilder builder = new PositionIndexBuilder(path, runSize)) {
+            for (int i = 0; i < games.size(); i++) {
+                builder.addGame(i, games.get(i));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Checks that a position is found in every game that reached it,
+     * whatever the move order, including after a double push that allows
+     * no capture en passant.
+     * @throws IOException if the index cannot be written or read
+     */
+    @Test
+    void findsTranspositions() throws IOException
+    {
+        List<PgnGame> games = List.of(
+                game("1-0", "d4", "Nf6", "c4", "e6"),
+                game("0-1", "c4", "Nf6", "d4", "e6"),
+                game("1/2-1/2", "e4", "e5"),
+                game("*", "c4", "e6", "d4", "Nf6"));
+        try (PositionIndex index = PositionIndex.open(build("games.cpi", 1 << 10, games))) {
+            assertEquals(5 + 5 + 3 + 5, index.getEntryCount());
+            assertArrayEquals(new long[] {0, 1, 2, 3}, index.findGames(new Gameboard()));
+            assertEquals(4, index.count(new Gameboard().hashKey()));
+            assertArrayEquals(new long[] {0, 1}, index.findGames(position("d4", "Nf6", "c4")));
+            assertArrayEquals(new long[] {0, 1, 3}, index.findGames(position("d4", "Nf6", "c4", "e6")));
+            assertArrayEquals(new long[] {2}, index.findGames(position("e4", "e5")));
+            assertArrayEquals(new long[0], index.findGames(position("e4", "c5")));
+        }
+    }
+
+    /**
+     * Checks that the ply, move and result of each entry are stored.
+     * @throws IOException if the index cannot be written or read
+     */
+    @Test
+    void storesEntries() throws IOException
+    {
+        PgnGame game = game("0-1", "e4", "e5", "Nf3");
+        try (PositionIndex index = PositionIndex.open(build("game.cpi", 1 << 10, List.of(game)))) {
+            for (int ply = 0; ply <= game.getMoveCount(); ply++) {
+                long entry = index.lowerBound(game.replay(ply).hashKey());
+                assertEquals(game.replay(ply).hashKey(), index.getKey(entry));
+                assertEquals(0, index.getGame(entry));
+                assertEquals(ply, index.getPly(entry));
+                assertEquals("0-1", index.getResult(entry));
+                int move = ply < game.getMoveCount() ? game.getMove(ply) : MoveCode.NONE;
+                assertEquals(move, index.getMove(entry));
+            }
+        }
+    }
+
+    /**
+     * Checks that game numbers up to the largest one keep their order,
+     * including those that set the top bit of an entry value.
+     * @throws IOException if the index cannot be written or read
+     */
+    @Test
+    void ordersLargeGameNumbers() throws IOException
+    {
+        long[] ids = {PositionIndex.MAX_GAME, 1L << 29, 5, 0, (1L << 29) - 1};
+        Path path = directory.resolve("large.cpi");
+        try (PositionIndexBuilder builder = new PositionIndexBuilder(path, 2)) {
+            for (long id : ids) {
+                builder.addGame(id, game("1-0", "e4"));
+            }
+            PgnGame game = game("*");
+            assertThrows(IllegalArgumentException.class, () -> builder.addGame(PositionIndex.MAX_GAME + 1, game));
+            assertThrows(IllegalArgumentException.class, () -> builder.addGame(-1, game));
+        }
+        long[] sorted = {0, 5, (1L << 29) - 1, 1L << 29, PositionIndex.MAX_GAME};
+        try (PositionIndex index = PositionIndex.open(path)) {
+            assertArrayEquals(sorted, index.findGames(new Gameboard()));
+            assertArrayEquals(sorted, index.findGames(position("e4")));
+        }
+    }
+
+    /**
+     * Checks the move statistics of a position, counting each result and
+     * leaving out games that ended there.
+     * @throws IOException if the index cannot be written or read
+     */
+    @Test
+    void countsMoves() throws IOException
+    {
+        List<PgnGame> games = List.of(
+                game("1-0", "e4", "e5"),
+                game("0-1", "e4", "c5"),
+                game("1/2-1/2", "e4", "e5", "Nf3"),
+                game("*", "d4"),
+                game("1-0"));
+        try (PositionIndex index = PositionIndex.open(build("stats.cpi", 3, games))) {
+            List<MoveStatistics> statistics = index.getMoveStatistics(new Gameboard());
+            assertEquals(2, statistics.size());
+            MoveStatistics e4 = statistics.get(0);
+            assertEquals(San.parse(new Gameboard(), "e4"), e4.getMove());
+            assertEquals(3, e4.getGames());
+            assertEquals(1, e4.getWhiteWins());
+            assertEquals(1, e4.getDraws());
+            assertEquals(1, e4.getBlackWins());
+            MoveStatistics d4 = statistics.get(1);
+            assertEquals(San.parse(new Gameboard(), "d4"), d4.getMove());
+            assertEquals(1, d4.getGames());
+            assertEquals(0, d4.getWhiteWins() + d4.getDraws() + d4.getBlackWins());
+
+            Gameboard board = position("e4", "e5");
+            statistics = index.getMoveStatistics(board);
+            assertEquals(1, statistics.size());
+            assertEquals(San.parse(board, "Nf3"), statistics.get(0).getMove());
+            assertEquals(1, statistics.get(0).getGames());
+            assertEquals(1, statistics.get(0).getDraws());
+        }
+    }
+
+    /**
+     * Checks that an index merged from many small runs is the same file as
+     * one sorted in memory, and is the same when built from an archive;
+     * and that the run files are deleted.
+     * @throws IOException if a file cannot be written or read
+     */
+    @Test
+    void mergesRuns() throws IOException
+    {
+        List<PgnGame> games = randomGames(24, 300);
+        Path merged = build("merged.cpi", 7, games);
+        Path sorted = build("sorted.cpi", PositionIndexBuilder.DEFAULT_RUN_SIZE, games);
+        assertEquals(-1, Files.mismatch(merged, sorted));
+
+        Path archivePath = directory.resolve("games.cga");
+        try (GameArchiveWriter writer = new GameArchiveWriter(archivePath)) {
+            for (PgnGame game : games) {
+                writer.add(game);
+            }
+        }
+        Path fromArchive = directory.resolve("archive.cpi");
+        try (GameArchive archive = GameArchive.open(archivePath);
+                PositionIndexBuilder builder = new PositionIndexBuilder(fromArchive, 100)) {
+            builder.addArchive(archive);
+        }
+        assertEquals(-1, Files.mismatch(merged, fromArchive));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.filter(file -> file.toString().endsWith(".run")).count());
+        }
+
+        try (PositionIndex index = PositionIndex.open(merged)) {
+            long entries = 0;
+            for (PgnGame game : games) {
+                entries += game.getMoveCount() + 1;
+            }
+            assertEquals(entries, index.getEntryCount());
+            for (long entry = 1; entry < index.getEntryCount(); entry++) {
+                assertTrue(index.getKey(entry - 1) <= index.getKey(entry));
+            }
+            for (int i = 0; i < games.size(); i++) {
+                PgnGame game = games.get(i);
+                for (int ply = 0; ply <= game.getMoveCount(); ply++) {
+                    long[] found = index.findGames(game.replay(ply));
+                    assertTrue(Arrays.binarySearch(found, i) >= 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that a file that is not an index is not opened.
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    void rejectsOtherFiles() throws IOException
+    {
+        Path path = directory.resolve("other.cpi");
+        Files.write(path, new byte[64]);
+        assertThrows(IOException.class, () -> PositionIndex.open(path));
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.pgn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks PgnReader on games with tags, comments, variations and errors.
+ */
+class PgnReaderTest
+{
+    /** A short game using most of the movetext syntax. */
+    private static final String GAME = "[Event \"Casual\"]\n"
+            + "[Site \"?\"]\n"
+            + "[White \"Anderssen\"]\n"
+            + "[Black \"Kieseritzky\"]\n"
+            + "[Result \"1-0\"]\n"
+            + "\n"
+            + "{Opening} 1. e4 e5 2. f4 exf4 $1 3. Bc4 (3. Nf3 g5 (3... d6)) 3... Qh4+ 4. Kf1 ; the king walks\n"
+            + "b5 {Bryan} 5. Bxb5 1-0\n";
+
+    /**
+     * Creates a reader of a string.
+     * @param pgn the PGN text
+     * @return the reader
+     */
+    private static PgnReader reader(String pgn)
+    {
+        return new PgnReader(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** Tags, moves and the result are read, and the moves replay to the final position. */
+    @Test
+    void readsTagsMovesAndResult() throws IOException
+    {
+        try (PgnReader reader = reader(GAME)) {
+            PgnGame game = reader.next();
+            assertEquals("Anderssen", game.getTag("White"));
+            assertEquals("1-0", game.getResult());
+            assertEquals(9, game.getMoveCount());
+            assertEquals("rnb1kbnr/p1pp1ppp/8/1B6/4Pp1q/8/PPPP2PP/RNBQ1KNR b kq - 0 5",
+                    game.replay(game.getMoveCount()).toFen());
+            assertNull(game.getComment(0));
+            assertTrue(game.getVariations(4).isEmpty());
+            assertNull(reader.next());
+        }
+    }
+
+    /** Comments and variations are kept by ply when asked for. */
+    @Test
+    void keepsCommentsAndVariations() throws IOException
+    {
+        try (PgnReader reader = reader(GAME)) {
+            reader.setKeepComments(true);
+            reader.setKeepVariations(true);
+            PgnGame game = reader.next();
+            assertEquals("Opening", game.getComment(0));
+            assertEquals("the king walks", game.getComment(7));
+            assertEquals("Bryan", game.getComment(8));
+            assertEquals(List.of("3. Nf3 g5 (3... d6)"), game.getVariations(4));
+        }
+    }
+
+    /** A game with an illegal move fails with its line, and reading goes on from the next tag section. */
+    @Test
+    void skipsBadGame() throws IOException
+    {
+        String pgn = "1. e4 e5 *\n\n[Event \"bad\"]\n\n1. e4 e5\n2. Ke3 *\n\n[Event \"good\"]\n\n1. d4 d5 1/2-1/2\n";
+        try (PgnReader reader = reader(pgn)) {
+            assertEquals(2, reader.next().getMoveCount());
+            PgnFormatException e = assertThrows(PgnFormatException.class, reader::next);
+            assertEquals(6, e.getLine());
+            PgnGame last = reader.next();
+            assertNotNull(last);
+            assertEquals("1/2-1/2", last.getResult());
+            assertNull(reader.next());
+        }
+    }
+
+    /** A FEN tag sets the starting position. */
+    @Test
+    void startsFromFenTag() throws IOException
+    {
+        String pgn = "[SetUp \"1\"]\n[FEN \"4k3/8/8/8/8/8/4P3/4K3 w - - 0 1\"]\n\n1. e4 Kd7 2. e5 *\n";
+        try (PgnReader reader = reader(pgn)) {
+            PgnGame game = reader.next();
+            assertEquals("8/3k4/8/4P3/8/8/8/4K3 b - - 0 2", game.replay(3).toFen());
+        }
+    }
+
+    /** Escape lines, NAGs, annotation marks and move numbers in any form are accepted. */
+    @Test
+    void acceptsLooseMovetext() throws IOException
+    {
+        String pgn = "% exported by a tool\n1.e4! e5?! 2...Nf3 $14 2... Nc6 3.Bb5!! a6 4.Bxc6 dxc6 5.O-O *";
+        try (PgnReader reader = reader(pgn)) {
+            PgnGame game = reader.next();
+            assertEquals(9, game.getMoveCount());
+            assertEquals("r1bqkbnr/1pp2ppp/p1p5/4p3/4P3/5N2/PPPP1PPP/RNBQ1RK1 b kq - 1 5",
+                    game.replay(9).toFen());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.io.pgn;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.Gameboard;
+import chess.MoveGenerator;
+
+/**
+ * Checks PgnWriter, alone and in round trips through PgnReader.
+ */
+class PgnWriterTest
+{
+    /**
+     * Writes games to a string.
+     * @param games the games
+     * @return the PGN text
+     * @throws IOException never, the output being a string
+     */
+    private static String write(List<PgnGame> games) throws IOException
+    {
+        StringWriter out = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            for (PgnGame game : games) {
+                writer.write(game);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Reads every game of a string, keeping comments and variations.
+     * @param pgn the PGN text
+     * @return the games
+     * @throws IOException if a game cannot be read
+     */
+    private static List<PgnGame> read(String pgn) throws IOException
+    {
+        List<PgnGame> games = new ArrayList<>();
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)))) {
+            reader.setKeepComments(true);
+            reader.setKeepVariations(true);
+            for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    /** A game is written in export format: the roster first, numbered SAN, wrapped lines. */
+    @Test
+    void writesExportFormat() throws IOException
+    {
+        PgnGame game = read("[White \"Anderssen\"]\n[Result \"1-0\"]\n[Black \"Kieseritzky\"]\n[Event \"Casual\"]\n\n"
+                + "{Opening} 1. e4 e5 2. f4 exf4 3. Bc4 (3. Nf3 g5 (3... d6)) Qh4+ 4. Kf1 {the king walks}"
+                + " b5 {Bryan} 5. Bxb5 1-0\n").get(0);
+        assertEquals("[Event \"Casual\"]\n"
+                + "[Site \"?\"]\n"
+                + "[Date \"????.??.??\"]\n"
+                + "[Round \"?\"]\n"
+                + "[White \"Anderssen\"]\n"
+                + "[Black \"Kieseritzky\"]\n"
+                + "[Result \"1-0\"]\n"
+                + "\n"
+                + "{Opening} 1. e4 e5 2. f4 exf4 3. Bc4 (3. Nf3 g5 (3... d6)) 3... Qh4+ 4. Kf1\n"
+                + "{the king walks} 4... b5 {Bryan} 5. Bxb5 1-0\n"
+                + "\n", write(List.of(game)));
+    }
+
+    /** A game starting with black to move numbers its first move with an ellipsis. */
+    @Test
+    void numbersBlackFirstMove() throws IOException
+    {
+        PgnGame game = new PgnGame();
+        game.setTag("SetUp", "1");
+        game.setTag("FEN", "4k3/8/8/8/8/8/4P3/4K3 b - - 0 7");
+        Gameboard board = game.createBoard();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        MoveGenerator.generateLegalMoves(board, moves);
+        game.addMove(moves[0]);
+        assertTrue(write(List.of(game)).contains("\n\n7... K"));
+    }
+
+    /** Random games, including promotions, castling and en passant, survive a write and read back. */
+    @Test
+    void roundTrip() throws IOException
+    {
+        Random random = new Random(5);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        List<PgnGame> games = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            PgnGame game = new PgnGame();
+            game.setTag("Round", Integer.toString(i));
+            game.setTag("Annotator", "\"quoted\" \\ name");
+            Gameboard board = game.createBoard();
+            for (int ply = random.nextInt(200); ply > 0; ply--) {
+                int count = MoveGenerator.generateLegalMoves(board, moves);
+                if (count == 0) {
+                    break;
+                }
+                int move = moves[random.nextInt(count)];
+                board.makeMove(move);
+                game.addMove(move);
+                if (random.nextInt(20) == 0) {
+                    game.addComment("note " + ply);
+                }
+            }
+            game.setResult(new String[] {"1-0", "0-1", "1/2-1/2", "*"}[i % 4]);
+            games.add(game);
+        }
+
+        String pgn = write(games);
+        for (String line : pgn.split("\n")) {
+            assertTrue(line.length() <= 79 || line.startsWith("["), line);
+        }
+        List<PgnGame> read = read(pgn);
+        assertEquals(games.size(), read.size());
+        for (int i = 0; i < games.size(); i++) {
+            PgnGame expected = games.get(i);
+            PgnGame actual = read.get(i);
+            assertArrayEquals(expected.getMoves(), actual.getMoves());
+            assertEquals(expected.getResult(), actual.getResult());
+            assertEquals(expected.getTag("Annotator"), actual.getTag("Annotator"));
+            for (int ply = 0; ply <= expected.getMoveCount(); ply++) {
+                assertEquals(expected.getComment(ply), actual.getComment(ply));
+            }
+        }
+        assertNull(read.get(0).getComment(0));
+    }
+}
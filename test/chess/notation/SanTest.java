@@ -0,0 +1,170 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.notation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.Gameboard;
+import chess.MoveCode;
+import chess.MoveGenerator;
+
+/**
+ * Checks San against hand-picked positions and random games.
+ */
+class SanTest
+{
+    /**
+     * Parses a move and writes it back in UCI notation.
+     * @param fen  the position
+     * @param text the move in SAN
+     * @return the move in UCI notation, or null if it was not parsed
+     */
+    private static String parse(String fen, String text)
+    {
+        int move = San.parse(Gameboard.fromFen(fen), text);
+        return move == MoveCode.NONE ? null : Uci.toString(move);
+    }
+
+    /**
+     * Checks castling on both sides, with letters and with digits.
+     */
+    @Test
+    void parsesCastling()
+    {
+        String fen = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1";
+        assertEquals("e1g1", parse(fen, "O-O"));
+        assertEquals("e1c1", parse(fen, "O-O-O"));
+        assertEquals("e1g1", parse(fen, "0-0"));
+        assertEquals("e1c1", parse(fen, "0-0-0"));
+        Gameboard board = Gameboard.fromFen(fen);
+        assertEquals("O-O", San.toString(board, San.parse(board, "O-O")));
+        assertEquals("O-O-O", San.toString(board, San.parse(board, "O-O-O")));
+    }
+
+    /**
+     * Checks that the origin is given by file, rank or square only when it
+     * is needed, and that a wrong or missing origin is rejected.
+     */
+    @Test
+    void disambiguates()
+    {
+        String files = "4k3/8/8/8/8/8/3K4/R6R w - - 0 1";
+        assertEquals(null, parse(files, "Rd1"));
+        assertEquals("a1d1", parse(files, "Rad1"));
+        assertEquals("h1d1", parse(files, "Rhd1"));
+        Gameboard board = Gameboard.fromFen(files);
+        assertEquals("Rad1", San.toString(board, San.parse(board, "Rad1")));
+
+        String ranks = "4k3/R7/8/8/8/8/8/R3K3 w - - 0 1";
+        assertEquals(null, parse(ranks, "Ra4"));
+        assertEquals(null, parse(ranks, "Raa4"));
+        assertEquals("a1a4", parse(ranks, "R1a4"));
+        assertEquals("a7a4", parse(ranks, "R7a4"));
+
+        String squares = "4k3/8/8/8/8/Q7/8/Q1Q1K3 w - - 0 1";
+        assertEquals(null, parse(squares, "Qb2"));
+        assertEquals(null, parse(squares, "Qab2"));
+        assertEquals(null, parse(squares, "Q1b2"));
+        assertEquals("a1b2", parse(squares, "Qa1b2"));
+        board = Gameboard.fromFen(squares);
+        assertEquals("Qa1b2", San.toString(board, San.parse(board, "Qa1b2")));
+
+        String blocked = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1";
+        assertEquals(null, parse(blocked, "Rhd1"));
+        board = Gameboard.fromFen(blocked);
+        assertEquals("Rd1", San.toString(board, San.parse(board, "Rad1")));
+    }
+
+    /**
+     * Checks promotions, with and without the equals sign.
+     */
+    @Test
+    void parsesPromotions()
+    {
+        String fen = "8/P6k/8/8/8/8/8/4K3 w - - 0 1";
+        assertEquals("a7a8q", parse(fen, "a8=Q"));
+        assertEquals("a7a8q", parse(fen, "a8Q"));
+        assertEquals("a7a8n", parse(fen, "a8=N"));
+        assertEquals(null, parse(fen, "a8"));
+        assertEquals(null, parse(fen, "a8=K"));
+        Gameboard board = Gameboard.fromFen(fen);
+        assertEquals("a8=N", San.toString(board, San.parse(board, "a8=N")));
+    }
+
+    /**
+     * Checks en passant captures, with and without the "e.p." marker.
+     */
+    @Test
+    void parsesEnPassant()
+    {
+        String fen = "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1";
+        assertEquals("e5d6", parse(fen, "exd6"));
+        assertEquals("e5d6", parse(fen, "exd6 e.p."));
+        assertEquals("e5d6", parse(fen, "exd6e.p."));
+        assertEquals("e5d6", parse(fen, "ed6"));
+        assertEquals("e5e6", parse(fen, "e6"));
+        Gameboard board = Gameboard.fromFen(fen);
+        assertEquals("exd6", San.toString(board, San.parse(board, "exd6")));
+    }
+
+    /**
+     * Checks that check, mate and annotation suffixes are accepted whether
+     * or not they are right, and that toString writes the right one.
+     */
+    @Test
+    void handlesSuffixes()
+    {
+        String fen = "6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1";
+        for (String text : new String[] {"Ra8", "Ra8+", "Ra8#", "Ra8!!", "Ra8#?!"}) {
+            assertEquals("a1a8", parse(fen, text), text);
+        }
+        Gameboard board = Gameboard.fromFen(fen);
+        assertEquals("Ra8#", San.toString(board, San.parse(board, "Ra8")));
+        board = Gameboard.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        assertEquals("Ra8+", San.toString(board, San.parse(board, "Ra8")));
+    }
+
+    /**
+     * Checks that illegal moves and malformed text are rejected.
+     */
+    @Test
+    void rejectsInvalidMoves()
+    {
+        String start = new Gameboard().toFen();
+        for (String text : new String[] {"", "e5", "Ke2", "Nf4", "exd5", "O-O", "Zf3", "N", "xx"}) {
+            assertEquals(null, parse(start, text), text);
+        }
+    }
+
+    /**
+     * Checks that every legal move in random games is written and parsed
+     * back to itself.
+     */
+    @Test
+    void roundTripsRandomGames()
+    {
+        Random random = new Random(22);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 100; game++) {
+            Gameboard board = new Gameboard();
+            for (int ply = 0; ply < 120; ply++) {
+                int count = MoveGenerator.generateLegalMoves(board, moves);
+                if (count == 0) {
+                    break;
+                }
+                for (int i = 0; i < count; i++) {
+                    String text = San.toString(board, moves[i]);
+                    assertEquals(moves[i], San.parse(board, text), text);
+                }
+                board.makeMove(moves[random.nextInt(count)]);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.notation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.Gameboard;
+import chess.MoveCode;
+import chess.MoveGenerator;
+
+/**
+ * Checks Uci against hand-picked positions and random games.
+ */
+class UciTest
+{
+    /**
+     * Parses a move and writes it back.
+     * @param fen  the position
+     * @param text the move in UCI notation
+     * @return the move written back, or null if it was not parsed
+     */
+    private static String parse(String fen, String text)
+    {
+        int move = Uci.parse(Gameboard.fromFen(fen), text);
+        return move == MoveCode.NONE ? null : Uci.toString(move);
+    }
+
+    /**
+     * Checks plain moves, the separators allowed between the squares and
+     * castling given as a king move.
+     */
+    @Test
+    void parsesMoves()
+    {
+        String start = new Gameboard().toFen();
+        assertEquals("e2e4", parse(start, "e2e4"));
+        assertEquals("e2e4", parse(start, "e2-e4"));
+        assertEquals("e2e4", parse(start, "e2 e4"));
+        assertEquals("g1f3", parse(start, "g1f3"));
+        String castling = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1";
+        assertEquals("e1g1", parse(castling, "e1g1"));
+        assertEquals("e1c1", parse(castling, "e1c1"));
+        Gameboard board = Gameboard.fromFen(castling);
+        assertEquals(San.parse(board, "O-O"), Uci.parse(board, "e1g1"));
+    }
+
+    /**
+     * Checks that every promotion piece is read and that a missing one
+     * means a queen.
+     */
+    @Test
+    void parsesPromotions()
+    {
+        String fen = "8/P6k/8/8/8/8/8/4K3 w - - 0 1";
+        assertEquals("a7a8q", parse(fen, "a7a8"));
+        assertEquals("a7a8q", parse(fen, "a7a8q"));
+        assertEquals("a7a8r", parse(fen, "a7a8r"));
+        assertEquals("a7a8b", parse(fen, "a7a8b"));
+        assertEquals("a7a8n", parse(fen, "a7a8n"));
+        assertEquals(null, parse(fen, "a7a8k"));
+    }
+
+    /**
+     * Checks that illegal moves and malformed text are rejected.
+     */
+    @Test
+    void rejectsInvalidMoves()
+    {
+        String start = new Gameboard().toFen();
+        for (String text : new String[] {"", "e2e5", "e7e5", "e2e4q", "E2E4", "e2", "i2i4", "Nf3"}) {
+            assertEquals(null, parse(start, text), text);
+        }
+    }
+
+    /**
+     * Checks which text has the form of a UCI move, legal or not.
+     */
+    @Test
+    void recognizesUci()
+    {
+        for (String text : new String[] {"e2e4", "e2-e4", "e2 e4", "a7a8q", "e2e5"}) {
+            assertTrue(Uci.isUci(text, 0, text.length()), text);
+        }
+        for (String text : new String[] {"E2E4", "Nf3", "e4", "O-O"}) {
+            assertFalse(Uci.isUci(text, 0, text.length()), text);
+        }
+        assertTrue(Uci.isUci("1. e2e4", 3, 7));
+    }
+
+    /**
+     * Checks that every legal move in random games is written and parsed
+     * back to itself.
+     */
+    @Test
+    void roundTripsRandomGames()
+    {
+        Random random = new Random(22);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 100; game++) {
+            Gameboard board = new Gameboard();
+            for (int ply = 0; ply < 120; ply++) {
+                int count = MoveGenerator.generateLegalMoves(board, moves);
+                if (count == 0) {
+                    break;
+                }
+                for (int i = 0; i < count; i++) {
+                    String text = Uci.toString(moves[i]);
+                    assertEquals(moves[i], Uci.parse(board, text), text);
+                }
+                board.makeMove(moves[random.nextInt(count)]);
+            }
+        }
+    }
+}
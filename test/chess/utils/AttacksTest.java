@@ -0,0 +1,132 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the precomputed and magic-bitboard attacks of Attacks against
+ * attacks walked out square by square.
+ */
+class AttacksTest
+{
+    /** The row and column steps of the rook rays. */
+    private static final int[][] ROOK_STEPS = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+
+    /** The row and column steps of the bishop rays. */
+    private static final int[][] BISHOP_STEPS = { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+
+    /** The row and column steps of a knight. */
+    private static final int[][] KNIGHT_STEPS = {
+        { -2, -1 }, { -2, 1 }, { -1, -2 }, { -1, 2 }, { 1, -2 }, { 1, 2 }, { 2, -1 }, { 2, 1 }
+    };
+
+    /**
+     * Walks the rays of a slider until they leave the board or reach an occupied square.
+     * @param square   the square of the slider
+     * @param occupied the occupied squares
+     * @param steps    the row and column step of each ray
+     * @return the attacked squares, including the first occupied one of each ray
+     */
+    private static long walk(int square, long occupied, int[][] steps)
+    {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int row = Square.row(square) + step[0];
+            int col = Square.col(square) + step[1];
+            while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                attacks |= 1L << Square.of(row, col);
+                if ((occupied & 1L << Square.of(row, col)) != 0) {
+                    break;
+                }
+                row += step[0];
+                col += step[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Takes one step from a square in each direction that stays on the board.
+     * @param square the starting square
+     * @param steps  the row and column steps
+     * @return the squares reached
+     */
+    private static long step(int square, int[][] steps)
+    {
+        return walk(square, -1L, steps);
+    }
+
+    /** Rook, bishop and queen attacks match the ray walk for random occupancies on every square. */
+    @Test
+    void slidersMatchRayWalk()
+    {
+        Random random = new Random(2);
+        for (int square = 0; square < 64; square++) {
+            for (int i = 0; i < 2000; i++) {
+                // sparse and dense boards both occur in games
+                long occupied = i % 2 == 0 ? random.nextLong() & random.nextLong() : random.nextLong();
+                long rook = walk(square, occupied, ROOK_STEPS);
+                long bishop = walk(square, occupied, BISHOP_STEPS);
+                assertEquals(rook, Attacks.rook(square, occupied), Square.name(square));
+                assertEquals(bishop, Attacks.bishop(square, occupied), Square.name(square));
+                assertEquals(rook | bishop, Attacks.queen(square, occupied), Square.name(square));
+            }
+            assertEquals(walk(square, 0L, ROOK_STEPS), Attacks.rook(square, 0L));
+            assertEquals(step(square, ROOK_STEPS), Attacks.rook(square, -1L));
+        }
+    }
+
+    /** Knight, king and pawn attacks match single steps from each square. */
+    @Test
+    void leapersMatchSteps()
+    {
+        int[][] kingSteps = new int[8][];
+        System.arraycopy(ROOK_STEPS, 0, kingSteps, 0, 4);
+        System.arraycopy(BISHOP_STEPS, 0, kingSteps, 4, 4);
+        for (int square = 0; square < 64; square++) {
+            long knight = 0L;
+            for (int[] step : KNIGHT_STEPS) {
+                int row = Square.row(square) + step[0];
+                int col = Square.col(square) + step[1];
+                if (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                    knight |= 1L << Square.of(row, col);
+                }
+            }
+            assertEquals(knight, Attacks.knight(square), Square.name(square));
+            assertEquals(step(square, kingSteps), Attacks.king(square), Square.name(square));
+            // white pawns move towards row 0, black pawns towards row 7
+            assertEquals(step(square, new int[][] { { -1, -1 }, { -1, 1 } }), Attacks.pawn(0, square));
+            assertEquals(step(square, new int[][] { { 1, -1 }, { 1, 1 } }), Attacks.pawn(1, square));
+        }
+    }
+
+    /** between holds the squares strictly between two aligned squares, and line the whole line through them. */
+    @Test
+    void betweenAndLine()
+    {
+        assertEquals(1L << Square.F1 | 1L << Square.G1, Attacks.between(Square.E1, Square.H1));
+        assertEquals(1L << Square.D2 | 1L << Square.C3 | 1L << Square.B4, Attacks.between(Square.E1, Square.A5));
+        assertEquals(0L, Attacks.between(Square.E1, Square.F3));
+        assertEquals(0L, Attacks.between(Square.E1, Square.F1));
+        assertEquals(0xFF00000000000000L, Attacks.line(Square.A1, Square.C1));
+        assertEquals(0L, Attacks.line(Square.A1, Square.B3));
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                long between = Attacks.between(from, to);
+                assertEquals(between, Attacks.between(to, from));
+                if (between != 0) {
+                    assertEquals(between,
+                            Attacks.queen(from, 1L << to) & Attacks.queen(to, 1L << from) & Attacks.line(from, to));
+                }
+            }
+        }
+    }
+}
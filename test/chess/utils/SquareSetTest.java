@@ -0,0 +1,105 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks SquareSet against a TreeSet of the same squares.
+ */
+class SquareSetTest
+{
+    /**
+     * Lists the squares of a mask in ascending order.
+     * @param mask the mask
+     * @return the squares
+     */
+    private static TreeSet<Integer> squares(long mask)
+    {
+        TreeSet<Integer> squares = new TreeSet<>();
+        for (int square = 0; square < 64; square++) {
+            if ((mask & 1L << square) != 0) {
+                squares.add(square);
+            }
+        }
+        return squares;
+    }
+
+    /** Queries, iteration and set operations agree with a TreeSet on random sets. */
+    @Test
+    void matchesTreeSet()
+    {
+        Random random = new Random(14);
+        for (int i = 0; i < 1000; i++) {
+            long a = random.nextLong() & random.nextLong();
+            long b = random.nextLong();
+            SquareSet set = SquareSet.fromMask(a);
+            TreeSet<Integer> expected = squares(a);
+
+            assertEquals(a, set.toMask());
+            assertEquals(expected.size(), set.size());
+            assertEquals(expected.isEmpty(), set.isEmpty());
+            assertEquals(expected.isEmpty() ? Square.NONE : (int) expected.first(), set.first());
+            assertEquals(expected, set.toSet());
+            for (int square = 0; square < 64; square++) {
+                assertEquals(expected.contains(square), set.contains(square));
+            }
+
+            List<Integer> iterated = new ArrayList<>();
+            for (PrimitiveIterator.OfInt it = set.iterator(); it.hasNext();) {
+                iterated.add(it.nextInt());
+            }
+            assertEquals(new ArrayList<>(expected), iterated);
+            List<Integer> visited = new ArrayList<>();
+            set.forEach(visited::add);
+            assertEquals(iterated, visited);
+
+            SquareSet other = SquareSet.fromMask(b);
+            assertEquals(a | b, set.union(other).toMask());
+            assertEquals(a & b, set.intersection(other).toMask());
+            assertEquals(a & ~b, set.minus(other).toMask());
+        }
+    }
+
+    /** Sets are built from squares, compare by their squares and print their names. */
+    @Test
+    void valueSemantics()
+    {
+        SquareSet set = SquareSet.of(Square.D5, Square.E4);
+        assertEquals(SquareSet.fromMask(1L << Square.D5 | 1L << Square.E4), set);
+        assertEquals(SquareSet.of(Square.E4, Square.D5).hashCode(), set.hashCode());
+        assertEquals("[d5, e4]", set.toString());
+        assertEquals("[]", SquareSet.EMPTY.toString());
+        assertSame(SquareSet.EMPTY, SquareSet.of());
+        assertSame(SquareSet.EMPTY, set.minus(set));
+        assertEquals(64, SquareSet.ALL.size());
+        assertTrue(SquareSet.ALL.contains(Square.H1));
+        assertFalse(SquareSet.EMPTY.contains(Square.A8));
+    }
+
+    /** The iterator of an exhausted set throws. */
+    @Test
+    void exhaustedIterator()
+    {
+        PrimitiveIterator.OfInt it = SquareSet.of(Square.A1).iterator();
+        assertEquals(Square.A1, it.nextInt());
+        assertFalse(it.hasNext());
+        assertThrows(NoSuchElementException.class, it::nextInt);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * @author Trevor Dovan
+ * @author Kate Liu
+ */
+
+package chess.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the square index helpers of Square.
+ */
+class SquareTest
+{
+    /** Every square converts between index, row and column, and name, in both directions. */
+    @Test
+    void roundTrips()
+    {
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                int square = Square.of(row, col);
+                assertTrue(Square.isValid(square));
+                assertEquals(row, Square.row(square));
+                assertEquals(col, Square.col(square));
+                assertEquals((char) ('a' + col), Square.file(square));
+                assertEquals(8 - row, Square.rank(square));
+                String name = Square.name(square);
+                assertEquals("" + Square.file(square) + Square.rank(square), name);
+                assertEquals(square, Square.parse(name));
+            }
+        }
+    }
+
+    /** The named constants run from a8 to h1. */
+    @Test
+    void constants()
+    {
+        assertEquals(0, Square.A8);
+        assertEquals(63, Square.H1);
+        assertEquals("e1", Square.name(Square.E1));
+        assertEquals("d5", Square.name(Square.D5));
+        assertEquals(Square.of(6, 4), Square.E2);
+    }
+
+    /** Indices off the board are not squares and have the name "-". */
+    @Test
+    void invalidSquares()
+    {
+        assertFalse(Square.isValid(Square.NONE));
+        assertFalse(Square.isValid(64));
+        assertEquals("-", Square.name(Square.NONE));
+        assertEquals("-", Square.name(64));
+    }
+
+    /** Names are parsed at an offset, and anything that is not a name gives NONE. */
+    @Test
+    void parses()
+    {
+        assertEquals(Square.E4, Square.parse("e4"));
+        assertEquals(Square.E4, Square.parse("e4e5"));
+        assertEquals(Square.E5, Square.parse("e4e5", 2));
+        assertEquals(Square.A1, Square.parse("Nxa1", 2));
+        String[] invalid = { "", "e", "i4", "e9", "e0", "4e", "\u00e94" };
+        for (String text : invalid) {
+            assertEquals(Square.NONE, Square.parse(text), text);
+        }
+        assertEquals(Square.NONE, Square.parse("e4", 1));
+        assertEquals(Square.NONE, Square.parse("e4", -1));
+    }
+}